@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.neo4j.config.EnableNeo4jAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application principale de la plateforme de bibliothèque en ligne
@@ -14,6 +15,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @SpringBootApplication
 @EnableNeo4jAuditing
 @EnableAsync
+@EnableScheduling
 public class OnlineLibraryApplication {
 
     public static void main(String[] args) {
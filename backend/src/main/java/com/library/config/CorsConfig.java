@@ -40,7 +40,9 @@ public class CorsConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "If-None-Match",
+            "If-Modified-Since"
         ));
         
         // Headers exposés
@@ -48,7 +50,9 @@ public class CorsConfig {
             "Access-Control-Allow-Origin",
             "Access-Control-Allow-Credentials",
             "Authorization",
-            "Content-Disposition"
+            "Content-Disposition",
+            "ETag",
+            "Last-Modified"
         ));
         
         // Autoriser les credentials (cookies, authorization headers)
@@ -49,6 +49,7 @@ public class DataInitializer implements CommandLineRunner {
             initializeCategories();
             initializeTags();
             initializeAdminUser();
+            backfillDownloadCounts();
             
             logger.info("Initialisation des données terminée avec succès");
         } catch (Exception e) {
@@ -133,6 +134,13 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
     
+    private void backfillDownloadCounts() {
+        Long users = userRepository.backfillDownloadCounts();
+        if (users != null && users > 0) {
+            logger.info("Compteurs de téléchargements repris depuis l'historique pour {} utilisateurs", users);
+        }
+    }
+    
     private void initializeAdminUser() {
         logger.info("Initialisation de l'utilisateur administrateur...");
         
@@ -0,0 +1,66 @@
+package com.library.config;
+
+import com.library.repository.BookRepository;
+import com.library.event.CatalogReloadEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Création des index de recherche de livres au démarrage : index full-text et index
+ * de propriétés Neo4j, puis construction des index en mémoire (recherche, autocomplétion)
+ */
+@Component
+public class SearchIndexInitializer implements CommandLineRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexInitializer.class);
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        logger.info("Initialisation des index de recherche full-text...");
+        
+        try {
+            // Titre, auteur et description des livres
+            neo4jClient.query(
+                "CREATE FULLTEXT INDEX " + BookRepository.BOOK_FULLTEXT_INDEX + " IF NOT EXISTS " +
+                "FOR (b:Book) ON EACH [b.title, b.author, b.description]"
+            ).run();
+            
+            // Noms des tags, rattachés aux livres via HAS_TAG lors de la recherche
+            neo4jClient.query(
+                "CREATE FULLTEXT INDEX " + BookRepository.TAG_FULLTEXT_INDEX + " IF NOT EXISTS " +
+                "FOR (t:Tag) ON EACH [t.name]"
+            ).run();
+            
+            // Clés des MERGE de l'import en masse : sans index, chaque ligne parcourrait tous les nœuds
+            neo4jClient.query("CREATE INDEX book_isbn IF NOT EXISTS FOR (b:Book) ON (b.isbn)").run();
+            neo4jClient.query("CREATE INDEX book_title_author IF NOT EXISTS FOR (b:Book) ON (b.title, b.author)").run();
+            neo4jClient.query("CREATE INDEX tag_name IF NOT EXISTS FOR (t:Tag) ON (t.name)").run();
+            
+            // Vecteurs de goûts, lus et écrits par utilisateur
+            neo4jClient.query("CREATE INDEX taste_vector_user IF NOT EXISTS FOR (v:TasteVector) ON (v.userId)").run();
+            
+            // Pré-calcul des recommandations : utilisateurs actifs, avancement, listes périmées
+            neo4jClient.query("CREATE INDEX download_history_downloaded_at IF NOT EXISTS FOR (dh:DownloadHistory) ON (dh.downloadedAt)").run();
+            neo4jClient.query("CREATE INDEX recommendation_job_name IF NOT EXISTS FOR (j:RecommendationJob) ON (j.name)").run();
+            neo4jClient.query("CREATE INDEX recommended_computed_at IF NOT EXISTS FOR ()-[r:RECOMMENDED]-() ON (r.computedAt)").run();
+            
+            logger.info("Index de recherche full-text prêts");
+        } catch (Exception e) {
+            logger.error("Erreur lors de la création des index full-text", e);
+        }
+        
+        // Construction des index en mémoire ; d'ici là, la recherche passe par Neo4j
+        eventPublisher.publishEvent(new CatalogReloadEvent("démarrage"));
+    }
+}
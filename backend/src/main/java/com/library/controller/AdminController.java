@@ -7,23 +7,35 @@ import com.library.model.Role;
 import com.library.model.User;
 import com.library.repository.BookRepository;
 import com.library.repository.DownloadHistoryRepository;
+import com.library.repository.FavoriteRepository;
 import com.library.repository.RoleRepository;
 import com.library.repository.UserRepository;
+import com.library.service.BookImportService;
+import com.library.service.CatalogExportService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +67,18 @@ public class AdminController {
     @Autowired
     private BookRepository bookRepository;
     
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
+    @Autowired
+    private CatalogExportService catalogExportService;
+    
+    @Autowired
+    private BookImportService bookImportService;
+    
+    @Value("${app.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+    
     /**
      * Récupère tous les utilisateurs (Admin seulement)
      */
@@ -136,7 +160,8 @@ public class AdminController {
             logger.info("Statut utilisateur modifié: {} -> {}", 
                 user.getUsername(), user.getEnabled() ? "activé" : "désactivé");
             
-            return ResponseEntity.ok(UserDto.fromEntity(updatedUser));
+            return ResponseEntity.ok(UserDto.fromEntity(updatedUser,
+                favoriteRepository.findBookIdsByUserId(updatedUser.getId())));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la modification du statut utilisateur {}", userId, e);
@@ -191,7 +216,8 @@ public class AdminController {
             
             logger.info("Rôle utilisateur modifié: {} -> {}", user.getUsername(), roleNameEnum);
             
-            return ResponseEntity.ok(UserDto.fromEntity(updatedUser));
+            return ResponseEntity.ok(UserDto.fromEntity(updatedUser,
+                favoriteRepository.findBookIdsByUserId(updatedUser.getId())));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la modification du rôle utilisateur {}", userId, e);
@@ -199,6 +225,98 @@ public class AdminController {
         }
     }
 
+    /**
+     * Exporte tout le catalogue en NDJSON, écrit au fil de la lecture Neo4j (Admin seulement)
+     */
+    @GetMapping(value = "/export/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Export du catalogue",
+        description = "Exporte tous les livres en NDJSON (un objet JSON par ligne), en flux et à mémoire constante"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export en cours de transmission"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    public WebAsyncTask<Void> exportBooks(
+            @Parameter(description = "Inclure la catégorie et les tags de chaque livre")
+            @RequestParam(defaultValue = "false") boolean includeRelations,
+            HttpServletResponse response) {
+        
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"");
+        
+        // Écrit sur le thread asynchrone de Spring MVC : les écritures bloquent tant que
+        // le client ne consomme pas, ce qui suspend la lecture côté Neo4j. Délai propre à
+        // l'export, les autres requêtes asynchrones gardent celui par défaut
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            try {
+                catalogExportService.exportBooks(response.getOutputStream(), includeRelations);
+            } catch (IOException e) {
+                logger.warn("Export du catalogue interrompu: {}", e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                logger.error("Erreur lors de l'export du catalogue", e);
+                throw e;
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Lance l'import en masse de livres depuis un fichier CSV, JSON ou une archive zip (Admin seulement)
+     */
+    @PostMapping(value = "/import/books", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Import de livres",
+        description = "Importe des livres depuis un fichier CSV (colonnes title, author, isbn, description, " +
+                      "publicationYear, pageCount, language, categoryId ou category, tags séparés par |, pdfFile), " +
+                      "JSON ou NDJSON, éventuellement dans une archive zip contenant aussi les PDF. " +
+                      "L'import s'exécute en tâche de fond : suivre sa progression via /admin/import/books/{jobId}"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import démarré"),
+        @ApiResponse(responseCode = "400", description = "Fichier absent ou format non pris en charge"),
+        @ApiResponse(responseCode = "500", description = "Erreur serveur")
+    })
+    public ResponseEntity<?> importBooks(@RequestParam("file") MultipartFile file) {
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().body("Fichier vide");
+            }
+            
+            BookImportService.ImportJob job = bookImportService.prepare(file);
+            bookImportService.runImport(job);
+            
+            logger.info("Import de livres {} accepté: {}", job.getId(), job.getFileName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erreur lors du démarrage de l'import de livres", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Progression et lignes rejetées d'un import
+     */
+    @GetMapping("/import/books/{jobId}")
+    @Operation(summary = "Suivi d'un import", description = "Progression, lignes importées et lignes rejetées d'un import")
+    public ResponseEntity<BookImportService.ImportJob> getImportJob(@PathVariable String jobId) {
+        BookImportService.ImportJob job = bookImportService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Imports récents
+     */
+    @GetMapping("/import/books")
+    @Operation(summary = "Imports récents", description = "Liste des derniers imports de livres, du plus récent au plus ancien")
+    public ResponseEntity<List<BookImportService.ImportJob>> getImportJobs() {
+        return ResponseEntity.ok(bookImportService.getJobs());
+    }
+    
     /**
      * Endpoint de test pour vérifier l'historique des téléchargements (temporaire)
      */
@@ -4,6 +4,7 @@ import com.library.dto.AuthDto;
 import com.library.dto.UserDto;
 import com.library.model.Role;
 import com.library.model.User;
+import com.library.repository.FavoriteRepository;
 import com.library.repository.RoleRepository;
 import com.library.repository.UserRepository;
 import com.library.security.JwtUtils;
@@ -46,6 +47,9 @@ public class AuthController {
     @Autowired
     private RoleRepository roleRepository;
     
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
@@ -207,7 +211,8 @@ public class AuthController {
                     Optional<User> user = userRepository.findByUsername(username);
                     
                     if (user.isPresent()) {
-                        UserDto userDto = UserDto.fromEntity(user.get());
+                        UserDto userDto = UserDto.fromEntity(user.get(),
+                            favoriteRepository.findBookIdsByUserId(user.get().getId()));
                         return ResponseEntity.ok(userDto);
                     }
                 }
@@ -1,16 +1,27 @@
 package com.library.controller;
 
 import com.library.dto.BookDto;
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
 import com.library.model.Book;
 import com.library.model.Category;
 import com.library.model.Tag;
 import com.library.model.User;
 import com.library.repository.BookRepository;
 import com.library.repository.CategoryRepository;
-import com.library.repository.TagRepository;
 import com.library.repository.UserRepository;
+import com.library.service.BookDetailCache;
+import com.library.service.BookFacetService;
+import com.library.service.BookSearchIndex;
+import com.library.service.BookSuggestionIndex;
+import com.library.service.CatalogReadModel;
+import com.library.service.CatalogVersionService;
 import com.library.service.FileStorageService;
+import com.library.service.TagDictionary;
 import com.library.service.CoverGenerationService;
+import com.library.util.BookCursor;
+import com.library.util.FilterExpression;
+import com.library.util.FullTextQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,10 +31,14 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -37,7 +52,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -57,7 +71,7 @@ public class BookController {
     private CategoryRepository categoryRepository;
     
     @Autowired
-    private TagRepository tagRepository;
+    private TagDictionary tagDictionary;
     
     @Autowired
     private UserRepository userRepository;
@@ -68,6 +82,33 @@ public class BookController {
     @Autowired
     private CoverGenerationService coverGenerationService;
     
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    
+    @Autowired
+    private BookSuggestionIndex bookSuggestionIndex;
+    
+    @Autowired
+    private BookFacetService bookFacetService;
+    
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private BookDetailCache bookDetailCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.search.in-memory.enabled:true}")
+    private boolean inMemorySearchEnabled;
+    
+    @Value("${app.catalog.in-memory.enabled:true}")
+    private boolean inMemoryCatalogEnabled;
+    
     /**
      * Endpoint de test public pour vérifier la connectivité
      */
@@ -220,6 +261,9 @@ public class BookController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste récupérée avec succès"),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis l'ETag fourni"),
+        @ApiResponse(responseCode = "400", description = "Curseur, critère de tri ou expression de filtre invalide"),
+        @ApiResponse(responseCode = "503", description = "Expression de filtre reçue alors que le catalogue en mémoire est indisponible"),
         @ApiResponse(responseCode = "500", description = "Erreur serveur")
     })
     public ResponseEntity<Page<BookDto>> getAllBooks(
@@ -234,60 +278,75 @@ public class BookController {
             @Parameter(description = "Filtrer par catégorie ID")
             @RequestParam(required = false) Long categoryId,
             @Parameter(description = "Filtrer par tags (séparés par virgule)")
-            @RequestParam(required = false) String tags) {
+            @RequestParam(required = false) String tags,
+            @Parameter(description = "Expression de filtre, ex: tag:roman AND (language:fr OR language:en) AND NOT year:2001")
+            @RequestParam(required = false) String filter,
+            @Parameter(description = "Curseur de continuation (nextCursor de la page précédente)")
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
+            // Requête conditionnelle : catalogue inchangé, aucune requête ni sérialisation
+            String etag = catalogVersionService.etag();
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).build();
+            }
+            
             logger.debug("Récupération des livres avec paramètres: page={}, size={}, sortBy={}, sortDir={}", 
                 page, size, sortBy, sortDir);
-            logger.debug("Filtres: categoryId={}, tags={}", categoryId, tags);
-            
-            int skip = page * size;
-            List<Book> books;
+            logger.debug("Filtres: categoryId={}, tags={}, filter={}", categoryId, tags, filter);
             
-            // Si des filtres sont appliqués, utiliser la recherche simplifiée
-            if (categoryId != null || tags != null) {
-                logger.debug("Utilisation de la recherche simplifiée avec filtres");
-                books = bookRepository.findBooksWithSimpleFilters(categoryId, tags);
-                logger.debug("Livres trouvés avec filtres: {}", books.size());
-            } else {
-                logger.debug("Récupération de tous les livres disponibles");
-                books = bookRepository.findAllAvailable();
-                logger.debug("Tous les livres disponibles: {}", books.size());
+            // La pertinence n'a de sens que pour une recherche : la liste la refuse plutôt que
+            // de trier silencieusement par date avec un curseur positionnel
+            if ("relevance".equals(BookCursor.normalizeSortBy(sortBy))) {
+                throw new IllegalArgumentException("Tri par pertinence réservé à la recherche");
             }
             
-            // Tri
-            books = sortBooks(books, sortBy, sortDir);
-            logger.debug("Livres après tri: {}", books.size());
+            boolean ascending = "asc".equalsIgnoreCase(sortDir);
+            BookCursor after = cursor != null ? BookCursor.decode(cursor, sortBy, ascending) : null;
+            int skip = after != null ? after.getOffset() : page * size;
+            FilterExpression expression = FilterExpression.parse(filter);
             
-            // Pagination manuelle
-            List<Book> paginatedBooks = books.stream()
-                .skip(skip)
-                .limit(size)
-                .collect(Collectors.toList());
+            // Instantané en mémoire : filtres (index bitmap), tri et pagination sans requête Neo4j
+            if (inMemoryCatalogEnabled && catalogReadModel.isReady()) {
+                CatalogReadModel.PageResult snapshotPage = catalogReadModel.page(
+                    FilterExpression.and(FilterExpression.of(categoryId, tags), expression),
+                    sortBy, ascending, after != null ? after.getId() : null, skip, size
+                );
+                // null : livre du curseur absent de l'instantané, Neo4j prend le relais
+                if (snapshotPage != null) {
+                    return ResponseEntity.ok().eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL)
+                        .body(pageOf(snapshotPage.getBooks(), snapshotPage.getBooks().size(),
+                            page, size, skip, snapshotPage.getTotal(), sortBy, ascending));
+                }
+            }
             
-            logger.debug("Livres après pagination: {}", paginatedBooks.size());
+            // Les expressions de filtre ne sont évaluées que sur l'index en mémoire
+            if (expression != null) {
+                logger.warn("Filtre {} non évaluable: catalogue en mémoire indisponible", filter);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
             
-            List<BookDto> bookDtos = paginatedBooks.stream()
-                .map(book -> {
-                    try {
-                        return BookDto.fromEntity(book);
-                    } catch (Exception e) {
-                        logger.error("Erreur lors de la conversion du livre ID: {}", book.getId(), e);
-                        return null;
-                    }
-                })
-                .filter(dto -> dto != null)
-                .collect(Collectors.toList());
+            // Tri et pagination effectués par Neo4j : seule la page demandée est chargée
+            List<BookRepository.BookSummary> paginatedBooks = bookRepository.findBookSummariesWithSimpleFiltersSorted(
+                categoryId, tags, sortBy, ascending,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null,
+                skip, size
+            );
+            long total = bookRepository.countBooksWithSimpleFilters(categoryId, tags);
             
-            logger.debug("DTOs créés: {}", bookDtos.size());
+            logger.debug("Livres de la page: {}, total: {}", paginatedBooks.size(), total);
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<BookDto> result = new com.library.util.PageImpl<>(bookDtos, pageable, books.size());
+            Page<BookDto> result = toBookPage(paginatedBooks, page, size, skip, total, sortBy, ascending);
             
             logger.debug("Page créée avec succès - Total: {}, Pages: {}", result.getTotalElements(), result.getTotalPages());
             
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).body(result);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Curseur, tri ou filtre invalide pour la liste des livres: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des livres", e);
             return ResponseEntity.internalServerError().build();
@@ -295,45 +354,39 @@ public class BookController {
     }
     
     /**
-     * Méthode utilitaire pour trier les livres
+     * Méthode utilitaire pour construire une page de livres avec son curseur de continuation
      */
-    private List<Book> sortBooks(List<Book> books, String sortBy, String sortDir) {
-        boolean ascending = "asc".equalsIgnoreCase(sortDir);
-        
-        return books.stream()
-            .sorted((b1, b2) -> {
-                int comparison = 0;
-                
-                switch (sortBy) {
-                    case "title":
-                        comparison = b1.getTitle().compareToIgnoreCase(b2.getTitle());
-                        break;
-                    case "author":
-                        comparison = b1.getAuthor().compareToIgnoreCase(b2.getAuthor());
-                        break;
-                    case "downloadCount":
-                        comparison = Long.compare(b1.getDownloadCount(), b2.getDownloadCount());
-                        break;
-                    case "favoriteCount":
-                        comparison = Long.compare(b1.getFavoriteCount(), b2.getFavoriteCount());
-                        break;
-                    case "publicationYear":
-                        Integer year1 = b1.getPublicationYear();
-                        Integer year2 = b2.getPublicationYear();
-                        if (year1 == null && year2 == null) comparison = 0;
-                        else if (year1 == null) comparison = 1;
-                        else if (year2 == null) comparison = -1;
-                        else comparison = year1.compareTo(year2);
-                        break;
-                    case "createdAt":
-                    default:
-                        comparison = b1.getCreatedAt().compareTo(b2.getCreatedAt());
-                        break;
+    private Page<BookDto> toBookPage(List<BookRepository.BookSummary> books, int page, int size, int skip, long total,
+                                     String sortBy, boolean ascending) {
+        List<BookDto> bookDtos = books.stream()
+            .map(book -> {
+                try {
+                    return BookDto.fromSummary(book);
+                } catch (Exception e) {
+                    logger.error("Erreur lors de la conversion du livre ID: {}", book.getId(), e);
+                    return null;
                 }
-                
-                return ascending ? comparison : -comparison;
             })
+            .filter(dto -> dto != null)
             .collect(Collectors.toList());
+        return pageOf(bookDtos, books.size(), page, size, skip, total, sortBy, ascending);
+    }
+    
+    /**
+     * Page de livres déjà convertis (fetched : nombre de livres lus pour cette page)
+     */
+    private Page<BookDto> pageOf(List<BookDto> bookDtos, int fetched, int page, int size, int skip, long total,
+                                 String sortBy, boolean ascending) {
+        // Une page pleine peut avoir une suite : le curseur pointe après son dernier livre
+        String nextCursor = null;
+        if (!bookDtos.isEmpty() && fetched >= size) {
+            nextCursor = "relevance".equals(BookCursor.normalizeSortBy(sortBy))
+                ? BookCursor.encodeOffset(sortBy, ascending, skip + fetched)
+                : BookCursor.encode(bookDtos.get(bookDtos.size() - 1), sortBy, ascending);
+        }
+            
+        Pageable pageable = PageRequest.of(page, size);
+        return new com.library.util.PageImpl<>(bookDtos, pageable, total, nextCursor);
     }
     
     /**
@@ -346,15 +399,32 @@ public class BookController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Livre trouvé"),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis l'ETag fourni"),
         @ApiResponse(responseCode = "404", description = "Livre non trouvé"),
         @ApiResponse(responseCode = "500", description = "Erreur serveur")
     })
-    public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDto> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Optional<Book> book = bookRepository.findById(id);
+            String etag = catalogVersionService.etag();
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).build();
+            }
+            
+            // Fiche en cache, invalidée à chaque écriture sur le livre
+            Optional<BookDto> book = bookDetailCache.get(id);
             
             if (book.isPresent()) {
-                return ResponseEntity.ok(BookDto.fromEntity(book.get()));
+                // Last-Modified indicatif (ne suit pas les compteurs), la validation repose sur
+                // l'ETag, qui change aussi avec les favoris et téléchargements
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL);
+                if (book.get().getUpdatedAt() != null) {
+                    response.lastModified(book.get().getUpdatedAt());
+                }
+                return response.body(book.get());
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -384,86 +454,119 @@ public class BookController {
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Taille de la page")
             @RequestParam(defaultValue = "12") int size,
-            @Parameter(description = "Critère de tri")
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @Parameter(description = "Critère de tri (relevance par défaut)")
+            @RequestParam(defaultValue = "relevance") String sortBy,
             @Parameter(description = "Direction du tri")
             @RequestParam(defaultValue = "desc") String sortDir,
             @Parameter(description = "Filtrer par catégorie ID")
             @RequestParam(required = false) Long categoryId,
             @Parameter(description = "Filtrer par tags (séparés par virgule)")
-            @RequestParam(required = false) String tags) {
+            @RequestParam(required = false) String tags,
+            @Parameter(description = "Curseur de continuation (nextCursor de la page précédente)")
+            @RequestParam(required = false) String cursor) {
         
         try {
             logger.debug("Recherche avec query='{}' et filtres: categoryId={}, tags={}", 
                 query, categoryId, tags);
             
-            int skip = page * size;
-            List<Book> books;
-            
-            // Utiliser la recherche simplifiée qui combine recherche textuelle et filtres
-            books = bookRepository.searchBooksWithSimpleFilters(
-                query, categoryId, tags
-            );
+            boolean ascending = "asc".equalsIgnoreCase(sortDir);
+            BookCursor after = cursor != null ? BookCursor.decode(cursor, sortBy, ascending) : null;
+            int skip = after != null ? after.getOffset() : page * size;
             
-            logger.debug("Livres trouvés avec recherche et filtres: {}", books.size());
+            // Index en mémoire : aucun aller-retour Neo4j (curseurs positionnels uniquement)
+            if (inMemorySearchEnabled && bookSearchIndex.isReady() && (after == null || after.getId() == null)) {
+                BookSearchIndex.SearchResult found = bookSearchIndex.search(
+                    query, categoryId, tags, sortBy, ascending, skip, size
+                );
+                int next = skip + found.getBooks().size();
+                String nextCursor = next < found.getTotal() ? BookCursor.encodeOffset(sortBy, ascending, next) : null;
+                
+                logger.debug("Recherche en mémoire terminée - Total: {}", found.getTotal());
+                return ResponseEntity.ok(new com.library.util.PageImpl<>(
+                    found.getBooks(), PageRequest.of(page, size), found.getTotal(), nextCursor
+                ));
+            }
             
-            // Tri
-            books = sortBooks(books, sortBy, sortDir);
+            // Requête Lucene pour les index full-text ; aucune saisie exploitable = aucun résultat
+            String fullTextQuery = FullTextQuery.fromUserInput(query);
+            if (fullTextQuery == null) {
+                return ResponseEntity.ok(new com.library.util.PageImpl<>(List.of(), PageRequest.of(page, size), 0));
+            }
             
-            // Pagination manuelle
-            List<Book> paginatedBooks = books.stream()
-                .skip(skip)
-                .limit(size)
-                .collect(Collectors.toList());
+            // Recherche full-text et filtres, triés (pertinence par défaut) et paginés par Neo4j
+            List<BookRepository.BookSummary> books = bookRepository.searchBookSummariesWithSimpleFiltersSorted(
+                fullTextQuery, categoryId, tags, sortBy, ascending,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null,
+                skip, size
+            );
+            long total = bookRepository.countSearchBooksWithSimpleFilters(fullTextQuery, categoryId, tags);
             
-            List<BookDto> bookDtos = paginatedBooks.stream()
-                .map(book -> {
-                    try {
-                        return BookDto.fromEntity(book);
-                    } catch (Exception e) {
-                        logger.error("Erreur lors de la conversion du livre ID: {}", book.getId(), e);
-                        return null;
-                    }
-                })
-                .filter(dto -> dto != null)
-                .collect(Collectors.toList());
+            logger.debug("Livres trouvés avec recherche et filtres: {}", total);
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<BookDto> result = new com.library.util.PageImpl<>(bookDtos, pageable, books.size());
+            Page<BookDto> result = toBookPage(books, page, size, skip, total, sortBy, ascending);
             
             logger.debug("Recherche terminée - Total: {}, Pages: {}", result.getTotalElements(), result.getTotalPages());
             
             return ResponseEntity.ok(result);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Curseur invalide pour la recherche: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Erreur lors de la recherche de livres", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * Suggestions d'autocomplétion pour le champ de recherche
+     */
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Autocomplétion",
+        description = "Complétions de titres, auteurs, tags et catégories pour un début de saisie, par popularité"
+    )
+    public ResponseEntity<List<BookSuggestionIndex.Suggestion>> suggest(
+            @Parameter(description = "Début de saisie")
+            @RequestParam String prefix,
+            @Parameter(description = "Nombre maximal de suggestions")
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        try {
+            return ResponseEntity.ok(bookSuggestionIndex.suggest(prefix, limit));
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'autocomplétion pour '{}'", prefix, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     /**
      * Récupère les filtres disponibles
      */
     @GetMapping("/filters")
     @Operation(
         summary = "Filtres disponibles",
-        description = "Récupère les options de filtrage disponibles (langues, années, etc.)"
+        description = "Récupère les options de filtrage disponibles (langues, années, catégories, tags) " +
+                      "avec le nombre de livres pour chaque valeur dans le contexte des filtres courants"
     )
-    public ResponseEntity<Map<String, Object>> getAvailableFilters() {
+    public ResponseEntity<Map<String, Object>> getAvailableFilters(
+            @Parameter(description = "Filtrer par catégorie ID")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Filtrer par tags (séparés par virgule)")
+            @RequestParam(required = false) String tags,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
         try {
-            List<String> languages = bookRepository.findAllLanguages();
-            List<Integer> years = bookRepository.findAllPublicationYears();
-            List<Category> categories = categoryRepository.findAll();
-            
-            Map<String, Object> filters = Map.of(
-                "languages", languages,
-                "years", years,
-                "categories", categories.stream()
-                    .map(c -> Map.of("id", c.getId(), "name", c.getName()))
-                    .collect(Collectors.toList())
-            );
+            String etag = catalogVersionService.etag();
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).build();
+            }
+            
+            // Une seule requête d'agrégation, en cache jusqu'à la prochaine écriture sur le catalogue
+            Map<String, Object> filters = bookFacetService.getFacets(categoryId, tags);
             
-            return ResponseEntity.ok(filters);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).body(filters);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des filtres", e);
@@ -482,22 +585,38 @@ public class BookController {
     public ResponseEntity<Page<BookDto>> getBooksByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor) {
         
         try {
-            int skip = page * size;
-            List<Book> books = bookRepository.findByCategoryIdPaginated(categoryId, skip, size);
-            long total = bookRepository.countByCategoryId(categoryId);
+            // Plus récents d'abord, comme findByCategoryIdPaginated, mais avec reprise par curseur
+            BookCursor after = cursor != null ? BookCursor.decode(cursor, "createdAt", false) : null;
+            int skip = after != null ? after.getOffset() : page * size;
             
-            List<BookDto> bookDtos = books.stream()
-                .map(BookDto::fromEntity)
-                .collect(Collectors.toList());
+            if (inMemoryCatalogEnabled && catalogReadModel.isReady()) {
+                CatalogReadModel.PageResult snapshotPage = catalogReadModel.page(
+                    categoryId, null, "createdAt", false, after != null ? after.getId() : null, skip, size
+                );
+                if (snapshotPage != null) {
+                    return ResponseEntity.ok(pageOf(snapshotPage.getBooks(), snapshotPage.getBooks().size(),
+                        page, size, skip, snapshotPage.getTotal(), "createdAt", false));
+                }
+            }
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<BookDto> result = new com.library.util.PageImpl<>(bookDtos, pageable, total);
+            List<BookRepository.BookSummary> books = bookRepository.findBookSummariesWithSimpleFiltersSorted(
+                categoryId, null, "createdAt", false,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null,
+                skip, size
+            );
+            long total = bookRepository.countByCategoryId(categoryId);
+            
+            Page<BookDto> result = toBookPage(books, page, size, skip, total, "createdAt", false);
             
             return ResponseEntity.ok(result);
             
+        } catch (IllegalArgumentException e) {
+            logger.warn("Curseur invalide pour les livres par catégorie: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des livres par catégorie", e);
             return ResponseEntity.internalServerError().build();
@@ -545,16 +664,9 @@ public class BookController {
             book.setCategory(category.get());
             
             // Gérer les tags
+            // Tous les tags résolus en un appel (cache, puis MERGE ensembliste)
             if (createRequest.getTagNames() != null && !createRequest.getTagNames().isEmpty()) {
-                Set<com.library.model.Tag> tags = createRequest.getTagNames().stream()
-                    .map(tagName -> tagRepository.findByName(tagName)
-                        .orElseGet(() -> {
-                            com.library.model.Tag newTag = new com.library.model.Tag();
-                            newTag.setName(tagName);
-                            return tagRepository.save(newTag);
-                        }))
-                    .collect(Collectors.toSet());
-                book.setTags(tags);
+                book.setTags(tagDictionary.resolve(createRequest.getTagNames()));
             }
 
             // Gérer le fichier PDF si présent
@@ -611,6 +723,8 @@ public class BookController {
                 }
             }
             
+            eventPublisher.publishEvent(BookChangedEvent.saved(savedBook));
+            
             logger.info("Livre créé avec succès: {} (ID: {})", savedBook.getTitle(), savedBook.getId());
             return ResponseEntity.ok(BookDto.fromEntity(savedBook));
             
@@ -662,15 +776,7 @@ public class BookController {
 
             // Mettre à jour les tags si fournis
             if (updateRequest.getTagNames() != null) {
-                Set<com.library.model.Tag> tags = updateRequest.getTagNames().stream()
-                    .map(tagName -> tagRepository.findByName(tagName)
-                        .orElseGet(() -> {
-                            com.library.model.Tag newTag = new com.library.model.Tag();
-                            newTag.setName(tagName);
-                            return tagRepository.save(newTag);
-                        }))
-                    .collect(Collectors.toSet());
-                book.setTags(tags);
+                book.setTags(tagDictionary.resolve(updateRequest.getTagNames()));
             }
 
             // Gérer le fichier PDF si présent
@@ -688,6 +794,7 @@ public class BookController {
             }
             
             Book updatedBook = bookRepository.save(book);
+            eventPublisher.publishEvent(BookChangedEvent.saved(updatedBook));
             
             logger.info("Livre mis à jour: {} (ID: {})", updatedBook.getTitle(), updatedBook.getId());
             return ResponseEntity.ok(BookDto.fromEntity(updatedBook));
@@ -715,6 +822,7 @@ public class BookController {
             }
             
             bookRepository.deleteById(id);
+            eventPublisher.publishEvent(BookChangedEvent.deleted(id));
             
             logger.info("Livre supprimé: ID {}", id);
             return ResponseEntity.noContent().build();
@@ -785,6 +893,7 @@ public class BookController {
             }
             
             bookRepository.save(book);
+            eventPublisher.publishEvent(BookChangedEvent.saved(book));
             
             logger.info("PDF uploadé pour le livre: {} (ID: {})", book.getTitle(), book.getId());
             return ResponseEntity.ok().body(Map.of(
@@ -859,6 +968,11 @@ public class BookController {
                 }
             }
             
+            // Livres chargés sans catégorie ni tags : réindexation complète plutôt qu'unitaire
+            if (successCount > 0) {
+                eventPublisher.publishEvent(new CatalogReloadEvent("régénération des couvertures"));
+            }
+            
             Map<String, Object> result = Map.of(
                 "message", "Régénération des couvertures terminée",
                 "totalProcessed", booksWithoutCovers.size(),
@@ -908,6 +1022,7 @@ public class BookController {
             book.setCoverImage(fileName);
             
             bookRepository.save(book);
+            eventPublisher.publishEvent(BookChangedEvent.saved(book));
             
             logger.info("Couverture uploadée pour le livre: {} (ID: {})", book.getTitle(), book.getId());
             return ResponseEntity.ok().body("Couverture uploadée avec succès");
@@ -1,8 +1,10 @@
 package com.library.controller;
 
 import com.library.dto.CategoryDto;
+import com.library.event.CatalogReloadEvent;
 import com.library.model.Category;
 import com.library.repository.CategoryRepository;
+import com.library.service.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -12,11 +14,15 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +39,12 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
     /**
      * Récupère toutes les catégories
      */
@@ -43,16 +55,32 @@ public class CategoryController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste récupérée avec succès"),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis l'ETag fourni"),
         @ApiResponse(responseCode = "500", description = "Erreur serveur")
     })
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
+    public ResponseEntity<List<CategoryDto>> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Requête conditionnelle : catalogue inchangé, aucune requête ni sérialisation
+            String etag = catalogVersionService.etag();
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).build();
+            }
+            
             List<Category> categories = categoryRepository.findAll();
+            
+            // Nombres de livres comptés en une requête, sans charger les livres
+            Map<Long, Long> bookCounts = categoryRepository.countBooksPerCategory().stream()
+                .collect(Collectors.toMap(
+                    CategoryRepository.BookCountResult::getCategoryId,
+                    CategoryRepository.BookCountResult::getBookCount));
+            
             List<CategoryDto> categoryDtos = categories.stream()
-                .map(CategoryDto::fromEntity)
+                .map(category -> CategoryDto.fromEntity(category, bookCounts.get(category.getId())))
                 .collect(Collectors.toList());
             
-            return ResponseEntity.ok(categoryDtos);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).body(categoryDtos);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des catégories", e);
@@ -78,7 +106,8 @@ public class CategoryController {
             Optional<Category> category = categoryRepository.findById(id);
             
             if (category.isPresent()) {
-                return ResponseEntity.ok(CategoryDto.fromEntity(category.get()));
+                return ResponseEntity.ok(CategoryDto.fromEntity(category.get(),
+                    categoryRepository.countBooksByCategoryId(id)));
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -122,9 +151,11 @@ public class CategoryController {
             category.setIcon(createRequest.getIcon());
             
             Category savedCategory = categoryRepository.save(category);
+            // Nouvelle entrée dans les facettes de catégories
+            eventPublisher.publishEvent(new CatalogReloadEvent("catégorie créée"));
             
             logger.info("Catégorie créée avec succès: {} (ID: {})", savedCategory.getName(), savedCategory.getId());
-            return ResponseEntity.ok(CategoryDto.fromEntity(savedCategory));
+            return ResponseEntity.ok(CategoryDto.fromEntity(savedCategory, 0L));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la catégorie", e);
@@ -168,9 +199,12 @@ public class CategoryController {
             }
             
             Category updatedCategory = categoryRepository.save(category);
+            // Le nom est repris dans les index du catalogue : reconstruction complète
+            eventPublisher.publishEvent(new CatalogReloadEvent("catégorie modifiée"));
             
             logger.info("Catégorie mise à jour: {} (ID: {})", updatedCategory.getName(), updatedCategory.getId());
-            return ResponseEntity.ok(CategoryDto.fromEntity(updatedCategory));
+            return ResponseEntity.ok(CategoryDto.fromEntity(updatedCategory,
+                categoryRepository.countBooksByCategoryId(id)));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la mise à jour de la catégorie {}", id, e);
@@ -199,6 +233,7 @@ public class CategoryController {
             // Pour l'instant, on supprime directement
             
             categoryRepository.deleteById(id);
+            eventPublisher.publishEvent(new CatalogReloadEvent("catégorie supprimée"));
             
             logger.info("Catégorie supprimée: ID {}", id);
             return ResponseEntity.noContent().build();
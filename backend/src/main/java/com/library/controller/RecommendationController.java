@@ -1,7 +1,11 @@
 package com.library.controller;
 
 import com.library.dto.RecommendationDto;
+import com.library.model.User;
+import com.library.repository.UserRepository;
 import com.library.service.RecommendationService;
+import com.library.service.RecommendationService.RecommendationResult;
+import com.library.util.Deadline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,12 +15,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +32,12 @@ import java.util.stream.Collectors;
  * - GET /api/recommendations/personalized : Recommandations personnalisées
  * - GET /api/recommendations/category/{categoryId} : Recommandations par catégorie
  * - GET /api/recommendations/similar/{bookId} : Livres similaires
+ * - GET /api/recommendations/also-read/{bookId} : Livres lus aussi par les lecteurs d'un livre
  * - GET /api/recommendations/trending : Recommandations tendances
+ * 
+ * Les recommandations personnalisées sont calculées sous un budget de temps par requête
+ * (app.recommendation.pipeline.budget-ms) ; en cas d'erreur ou de budget épuisé, les livres
+ * populaires calculés d'avance sont rendus à la place.
  */
 @RestController
 @RequestMapping("/recommendations")
@@ -39,6 +50,12 @@ public class RecommendationController {
     @Autowired
     private RecommendationService recommendationService;
     
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${app.recommendation.pipeline.budget-ms:150}")
+    private long budgetMs;
+    
     /**
      * Obtient des recommandations personnalisées pour l'utilisateur connecté
      */
@@ -58,21 +75,27 @@ public class RecommendationController {
             @RequestParam(defaultValue = "10") int limit,
             Principal principal) {
         
+        Deadline deadline = Deadline.in(budgetMs);
         try {
             logger.info("Demande de recommandations personnalisées pour l'utilisateur: {}", principal.getName());
             
-            // Pour l'instant, retourner des recommandations génériques si pas d'implémentation complète
-            List<RecommendationDto> fallbackRecommendations = getFallbackRecommendations(limit);
+            Long userId = getUserIdFromPrincipal(principal);
+            if (userId == null) {
+                return ResponseEntity.ok(getFallbackRecommendations(limit, "personalized"));
+            }
+            
+            List<RecommendationDto> recommendations = toDtos(
+                recommendationService.getPersonalizedRecommendations(userId, limit, deadline), "personalized");
             
-            logger.info("Généré {} recommandations de fallback pour l'utilisateur {}", 
-                fallbackRecommendations.size(), principal.getName());
+            logger.info("Généré {} recommandations pour l'utilisateur {}", 
+                recommendations.size(), principal.getName());
             
-            return ResponseEntity.ok(fallbackRecommendations);
+            return ResponseEntity.ok(recommendations);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la génération des recommandations personnalisées", e);
-            // Retourner une liste vide au lieu d'une erreur 500
-            return ResponseEntity.ok(List.of());
+            // Livres populaires au lieu d'une erreur 500
+            return ResponseEntity.ok(getFallbackRecommendations(limit, "personalized"));
         }
     }
     
@@ -102,13 +125,14 @@ public class RecommendationController {
             logger.info("Demande de recommandations par catégorie {} pour l'utilisateur: {}", 
                 categoryId, principal.getName());
             
-            // Retourner des recommandations de fallback
-            List<RecommendationDto> fallbackRecommendations = getFallbackRecommendations(limit);
+            Long userId = getUserIdFromPrincipal(principal);
+            List<RecommendationDto> recommendations = toDtos(
+                recommendationService.getCategoryBasedRecommendations(userId, categoryId, limit), "category");
             
             logger.info("Généré {} recommandations par catégorie pour l'utilisateur {}", 
-                fallbackRecommendations.size(), principal.getName());
+                recommendations.size(), principal.getName());
             
-            return ResponseEntity.ok(fallbackRecommendations);
+            return ResponseEntity.ok(recommendations);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la génération des recommandations par catégorie", e);
@@ -142,13 +166,13 @@ public class RecommendationController {
             logger.info("Demande de livres similaires au livre {} pour l'utilisateur: {}", 
                 bookId, principal.getName());
             
-            // Retourner des recommandations de fallback
-            List<RecommendationDto> fallbackRecommendations = getFallbackRecommendations(limit);
+            List<RecommendationDto> similarBooks = toDtos(
+                recommendationService.getSimilarBooks(bookId, getUserIdFromPrincipal(principal), limit), "similar");
             
             logger.info("Trouvé {} livres similaires pour l'utilisateur {}", 
-                fallbackRecommendations.size(), principal.getName());
+                similarBooks.size(), principal.getName());
             
-            return ResponseEntity.ok(fallbackRecommendations);
+            return ResponseEntity.ok(similarBooks);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la recherche de livres similaires", e);
@@ -156,6 +180,45 @@ public class RecommendationController {
         }
     }
     
+    /**
+     * Obtient les livres lus aussi par les lecteurs d'un livre donné
+     */
+    @GetMapping("/also-read/{bookId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(
+        summary = "Lus aussi",
+        description = "Livres téléchargés ou mis en favori par les lecteurs d'un livre donné (filtrage collaboratif)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Livres trouvés"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "500", description = "Erreur serveur")
+    })
+    public ResponseEntity<List<RecommendationDto>> getAlsoReadBooks(
+            @Parameter(description = "ID du livre de référence", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "Nombre maximum de recommandations", example = "10")
+            @RequestParam(defaultValue = "10") int limit,
+            Principal principal) {
+        
+        try {
+            logger.info("Demande des livres lus aussi par les lecteurs du livre {} pour l'utilisateur: {}", 
+                bookId, principal.getName());
+            
+            List<RecommendationDto> alsoRead = toDtos(
+                recommendationService.getAlsoReadBooks(bookId, getUserIdFromPrincipal(principal), limit), "also-read");
+            
+            logger.info("Trouvé {} livres lus aussi pour l'utilisateur {}", 
+                alsoRead.size(), principal.getName());
+            
+            return ResponseEntity.ok(alsoRead);
+            
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche des livres lus aussi", e);
+            return ResponseEntity.ok(List.of());
+        }
+    }
+    
     /**
      * Obtient les recommandations tendances (pas besoin d'authentification)
      */
@@ -175,16 +238,17 @@ public class RecommendationController {
         try {
             logger.info("Demande de recommandations tendances");
             
-            // Retourner des recommandations de fallback
-            List<RecommendationDto> fallbackRecommendations = getFallbackRecommendations(limit);
+            // Classement maintenu en mémoire par les compteurs de tendance
+            List<RecommendationDto> recommendations = toDtos(
+                recommendationService.getTrendingRecommendations(limit), "trending");
             
-            logger.info("Généré {} recommandations tendances", fallbackRecommendations.size());
+            logger.info("Généré {} recommandations tendances", recommendations.size());
             
-            return ResponseEntity.ok(fallbackRecommendations);
+            return ResponseEntity.ok(recommendations);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la génération des recommandations tendances", e);
-            return ResponseEntity.ok(List.of());
+            return ResponseEntity.ok(getFallbackRecommendations(limit, "trending"));
         }
     }
     
@@ -219,23 +283,28 @@ public class RecommendationController {
     }
     
     /**
-     * Méthode utilitaire pour extraire l'ID utilisateur du Principal
-     * À adapter selon votre implémentation JWT
+     * Méthode utilitaire pour extraire l'ID utilisateur du Principal (nom d'utilisateur du JWT)
      */
     private Long getUserIdFromPrincipal(Principal principal) {
-        // Cette méthode doit être adaptée selon votre implémentation JWT
-        // Pour l'instant, retourner null pour éviter les erreurs
-        return null;
+        if (principal == null) {
+            return null;
+        }
+        Optional<User> user = userRepository.findByUsername(principal.getName());
+        return user.map(User::getId).orElse(null);
+    }
+    
+    private static List<RecommendationDto> toDtos(List<RecommendationResult> results, String recommendationType) {
+        return results.stream()
+            .map(result -> new RecommendationDto(result, recommendationType))
+            .collect(Collectors.toList());
     }
     
     /**
-     * Méthode de fallback pour retourner des recommandations basiques
+     * Méthode de fallback : livres les plus populaires, calculés d'avance par le service
      */
-    private List<RecommendationDto> getFallbackRecommendations(int limit) {
+    private List<RecommendationDto> getFallbackRecommendations(int limit, String recommendationType) {
         try {
-            // Retourner une liste vide pour l'instant
-            // TODO: Implémenter une logique simple basée sur les livres les plus populaires
-            return List.of();
+            return toDtos(recommendationService.getFallbackRecommendations(limit), recommendationType);
         } catch (Exception e) {
             logger.error("Erreur dans les recommandations de fallback", e);
             return List.of();
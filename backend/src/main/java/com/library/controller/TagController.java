@@ -1,8 +1,10 @@
 package com.library.controller;
 
 import com.library.dto.TagDto;
+import com.library.event.CatalogReloadEvent;
 import com.library.model.Tag;
 import com.library.repository.TagRepository;
+import com.library.service.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,11 +13,15 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,6 +38,12 @@ public class TagController {
     @Autowired
     private TagRepository tagRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
     /**
      * Récupère tous les tags
      */
@@ -42,16 +54,26 @@ public class TagController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste récupérée avec succès"),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis l'ETag fourni"),
         @ApiResponse(responseCode = "500", description = "Erreur serveur")
     })
-    public ResponseEntity<List<TagDto>> getAllTags() {
+    public ResponseEntity<List<TagDto>> getAllTags(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Requête conditionnelle : catalogue inchangé, aucune requête ni sérialisation
+            String etag = catalogVersionService.etag();
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).build();
+            }
+            
             List<Tag> tags = tagRepository.findAll();
+            Map<Long, Long> bookCounts = bookCountsByTag();
             List<TagDto> tagDtos = tags.stream()
-                .map(TagDto::fromEntity)
+                .map(tag -> TagDto.fromEntity(tag, bookCounts.get(tag.getId())))
                 .collect(Collectors.toList());
             
-            return ResponseEntity.ok(tagDtos);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CatalogVersionService.CACHE_CONTROL).body(tagDtos);
             
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des tags", e);
@@ -70,8 +92,9 @@ public class TagController {
     public ResponseEntity<List<TagDto>> searchTags(@RequestParam String query) {
         try {
             List<Tag> tags = tagRepository.findByNameContainingIgnoreCase(query);
+            Map<Long, Long> bookCounts = bookCountsByTag();
             List<TagDto> tagDtos = tags.stream()
-                .map(TagDto::fromEntity)
+                .map(tag -> TagDto.fromEntity(tag, bookCounts.get(tag.getId())))
                 .collect(Collectors.toList());
             
             return ResponseEntity.ok(tagDtos);
@@ -95,7 +118,7 @@ public class TagController {
             Optional<Tag> tag = tagRepository.findById(id);
             
             if (tag.isPresent()) {
-                return ResponseEntity.ok(TagDto.fromEntity(tag.get()));
+                return ResponseEntity.ok(TagDto.fromEntity(tag.get(), tagRepository.countBooksByTagId(id)));
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -131,9 +154,10 @@ public class TagController {
             tag.setColor(createRequest.getColor());
             
             Tag savedTag = tagRepository.save(tag);
+            eventPublisher.publishEvent(new CatalogReloadEvent("tag créé"));
             
             logger.info("Tag créé avec succès: {} (ID: {})", savedTag.getName(), savedTag.getId());
-            return ResponseEntity.ok(TagDto.fromEntity(savedTag));
+            return ResponseEntity.ok(TagDto.fromEntity(savedTag, 0L));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la création du tag", e);
@@ -174,9 +198,11 @@ public class TagController {
             }
             
             Tag updatedTag = tagRepository.save(tag);
+            // Le nom est repris dans les index du catalogue : reconstruction complète
+            eventPublisher.publishEvent(new CatalogReloadEvent("tag modifié"));
             
             logger.info("Tag mis à jour: {} (ID: {})", updatedTag.getName(), updatedTag.getId());
-            return ResponseEntity.ok(TagDto.fromEntity(updatedTag));
+            return ResponseEntity.ok(TagDto.fromEntity(updatedTag, tagRepository.countBooksByTagId(id)));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la mise à jour du tag {}", id, e);
@@ -201,6 +227,7 @@ public class TagController {
             }
             
             tagRepository.deleteById(id);
+            eventPublisher.publishEvent(new CatalogReloadEvent("tag supprimé"));
             
             logger.info("Tag supprimé: ID {}", id);
             return ResponseEntity.noContent().build();
@@ -210,4 +237,12 @@ public class TagController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    // Nombres de livres de tous les tags, comptés en une requête sans charger les livres
+    private Map<Long, Long> bookCountsByTag() {
+        return tagRepository.countBooksPerTag().stream()
+            .collect(Collectors.toMap(
+                TagRepository.BookCountResult::getTagId,
+                TagRepository.BookCountResult::getBookCount));
+    }
 }
\ No newline at end of file
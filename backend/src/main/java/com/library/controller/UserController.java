@@ -2,13 +2,18 @@ package com.library.controller;
 
 import com.library.dto.BookDto;
 import com.library.dto.UserDto;
+import com.library.event.BookChangedEvent;
 import com.library.model.Book;
 import com.library.model.DownloadHistory;
 import com.library.model.User;
 import com.library.repository.BookRepository;
 import com.library.repository.DownloadHistoryRepository;
+import com.library.repository.FavoriteRepository;
 import com.library.repository.UserRepository;
+import com.library.service.CoOccurrenceService;
 import com.library.service.FileStorageService;
+import com.library.service.TasteVectorService;
+import com.library.service.TrendingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,6 +24,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -58,9 +65,24 @@ public class UserController {
     @Autowired
     private DownloadHistoryRepository downloadHistoryRepository;
     
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private TasteVectorService tasteVectorService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Récupère le profil de l'utilisateur connecté
      */
@@ -81,7 +103,8 @@ public class UserController {
             Optional<User> user = userRepository.findByUsername(principal.getName());
             
             if (user.isPresent()) {
-                return ResponseEntity.ok(UserDto.fromEntity(user.get()));
+                List<Long> favoriteIds = favoriteRepository.findBookIdsByUserId(user.get().getId());
+                return ResponseEntity.ok(UserDto.fromEntity(user.get(), favoriteIds));
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -128,7 +151,8 @@ public class UserController {
             User updatedUser = userRepository.save(user);
             
             logger.info("Profil mis à jour pour l'utilisateur: {}", user.getUsername());
-            return ResponseEntity.ok(UserDto.fromEntity(updatedUser));
+            return ResponseEntity.ok(UserDto.fromEntity(updatedUser,
+                favoriteRepository.findBookIdsByUserId(updatedUser.getId())));
             
         } catch (Exception e) {
             logger.error("Erreur lors de la mise à jour du profil", e);
@@ -143,9 +167,14 @@ public class UserController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @Operation(
         summary = "Favoris utilisateur",
-        description = "Récupère la liste des livres favoris de l'utilisateur"
+        description = "Récupère la liste des livres favoris de l'utilisateur (tous, sauf si une taille de page est donnée)"
     )
-    public ResponseEntity<List<BookDto>> getUserFavorites(Principal principal) {
+    public ResponseEntity<List<BookDto>> getUserFavorites(
+            Principal principal,
+            @Parameter(description = "Numéro de page (commence à 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Taille de la page (absente : tous les favoris)")
+            @RequestParam(required = false) Integer size) {
         try {
             Optional<User> user = userRepository.findByUsername(principal.getName());
             
@@ -153,8 +182,13 @@ public class UserController {
                 return ResponseEntity.notFound().build();
             }
             
-            List<BookDto> favorites = user.get().getFavorites().stream()
-                .map(BookDto::fromEntity)
+            // Favoris en projection légère ; sans taille, la liste complète attendue par les
+            // clients existants
+            int skip = size != null ? page * size : 0;
+            int limit = size != null ? size : Integer.MAX_VALUE;
+            List<BookDto> favorites = favoriteRepository.findSummariesByUserIdPaginated(
+                    user.get().getId(), skip, limit).stream()
+                .map(BookDto::fromSummary)
                 .collect(Collectors.toList());
             
             return ResponseEntity.ok(favorites);
@@ -180,25 +214,23 @@ public class UserController {
         
         try {
             Optional<User> userOpt = userRepository.findByUsername(principal.getName());
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
             
-            if (userOpt.isEmpty() || bookOpt.isEmpty()) {
+            if (userOpt.isEmpty() || !bookRepository.existsById(bookId)) {
                 return ResponseEntity.notFound().build();
             }
             
             User user = userOpt.get();
-            Book book = bookOpt.get();
             
-            // Vérifier si déjà en favoris
-            if (user.getFavorites().contains(book)) {
+            // Relation et compteur écrits en une requête ; false si déjà en favoris
+            if (!favoriteRepository.addFavorite(user.getId(), bookId)) {
                 return ResponseEntity.badRequest().body("Livre déjà en favoris");
             }
             
-            user.addFavorite(book);
-            book.incrementFavoriteCount();
-            
-            userRepository.save(user);
-            bookRepository.save(book);
+            // Livre relu pour diffuser son nouveau compteur de favoris
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            eventPublisher.publishEvent(BookChangedEvent.countersChanged(book));
+            tasteVectorService.recordFavorite(user.getId(), book);
+            coOccurrenceService.recordInteraction(user.getId(), book.getId());
             
             logger.info("Livre {} ajouté aux favoris de {}", book.getTitle(), user.getUsername());
             return ResponseEntity.ok().body("Livre ajouté aux favoris");
@@ -224,24 +256,24 @@ public class UserController {
         
         try {
             Optional<User> userOpt = userRepository.findByUsername(principal.getName());
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
             
-            if (userOpt.isEmpty() || bookOpt.isEmpty()) {
+            if (userOpt.isEmpty() || !bookRepository.existsById(bookId)) {
                 return ResponseEntity.notFound().build();
             }
             
             User user = userOpt.get();
-            Book book = bookOpt.get();
             
-            if (!user.getFavorites().contains(book)) {
+            // Date d'ajout lue avant le retrait : contribution amortie à soustraire des goûts
+            ZonedDateTime addedAt = favoriteRepository.findAddedAt(user.getId(), bookId);
+            if (!favoriteRepository.removeFavorite(user.getId(), bookId)) {
                 return ResponseEntity.badRequest().body("Livre pas en favoris");
             }
             
-            user.removeFavorite(book);
-            book.decrementFavoriteCount();
-            
-            userRepository.save(user);
-            bookRepository.save(book);
+            // Livre relu pour diffuser son nouveau compteur de favoris
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            eventPublisher.publishEvent(BookChangedEvent.countersChanged(book));
+            tasteVectorService.removeFavorite(user.getId(), book, addedAt);
+            coOccurrenceService.removeInteraction(user.getId(), book.getId());
             
             logger.info("Livre {} retiré des favoris de {}", book.getTitle(), user.getUsername());
             return ResponseEntity.ok().body("Livre retiré des favoris");
@@ -560,7 +592,8 @@ public class UserController {
             // Charger le fichier
             Resource resource = fileStorageService.loadFileAsResource(book.getPdfFile());
             
-            // Enregistrer le téléchargement
+            // Enregistrer le téléchargement (le compteur de l'utilisateur est sauvegardé avec lui)
+            user.incrementDownloadCount();
             DownloadHistory downloadHistory = new DownloadHistory(user, book);
             downloadHistory.setIpAddress(getClientIpAddress(request));
             downloadHistory.setUserAgent(request.getHeader("User-Agent"));
@@ -570,6 +603,10 @@ public class UserController {
             // Incrémenter le compteur de téléchargements
             book.incrementDownloadCount();
             bookRepository.save(book);
+            eventPublisher.publishEvent(BookChangedEvent.countersChanged(book));
+            tasteVectorService.recordDownload(user.getId(), book);
+            trendingService.recordDownload(book);
+            coOccurrenceService.recordInteraction(user.getId(), book.getId());
             
             // Déterminer le type de contenu
             String contentType = null;
@@ -190,6 +190,49 @@ public class BookDto {
         return dto;
     }
     
+    /**
+     * Convertit une projection légère (listes) en BookDto, sans description ni détails
+     */
+    public static BookDto fromSummary(com.library.repository.BookRepository.BookSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        
+        BookDto dto = new BookDto();
+        dto.setId(summary.getId());
+        dto.setTitle(summary.getTitle());
+        dto.setAuthor(summary.getAuthor());
+        dto.setCoverImage(summary.getCoverImage());
+        dto.setPdfFile(summary.getPdfFile());
+        dto.setFileSize(summary.getFileSize());
+        dto.setPublicationYear(summary.getPublicationYear());
+        dto.setLanguage(summary.getLanguage());
+        dto.setDownloadCount(summary.getDownloadCount());
+        dto.setFavoriteCount(summary.getFavoriteCount());
+        dto.setAvailable(summary.getAvailable());
+        dto.setCreatedAt(summary.getCreatedAt());
+        dto.setCategoryId(summary.getCategoryId());
+        dto.setCategoryName(summary.getCategoryName());
+        if (summary.getTagNames() != null) {
+            dto.setTagNames(new java.util.HashSet<>(summary.getTagNames()));
+        }
+        return dto;
+    }
+    
+    /**
+     * Version allégée de fromEntity pour les listes : mêmes champs que fromSummary
+     */
+    public static BookDto summaryFromEntity(com.library.model.Book book) {
+        BookDto dto = fromEntity(book);
+        if (dto != null) {
+            dto.setIsbn(null);
+            dto.setDescription(null);
+            dto.setPageCount(null);
+            dto.setUpdatedAt(null);
+        }
+        return dto;
+    }
+    
     /**
      * DTO pour la création d'un livre
      */
@@ -284,4 +327,56 @@ public class BookDto {
         public Set<String> getTagNames() { return tagNames; }
         public void setTagNames(Set<String> tagNames) { this.tagNames = tagNames; }
     }
+    
+    /**
+     * Ligne d'un import en masse (CSV, JSON) : catégorie par identifiant ou par nom,
+     * PDF désigné par son nom dans l'archive zip
+     */
+    public static class ImportRow {
+        private String title;
+        private String author;
+        private String isbn;
+        private String description;
+        private Integer publicationYear;
+        private Integer pageCount;
+        private String language;
+        private Long categoryId;
+        private String categoryName;
+        private Set<String> tagNames;
+        private String pdfFile;
+        
+        // Getters et Setters
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public String getAuthor() { return author; }
+        public void setAuthor(String author) { this.author = author; }
+        
+        public String getIsbn() { return isbn; }
+        public void setIsbn(String isbn) { this.isbn = isbn; }
+        
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        
+        public Integer getPublicationYear() { return publicationYear; }
+        public void setPublicationYear(Integer publicationYear) { this.publicationYear = publicationYear; }
+        
+        public Integer getPageCount() { return pageCount; }
+        public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+        
+        public String getLanguage() { return language; }
+        public void setLanguage(String language) { this.language = language; }
+        
+        public Long getCategoryId() { return categoryId; }
+        public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+        
+        public String getCategoryName() { return categoryName; }
+        public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+        
+        public Set<String> getTagNames() { return tagNames; }
+        public void setTagNames(Set<String> tagNames) { this.tagNames = tagNames; }
+        
+        public String getPdfFile() { return pdfFile; }
+        public void setPdfFile(String pdfFile) { this.pdfFile = pdfFile; }
+    }
 }
\ No newline at end of file
@@ -61,6 +61,14 @@ public class CategoryDto {
      * Convertit une entité Category en CategoryDto
      */
     public static CategoryDto fromEntity(com.library.model.Category category) {
+        return fromEntity(category, null);
+    }
+    
+    /**
+     * Convertit une entité Category en CategoryDto avec son nombre de livres
+     * (compté par le repository, les livres ne sont pas chargés avec la catégorie)
+     */
+    public static CategoryDto fromEntity(com.library.model.Category category, Long bookCount) {
         CategoryDto dto = new CategoryDto();
         dto.setId(category.getId());
         dto.setName(category.getName());
@@ -70,9 +78,7 @@ public class CategoryDto {
         dto.setCreatedAt(category.getCreatedAt());
         dto.setUpdatedAt(category.getUpdatedAt());
         
-        if (category.getBooks() != null) {
-            dto.setBookCount((long) category.getBooks().size());
-        }
+        dto.setBookCount(bookCount != null ? bookCount : 0L);
         
         return dto;
     }
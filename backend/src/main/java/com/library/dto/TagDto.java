@@ -57,6 +57,14 @@ public class TagDto {
      * Convertit une entité Tag en TagDto
      */
     public static TagDto fromEntity(com.library.model.Tag tag) {
+        return fromEntity(tag, null);
+    }
+    
+    /**
+     * Convertit une entité Tag en TagDto avec son nombre de livres
+     * (compté par le repository, les livres ne sont pas chargés avec le tag)
+     */
+    public static TagDto fromEntity(com.library.model.Tag tag, Long bookCount) {
         TagDto dto = new TagDto();
         dto.setId(tag.getId());
         dto.setName(tag.getName());
@@ -65,9 +73,7 @@ public class TagDto {
         dto.setCreatedAt(tag.getCreatedAt());
         dto.setUpdatedAt(tag.getUpdatedAt());
         
-        if (tag.getBooks() != null) {
-            dto.setBookCount((long) tag.getBooks().size());
-        }
+        dto.setBookCount(bookCount != null ? bookCount : 0L);
         
         return dto;
     }
@@ -99,6 +99,14 @@ public class UserDto {
      * Convertit une entité User en UserDto
      */
     public static UserDto fromEntity(com.library.model.User user) {
+        return fromEntity(user, null);
+    }
+    
+    /**
+     * Convertit une entité User en UserDto avec les identifiants de ses livres favoris
+     * (lus séparément via FavoriteRepository, ils ne font pas partie de l'entité)
+     */
+    public static UserDto fromEntity(com.library.model.User user, java.util.Collection<Long> favoriteBookIds) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
         dto.setUsername(user.getUsername());
@@ -114,14 +122,12 @@ public class UserDto {
             dto.setRoleName(user.getRole().getName().name());
         }
         
-        if (user.getFavorites() != null) {
-            dto.setFavoriteBookIds(user.getFavorites().stream()
-                .map(com.library.model.Book::getId)
-                .collect(java.util.stream.Collectors.toSet()));
+        if (favoriteBookIds != null) {
+            dto.setFavoriteBookIds(new java.util.HashSet<>(favoriteBookIds));
         }
         
-        if (user.getDownloadHistory() != null) {
-            dto.setDownloadCount(user.getDownloadHistory().size());
+        if (user.getDownloadCount() != null) {
+            dto.setDownloadCount(user.getDownloadCount());
         }
         
         return dto;
@@ -0,0 +1,46 @@
+package com.library.event;
+
+import com.library.model.Book;
+
+/**
+ * Événement publié après l'enregistrement ou la suppression d'un livre,
+ * pour tenir à jour les index et caches du catalogue
+ */
+public class BookChangedEvent {
+    
+    private final Long bookId;
+    private final Book book;
+    private final boolean countersOnly;
+    
+    private BookChangedEvent(Long bookId, Book book, boolean countersOnly) {
+        this.bookId = bookId;
+        this.book = book;
+        this.countersOnly = countersOnly;
+    }
+    
+    /**
+     * Livre créé ou modifié (catégorie et tags chargés)
+     */
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book, false);
+    }
+    
+    /**
+     * Seuls les compteurs du livre (téléchargements, favoris) ont changé
+     */
+    public static BookChangedEvent countersChanged(Book book) {
+        return new BookChangedEvent(book.getId(), book, true);
+    }
+    
+    /**
+     * Livre supprimé
+     */
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null, false);
+    }
+    
+    public Long getBookId() { return bookId; }
+    public Book getBook() { return book; }
+    public boolean isDeleted() { return book == null; }
+    public boolean isCountersOnly() { return countersOnly; }
+}
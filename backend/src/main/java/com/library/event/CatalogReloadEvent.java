@@ -0,0 +1,16 @@
+package com.library.event;
+
+/**
+ * Événement demandant la reconstruction complète des index du catalogue :
+ * démarrage, modifications en masse, renommage ou suppression de tags et catégories
+ */
+public class CatalogReloadEvent {
+    
+    private final String reason;
+    
+    public CatalogReloadEvent(String reason) {
+        this.reason = reason;
+    }
+    
+    public String getReason() { return reason; }
+}
@@ -0,0 +1,16 @@
+package com.library.event;
+
+/**
+ * Événement publié après la mise à jour du vecteur de goûts d'un utilisateur
+ * (téléchargement, ajout ou retrait d'un favori), pour invalider ses recommandations
+ */
+public class UserTasteChangedEvent {
+    
+    private final Long userId;
+    
+    public UserTasteChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() { return userId; }
+}
@@ -72,11 +72,8 @@ public class Book {
     @Relationship(type = "HAS_TAG", direction = Relationship.Direction.OUTGOING)
     private Set<Tag> tags = new HashSet<>();
     
-    @Relationship(type = "FAVORITES", direction = Relationship.Direction.INCOMING)
-    private Set<User> favoriteByUsers = new HashSet<>();
-    
-    @Relationship(type = "OF_BOOK", direction = Relationship.Direction.INCOMING)
-    private Set<DownloadHistory> downloadHistory = new HashSet<>();
+    // Favoris et téléchargements ne sont pas chargés avec le livre :
+    // voir FavoriteRepository et DownloadHistoryRepository
     
     // Constructeurs
     public Book() {
@@ -149,12 +146,6 @@ public class Book {
     public Set<Tag> getTags() { return tags; }
     public void setTags(Set<Tag> tags) { this.tags = tags; }
     
-    public Set<User> getFavoriteByUsers() { return favoriteByUsers; }
-    public void setFavoriteByUsers(Set<User> favoriteByUsers) { this.favoriteByUsers = favoriteByUsers; }
-    
-    public Set<DownloadHistory> getDownloadHistory() { return downloadHistory; }
-    public void setDownloadHistory(Set<DownloadHistory> downloadHistory) { this.downloadHistory = downloadHistory; }
-    
     // Méthodes utilitaires
     public void incrementDownloadCount() {
         this.downloadCount = (this.downloadCount == null ? 0L : this.downloadCount) + 1;
@@ -173,19 +164,12 @@ public class Book {
             tags = new HashSet<>();
         }
         tags.add(tag);
-        if (tag.getBooks() == null) {
-            tag.setBooks(new HashSet<>());
-        }
-        tag.getBooks().add(this);
     }
     
     public void removeTag(Tag tag) {
         if (tags != null) {
             tags.remove(tag);
         }
-        if (tag.getBooks() != null) {
-            tag.getBooks().remove(this);
-        }
     }
     
     public String getCategoryName() {
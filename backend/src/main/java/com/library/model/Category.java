@@ -4,11 +4,8 @@ import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
-import org.springframework.data.neo4j.core.schema.Relationship;
 
 import java.time.ZonedDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Entité Neo4j représentant une catégorie de livres
@@ -38,9 +35,6 @@ public class Category {
     @Property("updatedAt")
     private ZonedDateTime updatedAt;
     
-    @Relationship(type = "BELONGS_TO", direction = Relationship.Direction.INCOMING)
-    private Set<Book> books = new HashSet<>();
-    
     // Constructeurs
     public Category() {
         this.createdAt = ZonedDateTime.now();
@@ -79,14 +73,6 @@ public class Category {
     public ZonedDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(ZonedDateTime updatedAt) { this.updatedAt = updatedAt; }
     
-    public Set<Book> getBooks() { return books; }
-    public void setBooks(Set<Book> books) { this.books = books; }
-    
-    // Méthodes utilitaires
-    public int getBookCount() {
-        return books != null ? books.size() : 0;
-    }
-    
     // Méthode appelée avant la sauvegarde
     public void prePersist() {
         if (createdAt == null) {
@@ -4,10 +4,6 @@ import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
-import org.springframework.data.neo4j.core.schema.Relationship;
-
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Entité Neo4j représentant les rôles des utilisateurs
@@ -25,9 +21,6 @@ public class Role {
     @Property("description")
     private String description;
     
-    @Relationship(type = "HAS_ROLE", direction = Relationship.Direction.INCOMING)
-    private Set<User> users = new HashSet<>();
-    
     // Constructeurs
     public Role() {
         // Constructeur par défaut
@@ -52,9 +45,6 @@ public class Role {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
-    public Set<User> getUsers() { return users; }
-    public void setUsers(Set<User> users) { this.users = users; }
-    
     /**
      * Énumération des rôles disponibles
      */
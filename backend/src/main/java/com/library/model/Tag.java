@@ -4,11 +4,8 @@ import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
-import org.springframework.data.neo4j.core.schema.Relationship;
 
 import java.time.ZonedDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Entité Neo4j représentant un tag/étiquette pour les livres
@@ -35,9 +32,6 @@ public class Tag {
     @Property("updatedAt")
     private ZonedDateTime updatedAt;
     
-    @Relationship(type = "HAS_TAG", direction = Relationship.Direction.INCOMING)
-    private Set<Book> books = new HashSet<>();
-    
     // Constructeurs
     public Tag() {
         this.createdAt = ZonedDateTime.now();
@@ -73,14 +67,6 @@ public class Tag {
     public ZonedDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(ZonedDateTime updatedAt) { this.updatedAt = updatedAt; }
     
-    public Set<Book> getBooks() { return books; }
-    public void setBooks(Set<Book> books) { this.books = books; }
-    
-    // Méthodes utilitaires
-    public int getBookCount() {
-        return books != null ? books.size() : 0;
-    }
-    
     // Méthode appelée avant la sauvegarde
     public void prePersist() {
         if (createdAt == null) {
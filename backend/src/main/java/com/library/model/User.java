@@ -6,9 +6,6 @@ import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
 import org.springframework.data.neo4j.core.schema.Relationship;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Entité Neo4j représentant un utilisateur
  */
@@ -50,11 +47,8 @@ public class User {
     @Relationship(type = "HAS_ROLE", direction = Relationship.Direction.OUTGOING)
     private Role role;
     
-    @Relationship(type = "FAVORITES", direction = Relationship.Direction.OUTGOING)
-    private Set<Book> favorites = new HashSet<>();
-    
-    @Relationship(type = "DOWNLOADED", direction = Relationship.Direction.OUTGOING)
-    private Set<DownloadHistory> downloadHistory = new HashSet<>();
+    // Favoris et historique ne font pas partie de l'agrégat utilisateur :
+    // voir FavoriteRepository et DownloadHistoryRepository (paginés)
     
     // Constructeurs
     public User() {
@@ -105,12 +99,6 @@ public class User {
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
     
-    public Set<Book> getFavorites() { return favorites; }
-    public void setFavorites(Set<Book> favorites) { this.favorites = favorites; }
-    
-    public Set<DownloadHistory> getDownloadHistory() { return downloadHistory; }
-    public void setDownloadHistory(Set<DownloadHistory> downloadHistory) { this.downloadHistory = downloadHistory; }
-    
     // Méthodes utilitaires
     public void incrementDownloadCount() {
         this.downloadCount = (this.downloadCount == null ? 0 : this.downloadCount) + 1;
@@ -119,24 +107,4 @@ public class User {
     public String getFullName() {
         return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
     }
-    
-    public void addFavorite(Book book) {
-        if (favorites == null) {
-            favorites = new HashSet<>();
-        }
-        favorites.add(book);
-        if (book.getFavoriteByUsers() == null) {
-            book.setFavoriteByUsers(new HashSet<>());
-        }
-        book.getFavoriteByUsers().add(this);
-    }
-    
-    public void removeFavorite(Book book) {
-        if (favorites != null) {
-            favorites.remove(book);
-        }
-        if (book.getFavoriteByUsers() != null) {
-            book.getFavoriteByUsers().remove(this);
-        }
-    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,65 @@ import java.util.Optional;
 @Repository
 public interface BookRepository extends Neo4jRepository<Book, Long> {
     
+    // Clé de tri calculée côté base pour chaque valeur de sortBy (createdAt par défaut)
+    String BOOK_SORT_KEY =
+           "CASE $sortBy " +
+           "  WHEN 'title' THEN toLower(b.title) " +
+           "  WHEN 'author' THEN toLower(b.author) " +
+           "  WHEN 'downloadCount' THEN b.downloadCount " +
+           "  WHEN 'favoriteCount' THEN b.favoriteCount " +
+           "  WHEN 'publicationYear' THEN b.publicationYear " +
+           "  ELSE b.createdAt " +
+           "END";
+    
+    // Tri ascendant ou descendant selon $ascending, départage stable par identifiant
+    String BOOK_ORDER_BY =
+           "ORDER BY CASE WHEN $ascending THEN sortKey END ASC, " +
+           "         CASE WHEN $ascending THEN null ELSE sortKey END DESC, " +
+           "         id(b) ASC ";
+    
+    // Reprise après le curseur ($afterId null = première page), nulls en fin de tri ascendant
+    String BOOK_SEEK_AFTER =
+           "WHERE $afterId IS NULL " +
+           "   OR (sortKey = $afterKey AND id(b) > $afterId) " +
+           "   OR ($afterKey IS NULL AND sortKey IS NULL AND id(b) > $afterId) " +
+           "   OR ($ascending AND (sortKey > $afterKey OR ($afterKey IS NOT NULL AND sortKey IS NULL))) " +
+           "   OR (NOT $ascending AND (sortKey < $afterKey OR ($afterKey IS NULL AND sortKey IS NOT NULL))) ";
+    
+    // Catégorie et tags renvoyés avec le livre pour le mapping du DTO
+    String BOOK_WITH_RELATIONS = "RETURN b, [(b)-[r:BELONGS_TO|HAS_TAG]->(n) | [r, n]]";
+    
+    // Projection légère des listes (BookSummary) : propriétés affichées, nom de catégorie et tags
+    String BOOK_SUMMARY =
+           "RETURN id(b) AS id, b.title AS title, b.author AS author, b.coverImage AS coverImage, " +
+           "       b.pdfFile AS pdfFile, b.fileSize AS fileSize, b.publicationYear AS publicationYear, " +
+           "       b.language AS language, b.downloadCount AS downloadCount, " +
+           "       b.favoriteCount AS favoriteCount, b.available AS available, b.createdAt AS createdAt, " +
+           "       head([(b)-[:BELONGS_TO]->(c:Category) | id(c)]) AS categoryId, " +
+           "       head([(b)-[:BELONGS_TO]->(c:Category) | c.name]) AS categoryName, " +
+           "       [(b)-[:HAS_TAG]->(t:Tag) | t.name] AS tagNames";
+    
+    // Index full-text créés au démarrage (voir SearchIndexInitializer)
+    String BOOK_FULLTEXT_INDEX = "book_fulltext";
+    String TAG_FULLTEXT_INDEX = "tag_fulltext";
+    
+    // Livres correspondant à la requête Lucene $query avec leur score de pertinence :
+    // score sur titre/auteur/description, augmenté du score des tags correspondants
+    String BOOK_FULLTEXT_MATCH =
+           "CALL { " +
+           "  CALL db.index.fulltext.queryNodes('" + BOOK_FULLTEXT_INDEX + "', $query) YIELD node, score " +
+           "  RETURN node AS b, score " +
+           "  UNION ALL " +
+           "  CALL db.index.fulltext.queryNodes('" + TAG_FULLTEXT_INDEX + "', $query) YIELD node, score " +
+           "  MATCH (b:Book)-[:HAS_TAG]->(node) " +
+           "  RETURN b, score " +
+           "} " +
+           "WITH b, sum(score) AS relevance ";
+    
+    // Clé de tri de la recherche : pertinence, ou l'un des critères de BOOK_SORT_KEY
+    String SEARCH_SORT_KEY =
+           "CASE WHEN $sortBy = 'relevance' THEN relevance ELSE " + BOOK_SORT_KEY + " END";
+    
     // Recherche par titre (insensible à la casse)
     @Query("MATCH (b:Book) WHERE toLower(b.title) CONTAINS toLower($title) RETURN b")
     List<Book> findByTitleContainingIgnoreCase(@Param("title") String title);
@@ -64,12 +125,9 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
     @Query("MATCH (b:Book) WHERE b.available = true RETURN b ORDER BY b.createdAt DESC LIMIT $limit")
     List<Book> findRecentBooks(@Param("limit") int limit);
     
-    // Recherche textuelle complète
-    @Query("MATCH (b:Book) " +
-           "WHERE toLower(b.title) CONTAINS toLower($query) " +
-           "   OR toLower(b.author) CONTAINS toLower($query) " +
-           "   OR toLower(b.description) CONTAINS toLower($query) " +
-           "RETURN b")
+    // Recherche textuelle complète via l'index full-text (requête Lucene), par pertinence
+    @Query(BOOK_FULLTEXT_MATCH +
+           "RETURN b ORDER BY relevance DESC")
     List<Book> searchBooks(@Param("query") String query);
     
     // Recherche avancée SIMPLIFIÉE - seulement catégorie et tags
@@ -87,6 +145,47 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
         @Param("tags") String tags
     );
     
+    // Filtres catégorie et tags avec tri et pagination côté base (numéro de page ou curseur)
+    @Query("MATCH (b:Book) " +
+           "WHERE b.available = true " +
+           "  AND ($categoryId IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
+           "  }) " +
+           "  AND ($tags IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:HAS_TAG]->(t:Tag) WHERE t.name IN split($tags, ',') " +
+           "  }) " +
+           "WITH b, " + BOOK_SORT_KEY + " AS sortKey " +
+           BOOK_SEEK_AFTER +
+           "WITH b, sortKey " +
+           BOOK_ORDER_BY +
+           "SKIP $skip LIMIT $limit " +
+           BOOK_SUMMARY)
+    List<BookSummary> findBookSummariesWithSimpleFiltersSorted(
+        @Param("categoryId") Long categoryId,
+        @Param("tags") String tags,
+        @Param("sortBy") String sortBy,
+        @Param("ascending") boolean ascending,
+        @Param("afterKey") Object afterKey,
+        @Param("afterId") Long afterId,
+        @Param("skip") int skip,
+        @Param("limit") int limit
+    );
+    
+    // Compter les livres correspondant aux filtres catégorie et tags
+    @Query("MATCH (b:Book) " +
+           "WHERE b.available = true " +
+           "  AND ($categoryId IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
+           "  }) " +
+           "  AND ($tags IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:HAS_TAG]->(t:Tag) WHERE t.name IN split($tags, ',') " +
+           "  }) " +
+           "RETURN count(b)")
+    Long countBooksWithSimpleFilters(
+        @Param("categoryId") Long categoryId,
+        @Param("tags") String tags
+    );
+    
     // Obtenir toutes les langues disponibles
     @Query("MATCH (b:Book) WHERE b.available = true AND b.language IS NOT NULL " +
            "RETURN DISTINCT b.language ORDER BY b.language")
@@ -138,6 +237,34 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
     @Query("MATCH (b:Book) WHERE b.available = true RETURN b ORDER BY b.createdAt DESC")
     List<Book> findAllAvailable();
     
+    // Un livre avec seulement sa catégorie et ses tags (fiche détaillée)
+    @Query("MATCH (b:Book) WHERE id(b) = $id " + BOOK_WITH_RELATIONS)
+    Optional<Book> findByIdWithRelations(@Param("id") Long id);
+    
+    // Livres donnés avec catégorie et tags (ordre quelconque)
+    @Query("MATCH (b:Book) WHERE id(b) IN $ids " + BOOK_WITH_RELATIONS)
+    List<Book> findAllByIdWithRelations(@Param("ids") List<Long> ids);
+    
+    // Candidats d'un calcul de recommandations en ligne : livres disponibles des catégories
+    // et identifiants donnés, hors favoris de l'utilisateur, les plus téléchargés d'abord
+    @Query("CALL { " +
+           "  MATCH (c:Category)<-[:BELONGS_TO]-(b:Book) WHERE id(c) IN $categoryIds RETURN b " +
+           "  UNION " +
+           "  MATCH (b:Book) WHERE id(b) IN $bookIds RETURN b " +
+           "} " +
+           "WITH b WHERE b.available = true " +
+           "  AND NOT EXISTS { MATCH (u:User)-[:FAVORITES]->(b) WHERE id(u) = $userId } " +
+           "WITH b ORDER BY b.downloadCount DESC, id(b) ASC LIMIT $limit " +
+           BOOK_WITH_RELATIONS)
+    List<Book> findRecommendationCandidates(@Param("userId") Long userId,
+                                            @Param("categoryIds") Collection<Long> categoryIds,
+                                            @Param("bookIds") Collection<Long> bookIds,
+                                            @Param("limit") int limit);
+    
+    // Tous les livres avec catégorie et tags, sans utilisateurs ni historique (index en mémoire)
+    @Query("MATCH (b:Book) " + BOOK_WITH_RELATIONS)
+    List<Book> findAllWithRelations();
+    
     // Recherche par catégorie avec pagination
     @Query("MATCH (b:Book)-[:BELONGS_TO]->(c:Category) " +
            "WHERE c.id = $categoryId AND b.available = true " +
@@ -145,30 +272,51 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
            "SKIP $skip LIMIT $limit")
     List<Book> findByCategoryIdPaginated(@Param("categoryId") Long categoryId, @Param("skip") int skip, @Param("limit") int limit);
     
-    // Recherche textuelle avec pagination
-    @Query("MATCH (b:Book) " +
-           "WHERE b.available = true AND (" +
-           "  toLower(b.title) CONTAINS toLower($query) " +
-           "  OR toLower(b.author) CONTAINS toLower($query) " +
-           "  OR toLower(b.description) CONTAINS toLower($query)" +
-           ") RETURN b ORDER BY b.createdAt DESC " +
+    // Recherche textuelle avec pagination, par pertinence
+    @Query(BOOK_FULLTEXT_MATCH +
+           "WHERE b.available = true " +
+           "RETURN b ORDER BY relevance DESC, id(b) ASC " +
            "SKIP $skip LIMIT $limit")
     List<Book> searchBooksPaginated(@Param("query") String query, @Param("skip") int skip, @Param("limit") int limit);
     
-    // Recherche textuelle SIMPLIFIÉE avec filtres catégorie et tags
-    @Query("MATCH (b:Book) " +
+    // Recherche full-text avec filtres, tri (pertinence par défaut) et pagination côté base
+    @Query(BOOK_FULLTEXT_MATCH +
            "WHERE b.available = true " +
-           "  AND (toLower(b.title) CONTAINS toLower($query) " +
-           "       OR toLower(b.author) CONTAINS toLower($query) " +
-           "       OR toLower(b.description) CONTAINS toLower($query)) " +
            "  AND ($categoryId IS NULL OR EXISTS { " +
            "    MATCH (b)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
            "  }) " +
            "  AND ($tags IS NULL OR EXISTS { " +
            "    MATCH (b)-[:HAS_TAG]->(t:Tag) WHERE t.name IN split($tags, ',') " +
            "  }) " +
-           "RETURN b")
-    List<Book> searchBooksWithSimpleFilters(
+           "WITH b, " + SEARCH_SORT_KEY + " AS sortKey " +
+           BOOK_SEEK_AFTER +
+           "WITH b, sortKey " +
+           BOOK_ORDER_BY +
+           "SKIP $skip LIMIT $limit " +
+           BOOK_SUMMARY)
+    List<BookSummary> searchBookSummariesWithSimpleFiltersSorted(
+        @Param("query") String query,
+        @Param("categoryId") Long categoryId,
+        @Param("tags") String tags,
+        @Param("sortBy") String sortBy,
+        @Param("ascending") boolean ascending,
+        @Param("afterKey") Object afterKey,
+        @Param("afterId") Long afterId,
+        @Param("skip") int skip,
+        @Param("limit") int limit
+    );
+    
+    // Compter les résultats de la recherche full-text avec filtres
+    @Query(BOOK_FULLTEXT_MATCH +
+           "WHERE b.available = true " +
+           "  AND ($categoryId IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
+           "  }) " +
+           "  AND ($tags IS NULL OR EXISTS { " +
+           "    MATCH (b)-[:HAS_TAG]->(t:Tag) WHERE t.name IN split($tags, ',') " +
+           "  }) " +
+           "RETURN count(b)")
+    Long countSearchBooksWithSimpleFilters(
         @Param("query") String query,
         @Param("categoryId") Long categoryId,
         @Param("tags") String tags
@@ -186,6 +334,25 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
            "SKIP $skip LIMIT $limit")
     List<Book> findMostFavoritedPaginated(@Param("skip") int skip, @Param("limit") int limit);
     
+    // Livres les plus téléchargés, projection légère
+    @Query("MATCH (b:Book) WHERE b.available = true " +
+           "WITH b ORDER BY b.downloadCount DESC " +
+           "SKIP $skip LIMIT $limit " +
+           BOOK_SUMMARY)
+    List<BookSummary> findMostDownloadedSummaries(@Param("skip") int skip, @Param("limit") int limit);
+    
+    // Livres les plus favoris, projection légère
+    @Query("MATCH (b:Book) WHERE b.available = true " +
+           "WITH b ORDER BY b.favoriteCount DESC " +
+           "SKIP $skip LIMIT $limit " +
+           BOOK_SUMMARY)
+    List<BookSummary> findMostFavoritedSummaries(@Param("skip") int skip, @Param("limit") int limit);
+    
+    // Total des téléchargements des livres d'une catégorie
+    @Query("MATCH (b:Book)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
+           "RETURN coalesce(sum(b.downloadCount), 0)")
+    Long sumDownloadCountByCategoryId(@Param("categoryId") Long categoryId);
+    
     // Compter les livres disponibles
     @Query("MATCH (b:Book) WHERE b.available = true RETURN count(b)")
     Long countAvailableBooks();
@@ -198,6 +365,25 @@ public interface BookRepository extends Neo4jRepository<Book, Long> {
            "SKIP $skip LIMIT $limit")
     List<AuthorPopularityStats> findMostPopularAuthorsPaginated(@Param("skip") int skip, @Param("limit") int limit);
     
+    // Interface pour la projection légère des livres dans les listes
+    interface BookSummary {
+        Long getId();
+        String getTitle();
+        String getAuthor();
+        String getCoverImage();
+        String getPdfFile();
+        Long getFileSize();
+        Integer getPublicationYear();
+        String getLanguage();
+        Long getDownloadCount();
+        Long getFavoriteCount();
+        Boolean getAvailable();
+        ZonedDateTime getCreatedAt();
+        Long getCategoryId();
+        String getCategoryName();
+        List<String> getTagNames();
+    }
+    
     // Interface pour les statistiques d'auteurs
     interface AuthorPopularityStats {
         String getAuthor();
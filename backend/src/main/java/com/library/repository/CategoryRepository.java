@@ -61,6 +61,13 @@ public interface CategoryRepository extends Neo4jRepository<Category, Long> {
            "RETURN count(b)")
     Long countBooksByCategoryId(@Param("categoryId") Long categoryId);
     
+    // Nombre de livres disponibles de chaque catégorie, sans charger les livres
+    @Query("MATCH (c:Category) " +
+           "OPTIONAL MATCH (c)<-[:BELONGS_TO]-(b:Book) " +
+           "WHERE b.available = true " +
+           "RETURN ID(c) as categoryId, count(b) as bookCount")
+    List<BookCountResult> countBooksPerCategory();
+    
     // Statistiques des catégories
     @Query("MATCH (c:Category) " +
            "OPTIONAL MATCH (c)<-[:BELONGS_TO]-(b:Book) " +
@@ -73,6 +80,12 @@ public interface CategoryRepository extends Neo4jRepository<Category, Long> {
            "ORDER BY totalDownloads DESC")
     List<CategoryStats> getCategoryStatistics();
     
+    // Interface pour le nombre de livres par catégorie
+    interface BookCountResult {
+        Long getCategoryId();
+        Long getBookCount();
+    }
+    
     // Interface pour les statistiques
     interface CategoryStats {
         String getCategoryName();
@@ -116,6 +116,18 @@ public interface DownloadHistoryRepository extends Neo4jRepository<DownloadHisto
            "RETURN dh ORDER BY dh.downloadedAt DESC")
     List<DownloadHistory> findByUserIdOrderByDownloadedAtDesc(@Param("userId") Long userId);
     
+    // Livres téléchargés par un utilisateur, du plus récent au plus ancien, avec le nombre
+    // de téléchargements et le contenu utile au profil de préférences (une seule lecture)
+    @Query("MATCH (u:User)<-[:DOWNLOADED_BY]-(dh:DownloadHistory)-[:OF_BOOK]->(b:Book) " +
+           "WHERE id(u) = $userId " +
+           "WITH b, count(dh) AS downloads, min(dh.downloadedAt) AS firstDownload, " +
+           "     max(dh.downloadedAt) AS lastDownload " +
+           "ORDER BY lastDownload DESC LIMIT $limit " +
+           "RETURN id(b) AS bookId, b.author AS author, downloads, firstDownload, lastDownload, " +
+           "       head([(b)-[:BELONGS_TO]->(c:Category) | id(c)]) AS categoryId, " +
+           "       [(b)-[:HAS_TAG]->(t:Tag) | t.name] AS tagNames")
+    List<DownloadedBook> findDownloadedBooksByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+    
     // Téléchargements récents avec pagination
     @Query("MATCH (dh:DownloadHistory) " +
            "WHERE dh.downloadedAt >= $since " +
@@ -123,6 +135,12 @@ public interface DownloadHistoryRepository extends Neo4jRepository<DownloadHisto
            "SKIP $skip LIMIT $limit")
     List<DownloadHistory> findRecentDownloadsPaginated(@Param("since") ZonedDateTime since, @Param("skip") int skip, @Param("limit") int limit);
     
+    // Compter les téléchargements depuis une date
+    @Query("MATCH (dh:DownloadHistory) " +
+           "WHERE dh.downloadedAt >= $since " +
+           "RETURN count(dh)")
+    Long countByDownloadedAtAfter(@Param("since") ZonedDateTime since);
+    
     // Livres téléchargés après une date avec pagination
     @Query("MATCH (dh:DownloadHistory)-[:OF_BOOK]->(b:Book) " +
            "WHERE dh.downloadedAt >= $since " +
@@ -158,6 +176,17 @@ public interface DownloadHistoryRepository extends Neo4jRepository<DownloadHisto
         Long getDownloadCount();
     }
     
+    // Interface pour les livres téléchargés par un utilisateur
+    interface DownloadedBook {
+        Long getBookId();
+        String getAuthor();
+        Long getDownloads();
+        ZonedDateTime getFirstDownload();
+        ZonedDateTime getLastDownload();
+        Long getCategoryId();
+        List<String> getTagNames();
+    }
+    
     // Interface pour les statistiques quotidiennes
     interface DailyDownloadStats {
         String getDownloadDate();
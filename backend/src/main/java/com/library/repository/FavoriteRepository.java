@@ -0,0 +1,102 @@
+package com.library.repository;
+
+import com.library.model.Book;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Repository Neo4j des favoris (relation FAVORITES entre un utilisateur et un livre).
+ * Les favoris ne sont plus chargés avec l'utilisateur : ils sont lus page par page ici.
+ */
+@Repository
+public interface FavoriteRepository extends Neo4jRepository<Book, Long> {
+    
+    // Vérifier si un livre est dans les favoris d'un utilisateur
+    @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId AND ID(b) = $bookId " +
+           "RETURN count(b) > 0")
+    boolean existsByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    // Ajouter un favori daté et incrémenter le compteur du livre (false si déjà présent)
+    @Query("MATCH (u:User) WHERE ID(u) = $userId " +
+           "MATCH (b:Book) WHERE ID(b) = $bookId AND NOT (u)-[:FAVORITES]->(b) " +
+           "CREATE (u)-[:FAVORITES {addedAt: datetime()}]->(b) " +
+           "SET b.favoriteCount = coalesce(b.favoriteCount, 0) + 1 " +
+           "RETURN count(b) > 0")
+    boolean addFavorite(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    // Retirer un favori et décrémenter le compteur du livre (false si absent)
+    @Query("MATCH (u:User)-[f:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId AND ID(b) = $bookId " +
+           "DELETE f " +
+           "SET b.favoriteCount = CASE WHEN coalesce(b.favoriteCount, 0) > 0 THEN b.favoriteCount - 1 ELSE 0 END " +
+           "RETURN count(b) > 0")
+    boolean removeFavorite(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    // Date d'ajout d'un favori (null si absent ou ajouté avant la datation des favoris)
+    @Query("MATCH (u:User)-[f:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId AND ID(b) = $bookId " +
+           "RETURN f.addedAt")
+    ZonedDateTime findAddedAt(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    // Compter les favoris d'un utilisateur
+    @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId " +
+           "RETURN count(b)")
+    Long countByUserId(@Param("userId") Long userId);
+    
+    // Identifiants des livres favoris (sans charger les livres)
+    @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId " +
+           "RETURN ID(b)")
+    List<Long> findBookIdsByUserId(@Param("userId") Long userId);
+    
+    // Favoris d'un utilisateur avec pagination, projection légère
+    @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId " +
+           "WITH b ORDER BY b.title ASC, ID(b) ASC " +
+           "SKIP $skip LIMIT $limit " +
+           BookRepository.BOOK_SUMMARY)
+    List<BookRepository.BookSummary> findSummariesByUserIdPaginated(
+        @Param("userId") Long userId,
+        @Param("skip") int skip,
+        @Param("limit") int limit
+    );
+    
+    // Favoris d'un utilisateur avec catégorie et tags (profil de recommandation)
+    @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId " +
+           "WITH b ORDER BY ID(b) ASC " +
+           "SKIP $skip LIMIT $limit " +
+           BookRepository.BOOK_WITH_RELATIONS)
+    List<Book> findByUserIdPaginated(
+        @Param("userId") Long userId,
+        @Param("skip") int skip,
+        @Param("limit") int limit
+    );
+    
+    // Favoris d'un utilisateur, du plus récent au plus ancien, avec leur date d'ajout et le
+    // contenu utile au profil de préférences (une seule lecture)
+    @Query("MATCH (u:User)-[f:FAVORITES]->(b:Book) " +
+           "WHERE ID(u) = $userId " +
+           "WITH b, f.addedAt AS addedAt " +
+           "ORDER BY addedAt IS NULL, addedAt DESC, ID(b) DESC LIMIT $limit " +
+           "RETURN ID(b) AS bookId, b.author AS author, addedAt, " +
+           "       head([(b)-[:BELONGS_TO]->(c:Category) | id(c)]) AS categoryId, " +
+           "       [(b)-[:HAS_TAG]->(t:Tag) | t.name] AS tagNames")
+    List<FavoriteBook> findFavoriteBooksByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    // Interface pour les favoris d'un utilisateur
+    interface FavoriteBook {
+        Long getBookId();
+        String getAuthor();
+        ZonedDateTime getAddedAt();
+        Long getCategoryId();
+        List<String> getTagNames();
+    }
+}
@@ -23,6 +23,13 @@ public interface TagRepository extends Neo4jRepository<Tag, Long> {
     @Query("MATCH (t:Tag) WHERE t.name = $name RETURN t")
     Optional<Tag> findByName(@Param("name") String name);
     
+    // Retrouver ou créer en une requête tous les tags portant ces noms
+    @Query("UNWIND $names AS name " +
+           "MERGE (t:Tag {name: name}) " +
+           "ON CREATE SET t.createdAt = datetime(), t.updatedAt = datetime() " +
+           "RETURN t")
+    List<Tag> mergeAllByName(@Param("names") List<String> names);
+    
     // Vérifier si un tag existe
     @Query("MATCH (t:Tag) WHERE t.name = $name RETURN count(t) > 0")
     boolean existsByName(@Param("name") String name);
@@ -65,6 +72,13 @@ public interface TagRepository extends Neo4jRepository<Tag, Long> {
            "RETURN count(b)")
     Long countBooksByTagId(@Param("tagId") Long tagId);
     
+    // Nombre de livres disponibles de chaque tag, sans charger les livres
+    @Query("MATCH (t:Tag) " +
+           "OPTIONAL MATCH (t)<-[:HAS_TAG]-(b:Book) " +
+           "WHERE b.available = true " +
+           "RETURN ID(t) as tagId, count(b) as bookCount")
+    List<BookCountResult> countBooksPerTag();
+    
     // Tags suggérés basés sur un livre
     @Query("MATCH (book:Book)-[:HAS_TAG]->(relatedTag:Tag)<-[:HAS_TAG]-(otherBook:Book)-[:HAS_TAG]->(suggestedTag:Tag) " +
            "WHERE ID(book) = $bookId AND suggestedTag <> relatedTag " +
@@ -85,6 +99,12 @@ public interface TagRepository extends Neo4jRepository<Tag, Long> {
            "ORDER BY totalDownloads DESC")
     List<TagStats> getTagStatistics();
     
+    // Interface pour le nombre de livres par tag
+    interface BookCountResult {
+        Long getTagId();
+        Long getBookCount();
+    }
+    
     // Interface pour les statistiques
     interface TagStats {
         String getTagName();
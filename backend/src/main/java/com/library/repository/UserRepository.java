@@ -17,6 +17,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends Neo4jRepository<User, Long> {
     
+    // Agrégat utilisateur : le nœud et son rôle (favoris et historique ont leurs repositories)
+    String USER_WITH_ROLE = "RETURN u, [(u)-[r:HAS_ROLE]->(role:Role) | [r, role]]";
+    
     // Recherche par nom d'utilisateur avec rôle
     Optional<User> findByUsername(String username);
     
@@ -35,6 +38,17 @@ public interface UserRepository extends Neo4jRepository<User, Long> {
     @Query("MATCH (u:User)-[:HAS_ROLE]->(r:Role) WHERE r.name = $roleName RETURN u")
     List<User> findByRoleName(@Param("roleName") Role.RoleName roleName);
     
+    // Membres d'un rôle avec pagination
+    @Query("MATCH (u:User)-[:HAS_ROLE]->(r:Role) WHERE r.name = $roleName " +
+           "WITH u ORDER BY u.username ASC " +
+           "SKIP $skip LIMIT $limit " +
+           USER_WITH_ROLE)
+    List<User> findByRoleNamePaginated(
+        @Param("roleName") Role.RoleName roleName,
+        @Param("skip") int skip,
+        @Param("limit") int limit
+    );
+    
     // Recherche par statut activé
     @Query("MATCH (u:User) WHERE u.enabled = $enabled RETURN u")
     List<User> findByEnabled(@Param("enabled") Boolean enabled);
@@ -78,6 +92,17 @@ public interface UserRepository extends Neo4jRepository<User, Long> {
            "RETURN u ORDER BY u.downloadCount DESC LIMIT $limit")
     List<User> findMostActiveUsers(@Param("limit") int limit);
     
+    // Reprise unique des compteurs de téléchargements depuis l'historique (utilisateurs
+    // antérieurs au compteur) ; le nœud :DataMigration marque la reprise comme faite
+    @Query("OPTIONAL MATCH (m:DataMigration {name: 'userDownloadCount'}) " +
+           "WITH m WHERE m IS NULL " +
+           "MATCH (u:User) " +
+           "SET u.downloadCount = size([(u)<-[:DOWNLOADED_BY]-(:DownloadHistory) | 1]) " +
+           "WITH count(u) AS users " +
+           "MERGE (:DataMigration {name: 'userDownloadCount'}) " +
+           "RETURN users")
+    Long backfillDownloadCounts();
+    
     // Utilisateurs avec le plus de favoris
     @Query("MATCH (u:User)-[:FAVORITES]->(b:Book) " +
            "WITH u, count(b) as favoriteCount " +
@@ -107,8 +132,9 @@ public interface UserRepository extends Neo4jRepository<User, Long> {
            "  toLower(u.email) CONTAINS toLower($search) OR " +
            "  toLower(u.firstName) CONTAINS toLower($search) OR " +
            "  toLower(u.lastName) CONTAINS toLower($search)" +
-           ") RETURN u ORDER BY u.createdAt DESC " +
-           "SKIP $skip LIMIT $limit")
+           ") WITH u ORDER BY u.createdAt DESC " +
+           "SKIP $skip LIMIT $limit " +
+           USER_WITH_ROLE)
     List<User> searchUsersPaginated(@Param("search") String search, @Param("skip") int skip, @Param("limit") int limit);
     
     // Compter les utilisateurs actifs
@@ -73,6 +73,7 @@ public class WebSecurityConfig {
                     .requestMatchers("/books").permitAll() // GET books publique
                     .requestMatchers("/books/{id}").permitAll() // GET book by ID publique
                     .requestMatchers("/books/search").permitAll() // Search publique
+                    .requestMatchers("/books/suggest").permitAll() // Autocomplétion publique
                     .requestMatchers("/books/test/**").permitAll() // Endpoints de test des livres
                     .requestMatchers("/books/category/**").permitAll() // Books by category publique
                     .requestMatchers("/categories/**").permitAll() // Lecture publique des catégories
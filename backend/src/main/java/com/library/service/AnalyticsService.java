@@ -1,8 +1,8 @@
 package com.library.service;
 
+import com.library.dto.BookDto;
 import com.library.model.Book;
 import com.library.model.Category;
-import com.library.model.DownloadHistory;
 import com.library.model.User;
 import com.library.repository.BookRepository;
 import com.library.repository.CategoryRepository;
@@ -18,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +42,9 @@ public class AnalyticsService {
     @Autowired
     private DownloadHistoryRepository downloadHistoryRepository;
     
+    @Autowired
+    private TasteVectorService tasteVectorService;
+    
     /**
      * Obtient les statistiques générales de la plateforme
      */
@@ -59,13 +63,18 @@ public class AnalyticsService {
         ZonedDateTime lastWeek = ZonedDateTime.now().minus(7, ChronoUnit.DAYS);
         ZonedDateTime lastMonth = ZonedDateTime.now().minus(30, ChronoUnit.DAYS);
         
-        stats.setDownloadsLastWeek(downloadHistoryRepository.findRecentDownloadsPaginated(lastWeek, 0, Integer.MAX_VALUE).size());
-        stats.setDownloadsLastMonth(downloadHistoryRepository.findRecentDownloadsPaginated(lastMonth, 0, Integer.MAX_VALUE).size());
+        // Comptés par Neo4j, sans charger l'historique
+        stats.setDownloadsLastWeek(downloadHistoryRepository.countByDownloadedAtAfter(lastWeek).intValue());
+        stats.setDownloadsLastMonth(downloadHistoryRepository.countByDownloadedAtAfter(lastMonth).intValue());
         
-        // Livres les plus populaires
+        // Livres les plus populaires (projection légère, sans description ni relations)
         int topLimit = 10;
-        stats.setMostDownloadedBooks(bookRepository.findMostDownloadedPaginated(0, topLimit));
-        stats.setMostFavoritedBooks(bookRepository.findMostFavoritedPaginated(0, topLimit));
+        stats.setMostDownloadedBooks(bookRepository.findMostDownloadedSummaries(0, topLimit).stream()
+            .map(BookDto::fromSummary)
+            .collect(Collectors.toList()));
+        stats.setMostFavoritedBooks(bookRepository.findMostFavoritedSummaries(0, topLimit).stream()
+            .map(BookDto::fromSummary)
+            .collect(Collectors.toList()));
         
         return stats;
     }
@@ -154,45 +163,45 @@ public class AnalyticsService {
         }
         
         User user = userOpt.get();
-        List<DownloadHistory> downloads = downloadHistoryRepository.findByUserIdOrderByDownloadedAtDesc(userId);
+        // Vecteur de goûts amorti : indépendant de la longueur de l'historique
+        TasteVector taste = tasteVectorService.get(userId);
         
         UserReadingPattern pattern = new UserReadingPattern();
         pattern.setUserId(userId);
         pattern.setUsername(user.getUsername());
-        pattern.setTotalDownloads(downloads.size());
-        pattern.setTotalFavorites(user.getFavorites().size());
+        pattern.setTotalDownloads((int) taste.getDownloads());
+        pattern.setTotalFavorites((int) taste.getFavorites());
+        
+        // Préférences de catégories (par nom) et d'auteurs : favoris poids 2, téléchargements poids 1
+        Map<Long, String> categoryNames = new HashMap<>();
+        categoryRepository.findAllById(taste.getCategories().keySet())
+            .forEach(category -> categoryNames.put(category.getId(), category.getName()));
         
-        // Analyser les préférences de catégories
         Map<String, Long> categoryPreferences = new HashMap<>();
+        taste.getCategories().forEach((categoryId, weight) -> {
+            String name = categoryNames.get(categoryId);
+            if (name != null && Math.round(weight) > 0) {
+                categoryPreferences.merge(name, Math.round(weight), Long::sum);
+            }
+        });
         Map<String, Long> authorPreferences = new HashMap<>();
-        
-        // Analyser les favoris (poids plus fort)
-        for (Book favorite : user.getFavorites()) {
-            categoryPreferences.merge(favorite.getCategory().getName(), 2L, Long::sum);
-            authorPreferences.merge(favorite.getAuthor(), 2L, Long::sum);
-        }
-        
-        // Analyser les téléchargements
-        for (DownloadHistory download : downloads) {
-            Book book = download.getBook();
-            categoryPreferences.merge(book.getCategory().getName(), 1L, Long::sum);
-            authorPreferences.merge(book.getAuthor(), 1L, Long::sum);
-        }
+        taste.getAuthors().forEach((author, weight) -> {
+            if (Math.round(weight) > 0) {
+                authorPreferences.put(author, Math.round(weight));
+            }
+        });
         
         pattern.setPreferredCategories(categoryPreferences);
         pattern.setPreferredAuthors(authorPreferences);
         
         // Analyser l'activité temporelle
-        if (!downloads.isEmpty()) {
-            ZonedDateTime firstDownload = downloads.get(downloads.size() - 1).getDownloadedAt();
-            ZonedDateTime lastDownload = downloads.get(0).getDownloadedAt();
-            
-            long daysBetween = ChronoUnit.DAYS.between(firstDownload, lastDownload);
+        if (taste.getFirstActivity() != null && taste.getLastActivity() != null) {
+            long daysBetween = TimeUnit.MILLISECONDS.toDays(taste.getLastActivity() - taste.getFirstActivity());
             pattern.setDaysSinceFirstActivity(daysBetween);
             
             // Calculer la fréquence moyenne
             if (daysBetween > 0) {
-                pattern.setAverageDownloadsPerWeek((double) downloads.size() / (daysBetween / 7.0));
+                pattern.setAverageDownloadsPerWeek((double) taste.getDownloads() / (daysBetween / 7.0));
             }
         }
         
@@ -211,11 +220,9 @@ public class AnalyticsService {
         long bookCount = bookRepository.countByCategoryId(category.getId());
         stats.setBookCount(bookCount);
         
-        // Calculer les téléchargements totaux pour cette catégorie
-        List<Book> categoryBooks = bookRepository.findByCategoryIdPaginated(category.getId(), 0, Integer.MAX_VALUE);
-        long totalDownloads = categoryBooks.stream()
-            .mapToLong(Book::getDownloadCount)
-            .sum();
+        // Calculer les téléchargements totaux pour cette catégorie (agrégé par Neo4j)
+        Long sum = bookRepository.sumDownloadCountByCategoryId(category.getId());
+        long totalDownloads = sum != null ? sum : 0L;
         
         stats.setTotalDownloads(totalDownloads);
         
@@ -234,8 +241,8 @@ public class AnalyticsService {
         private Long totalDownloads;
         private Integer downloadsLastWeek;
         private Integer downloadsLastMonth;
-        private List<Book> mostDownloadedBooks;
-        private List<Book> mostFavoritedBooks;
+        private List<BookDto> mostDownloadedBooks;
+        private List<BookDto> mostFavoritedBooks;
         
         // Getters et Setters
         public Long getTotalBooks() { return totalBooks; }
@@ -256,11 +263,11 @@ public class AnalyticsService {
         public Integer getDownloadsLastMonth() { return downloadsLastMonth; }
         public void setDownloadsLastMonth(Integer downloadsLastMonth) { this.downloadsLastMonth = downloadsLastMonth; }
         
-        public List<Book> getMostDownloadedBooks() { return mostDownloadedBooks; }
-        public void setMostDownloadedBooks(List<Book> mostDownloadedBooks) { this.mostDownloadedBooks = mostDownloadedBooks; }
+        public List<BookDto> getMostDownloadedBooks() { return mostDownloadedBooks; }
+        public void setMostDownloadedBooks(List<BookDto> mostDownloadedBooks) { this.mostDownloadedBooks = mostDownloadedBooks; }
         
-        public List<Book> getMostFavoritedBooks() { return mostFavoritedBooks; }
-        public void setMostFavoritedBooks(List<Book> mostFavoritedBooks) { this.mostFavoritedBooks = mostFavoritedBooks; }
+        public List<BookDto> getMostFavoritedBooks() { return mostFavoritedBooks; }
+        public void setMostFavoritedBooks(List<BookDto> mostFavoritedBooks) { this.mostFavoritedBooks = mostFavoritedBooks; }
     }
     
     public static class CategoryStats {
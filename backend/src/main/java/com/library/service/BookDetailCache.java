@@ -0,0 +1,215 @@
+package com.library.service;
+
+import com.library.dto.BookDto;
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache en lecture des fiches de livres (GET /books/{id}) : DTO par identifiant, borné
+ * en taille estimée (octets), avec durée de vie et éviction du moins récemment lu.
+ * Chaque écriture sur un livre (modification, suppression, PDF, couverture, compteurs)
+ * publie un BookChangedEvent qui retire précisément sa fiche ; un rechargement du
+ * catalogue (catégorie ou tag renommé, import) vide le cache.
+ */
+@Service
+public class BookDetailCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookDetailCache.class);
+    
+    // Surcoût fixe estimé d'une entrée (objets DTO, dates, entrée de la table)
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+    
+    // Générations par livre (haché) : un chargement concurrent d'une invalidation du même
+    // livre n'est pas conservé, sans pénaliser les chargements des autres livres
+    private static final int GENERATION_STRIPES = 64;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.cache.book-detail.max-bytes:33554432}")
+    private long maxBytes;
+    
+    @Value("${app.cache.book-detail.ttl-seconds:600}")
+    private long ttlSeconds;
+    
+    // Ordre d'accès : la première entrée est la moins récemment lue (accès synchronisés)
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    
+    private final long[] generations = new long[GENERATION_STRIPES];
+    
+    private Counter hits;
+    private Counter misses;
+    private Counter sizeEvictions;
+    private Counter expirations;
+    
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("library.cache.book.detail.requests")
+            .tag("result", "hit")
+            .description("Fiches de livres servies par le cache")
+            .register(meterRegistry);
+        misses = Counter.builder("library.cache.book.detail.requests")
+            .tag("result", "miss")
+            .description("Fiches de livres chargées depuis Neo4j")
+            .register(meterRegistry);
+        sizeEvictions = Counter.builder("library.cache.book.detail.evictions")
+            .tag("cause", "size")
+            .description("Fiches évincées pour respecter la taille maximale du cache")
+            .register(meterRegistry);
+        expirations = Counter.builder("library.cache.book.detail.evictions")
+            .tag("cause", "expired")
+            .description("Fiches évincées à l'expiration de leur durée de vie")
+            .register(meterRegistry);
+        Gauge.builder("library.cache.book.detail.size", this, BookDetailCache::getSize)
+            .description("Fiches de livres présentes dans le cache")
+            .register(meterRegistry);
+        Gauge.builder("library.cache.book.detail.weight", this, BookDetailCache::getWeight)
+            .description("Taille estimée des fiches en cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Fiche du livre, depuis le cache ou chargée (catégorie et tags seulement) puis mise en cache
+     */
+    public Optional<BookDto> get(Long id) {
+        long now = System.currentTimeMillis();
+        long generation;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return Optional.of(entry.book);
+            }
+            if (entry != null) {
+                discard(id, entry);
+                expirations.increment();
+            }
+            generation = generations[stripe(id)];
+        }
+        
+        misses.increment();
+        Optional<BookDto> book = bookRepository.findByIdWithRelations(id).map(BookDto::fromEntity);
+        book.ifPresent(dto -> put(id, dto, generation, now + ttlSeconds * 1000));
+        return book;
+    }
+    
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (entries) {
+            generations[stripe(event.getBookId())]++;
+            Entry entry = entries.get(event.getBookId());
+            if (entry != null) {
+                discard(event.getBookId(), entry);
+            }
+        }
+    }
+    
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        synchronized (entries) {
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations[stripe]++;
+            }
+            entries.clear();
+            weight = 0;
+        }
+        logger.debug("Cache des fiches de livres vidé ({})", event.getReason());
+    }
+    
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+    
+    private void put(Long id, BookDto book, long generation, long expiresAt) {
+        Entry entry = new Entry(book, expiresAt, estimateBytes(book));
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            // Livre modifié pendant le chargement : la fiche lue est peut-être déjà périmée
+            if (generation != generations[stripe(id)]) {
+                return;
+            }
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                weight -= previous.bytes;
+            }
+            weight += entry.bytes;
+            
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (weight > maxBytes && eldest.hasNext()) {
+                Map.Entry<Long, Entry> evicted = eldest.next();
+                weight -= evicted.getValue().bytes;
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+    
+    private void discard(Long id, Entry entry) {
+        entries.remove(id);
+        weight -= entry.bytes;
+    }
+    
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+    }
+    
+    // Estimation grossière : 2 octets par caractère des textes, plus un surcoût fixe
+    private static long estimateBytes(BookDto book) {
+        long chars = length(book.getTitle()) + length(book.getAuthor()) + length(book.getIsbn())
+            + length(book.getDescription()) + length(book.getLanguage()) + length(book.getCoverImage())
+            + length(book.getPdfFile()) + length(book.getCategoryName());
+        if (book.getTagNames() != null) {
+            for (String tag : book.getTagNames()) {
+                chars += length(tag) + 16;
+            }
+        }
+        return ENTRY_OVERHEAD_BYTES + 2 * chars;
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+    
+    private static class Entry {
+        private final BookDto book;
+        private final long expiresAt;
+        private final long bytes;
+        
+        Entry(BookDto book, long expiresAt, long bytes) {
+            this.book = book;
+            this.expiresAt = expiresAt;
+            this.bytes = bytes;
+        }
+    }
+}
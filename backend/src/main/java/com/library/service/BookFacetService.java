@@ -0,0 +1,208 @@
+package com.library.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Facettes de filtrage du catalogue (langues, années, décennies, catégories, tags)
+ * avec le nombre de livres disponibles pour chaque valeur, dans le contexte des
+ * filtres courants. Calculées en une seule requête Neo4j et mises en cache tant
+ * que la version du catalogue ne change pas.
+ */
+@Service
+public class BookFacetService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookFacetService.class);
+    
+    // Contextes de filtres conservés (les plus récemment utilisés)
+    private static final int MAX_CACHED_CONTEXTS = 256;
+    
+    // Un seul parcours des livres filtrés, puis un comptage par facette
+    private static final String FACETS_QUERY =
+        "MATCH (b:Book) " +
+        "WHERE b.available = true " +
+        "  AND ($categoryId IS NULL OR EXISTS { " +
+        "    MATCH (b)-[:BELONGS_TO]->(c:Category) WHERE c.id = $categoryId " +
+        "  }) " +
+        "  AND ($tags IS NULL OR EXISTS { " +
+        "    MATCH (b)-[:HAS_TAG]->(t:Tag) WHERE t.name IN split($tags, ',') " +
+        "  }) " +
+        "WITH collect(b) AS books " +
+        "CALL { " +
+        "  WITH books UNWIND books AS b " +
+        "  WITH b.language AS value, count(*) AS count WHERE value IS NOT NULL " +
+        "  RETURN collect({value: value, count: count}) AS languages " +
+        "} " +
+        "CALL { " +
+        "  WITH books UNWIND books AS b " +
+        "  WITH b.publicationYear AS value, count(*) AS count WHERE value IS NOT NULL " +
+        "  RETURN collect({value: value, count: count}) AS years " +
+        "} " +
+        "CALL { " +
+        "  WITH books UNWIND books AS b " +
+        "  MATCH (b)-[:HAS_TAG]->(t:Tag) " +
+        "  WITH t.name AS value, count(*) AS count " +
+        "  RETURN collect({value: value, count: count}) AS tags " +
+        "} " +
+        "CALL { " +
+        "  WITH books UNWIND books AS b " +
+        "  MATCH (b)-[:BELONGS_TO]->(c:Category) " +
+        "  WITH id(c) AS id, count(*) AS count " +
+        "  RETURN collect({id: id, count: count}) AS categoryCounts " +
+        "} " +
+        "CALL { " +
+        "  MATCH (c:Category) " +
+        "  RETURN collect({id: id(c), name: c.name}) AS categories " +
+        "} " +
+        "RETURN size(books) AS total, languages, years, tags, categoryCounts, categories";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    private final Map<String, CachedFacets> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFacets> eldest) {
+                return size() > MAX_CACHED_CONTEXTS;
+            }
+        });
+    
+    /**
+     * Facettes pour le contexte de filtres donné (catégorie, tags séparés par virgule)
+     */
+    public Map<String, Object> getFacets(Long categoryId, String tags) {
+        String normalizedTags = normalizeTags(tags);
+        String key = categoryId + "|" + normalizedTags;
+        
+        // Version lue avant le calcul : une écriture concurrente invalidera ce résultat
+        long version = catalogVersionService.current();
+        CachedFacets cached = cache.get(key);
+        if (cached != null && cached.version == version) {
+            return cached.facets;
+        }
+        
+        Map<String, Object> params = new HashMap<>();
+        params.put("categoryId", categoryId);
+        params.put("tags", normalizedTags);
+        
+        Map<String, Object> row = neo4jClient.query(FACETS_QUERY)
+            .bindAll(params)
+            .fetch()
+            .one()
+            .orElse(Collections.emptyMap());
+        
+        Map<String, Object> facets = Collections.unmodifiableMap(toResponse(row, version));
+        cache.put(key, new CachedFacets(version, facets));
+        logger.debug("Facettes calculées pour {} (version {})", key, version);
+        return facets;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toResponse(Map<String, Object> row, long version) {
+        List<Map<String, Object>> languageCounts = sortedByValue(
+            (List<Map<String, Object>>) row.getOrDefault("languages", List.of()), false);
+        List<Map<String, Object>> yearCounts = sortedByValue(
+            (List<Map<String, Object>>) row.getOrDefault("years", List.of()), true);
+        List<Map<String, Object>> tagCounts = sortedByCount(
+            (List<Map<String, Object>>) row.getOrDefault("tags", List.of()));
+        
+        // Décennies déduites des comptes par année
+        Map<Long, Long> decades = new TreeMap<>(Comparator.reverseOrder());
+        for (Map<String, Object> year : yearCounts) {
+            long decade = (toLong(year.get("value")) / 10) * 10;
+            decades.merge(decade, toLong(year.get("count")), Long::sum);
+        }
+        List<Map<String, Object>> decadeCounts = decades.entrySet().stream()
+            .map(e -> Map.<String, Object>of("value", e.getKey(), "count", e.getValue()))
+            .collect(Collectors.toList());
+        
+        // Toutes les catégories, avec 0 pour celles absentes du contexte
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        for (Map<String, Object> count : (List<Map<String, Object>>) row.getOrDefault("categoryCounts", List.of())) {
+            categoryCounts.put(toLong(count.get("id")), toLong(count.get("count")));
+        }
+        List<Map<String, Object>> categories = ((List<Map<String, Object>>) row.getOrDefault("categories", List.of()))
+            .stream()
+            .filter(c -> c.get("name") != null)
+            .sorted(Comparator.comparing(c -> String.valueOf(c.get("name"))))
+            .map(c -> Map.<String, Object>of(
+                "id", toLong(c.get("id")),
+                "name", c.get("name"),
+                "count", categoryCounts.getOrDefault(toLong(c.get("id")), 0L)))
+            .collect(Collectors.toList());
+        
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("languages", languageCounts);
+        facets.put("years", yearCounts);
+        facets.put("decades", decadeCounts);
+        facets.put("tags", tagCounts);
+        
+        // Listes simples conservées pour les clients existants
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("languages", languageCounts.stream().map(l -> l.get("value")).collect(Collectors.toList()));
+        response.put("years", yearCounts.stream().map(y -> toLong(y.get("value")).intValue()).collect(Collectors.toList()));
+        response.put("categories", categories);
+        response.put("facets", facets);
+        response.put("total", toLong(row.getOrDefault("total", 0L)));
+        response.put("catalogVersion", version);
+        return response;
+    }
+    
+    // Langues par ordre alphabétique, années de la plus récente à la plus ancienne
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> sortedByValue(List<Map<String, Object>> counts, boolean descending) {
+        List<Map<String, Object>> sorted = new ArrayList<>(counts);
+        Comparator<Map<String, Object>> byValue = Comparator.comparing(
+            m -> (Comparable<Object>) m.get("value"));
+        sorted.sort(descending ? byValue.reversed() : byValue);
+        return sorted;
+    }
+    
+    private List<Map<String, Object>> sortedByCount(List<Map<String, Object>> counts) {
+        List<Map<String, Object>> sorted = new ArrayList<>(counts);
+        sorted.sort(Comparator.comparing((Map<String, Object> m) -> toLong(m.get("count"))).reversed()
+            .thenComparing(m -> String.valueOf(m.get("value"))));
+        return sorted;
+    }
+    
+    private static String normalizeTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return null;
+        }
+        // Même ensemble de tags, même entrée de cache, quel que soit l'ordre
+        return Arrays.stream(tags.split(","))
+            .sorted()
+            .collect(Collectors.joining(","));
+    }
+    
+    private static Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+    
+    private static class CachedFacets {
+        private final long version;
+        private final Map<String, Object> facets;
+        
+        CachedFacets(long version, Map<String, Object> facets) {
+            this.version = version;
+            this.facets = facets;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.BookDto;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Category;
+import com.library.repository.CategoryRepository;
+import com.library.util.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Import en masse de livres depuis un fichier CSV ou JSON, éventuellement dans une archive
+ * zip accompagné des PDF. Les lignes sont lues en flux et écrites par lots avec
+ * UNWIND ... MERGE : une requête par lot au lieu de plusieurs par livre. Catégories et
+ * tags sont résolus une fois par import (dictionnaires nom → identifiant). Un import
+ * s'exécute en tâche de fond ; sa progression et ses lignes rejetées restent consultables.
+ */
+@Service
+public class BookImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+    
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    
+    public static final Set<String> SUPPORTED_EXTENSIONS = Set.of(".csv", ".json", ".ndjson", ".zip");
+    
+    // Imports conservés pour consultation, et lignes rejetées détaillées par import
+    private static final int MAX_JOBS = 20;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private static final String PDF_DIRECTORY = "books/pdf";
+    
+    // Séparateur des tags dans une cellule CSV (la virgule sépare les colonnes)
+    private static final String CSV_TAG_SEPARATOR = "\\|";
+    
+    // Un livre existant garde ses compteurs et sa disponibilité ; catégorie et tags sont remplacés
+    private static final String IMPORT_BOOKS_TAIL =
+        "ON CREATE SET b.createdAt = datetime(), b.downloadCount = 0, b.favoriteCount = 0, b.available = true " +
+        "SET b += row.properties, b.updatedAt = datetime() " +
+        "WITH b, row " +
+        "OPTIONAL MATCH (b)-[old:BELONGS_TO|HAS_TAG]->() " +
+        "DELETE old " +
+        "WITH DISTINCT b, row " +
+        "MATCH (c:Category) WHERE id(c) = row.categoryId " +
+        "MERGE (b)-[:BELONGS_TO]->(c) " +
+        "WITH b, row " +
+        "CALL { " +
+        "  WITH b, row " +
+        "  UNWIND row.tagIds AS tagId " +
+        "  MATCH (t:Tag) WHERE id(t) = tagId " +
+        "  MERGE (b)-[:HAS_TAG]->(t) " +
+        "} " +
+        "RETURN count(b) AS written";
+    
+    // Livres identifiés par ISBN, à défaut par titre et auteur (réimport sans doublon)
+    private static final String IMPORT_BY_ISBN =
+        "UNWIND $rows AS row " +
+        "MERGE (b:Book {isbn: row.isbn}) " +
+        IMPORT_BOOKS_TAIL;
+    
+    private static final String IMPORT_BY_TITLE =
+        "UNWIND $rows AS row " +
+        "MERGE (b:Book {title: row.properties.title, author: row.properties.author}) " +
+        IMPORT_BOOKS_TAIL;
+    
+    // Tags absents du dictionnaire de l'import : créés ou retrouvés en une requête
+    private static final String MERGE_TAGS =
+        "UNWIND $names AS name " +
+        "MERGE (t:Tag {name: name}) " +
+        "ON CREATE SET t.createdAt = datetime(), t.updatedAt = datetime() " +
+        "RETURN name, id(t) AS id";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.import.batch-size:5000}")
+    private int batchSize;
+    
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+    
+    /**
+     * Enregistre l'import et copie le fichier reçu sur disque ; l'import démarre avec {@link #runImport}
+     *
+     * @throws IllegalArgumentException si le type de fichier n'est pas pris en charge
+     */
+    public ImportJob prepare(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "import";
+        String extension = extensionOf(fileName);
+        if (!SUPPORTED_EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Format non pris en charge (CSV, JSON, NDJSON ou zip): " + fileName);
+        }
+        
+        Path upload = Files.createTempFile("book-import-", extension);
+        file.transferTo(upload);
+        
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName, upload);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            // Oublier les imports terminés les plus anciens
+            jobs.values().removeIf(old -> jobs.size() > MAX_JOBS && old.isFinished());
+        }
+        return job;
+    }
+    
+    public ImportJob getJob(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+    
+    /**
+     * Imports récents, du plus récent au plus ancien
+     */
+    public List<ImportJob> getJobs() {
+        synchronized (jobs) {
+            List<ImportJob> recent = new ArrayList<>(jobs.values());
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+    
+    /**
+     * Exécute l'import en tâche de fond
+     */
+    @Async
+    public void runImport(ImportJob job) {
+        job.status = STATUS_RUNNING;
+        logger.info("Import de livres {} démarré: {}", job.getId(), job.getFileName());
+        
+        ImportBatch batch = null;
+        try {
+            batch = new ImportBatch(job);
+            if (".zip".equals(extensionOf(job.getFileName()))) {
+                try (ZipFile zip = new ZipFile(job.upload.toFile())) {
+                    ZipEntry data = findDataEntry(zip);
+                    try (InputStream in = zip.getInputStream(data)) {
+                        readRows(batch, in, data.getName(), zip);
+                    }
+                }
+            } else {
+                try (InputStream in = Files.newInputStream(job.upload)) {
+                    readRows(batch, in, job.getFileName(), null);
+                }
+            }
+            flush(batch);
+            job.status = STATUS_COMPLETED;
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'import de livres {}", job.getId(), e);
+            // Lignes du lot en cours jamais écrites : rejetées, leurs PDF supprimés
+            if (batch != null) {
+                batch.rejectAll("Import interrompu: " + e.getMessage());
+            }
+            job.message = e.getMessage();
+            job.status = STATUS_FAILED;
+        } finally {
+            job.finishedAt = ZonedDateTime.now();
+            try {
+                Files.deleteIfExists(job.upload);
+            } catch (IOException e) {
+                logger.warn("Fichier temporaire d'import non supprimé: {}", job.upload);
+            }
+        }
+        
+        // Un seul rechargement des index en mémoire pour tout l'import
+        if (job.getImportedRows() > 0) {
+            eventPublisher.publishEvent(new CatalogReloadEvent("import de livres"));
+        }
+        logger.info("Import de livres {} terminé ({}): {} importés, {} rejetés", job.getId(), job.getStatus(),
+            job.getImportedRows(), job.getFailedRows());
+    }
+    
+    // ===== Lecture des lignes =====
+    
+    private ZipEntry findDataEntry(ZipFile zip) {
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String extension = extensionOf(entry.getName());
+            if (!entry.isDirectory() && !".zip".equals(extension) && SUPPORTED_EXTENSIONS.contains(extension)) {
+                return entry;
+            }
+        }
+        throw new IllegalArgumentException("Aucun fichier CSV ou JSON dans l'archive");
+    }
+    
+    private void readRows(ImportBatch batch, InputStream in, String fileName, ZipFile zip) throws IOException {
+        if (".csv".equals(extensionOf(fileName))) {
+            readCsv(batch, in, zip);
+        } else {
+            readJson(batch, in, zip);
+        }
+    }
+    
+    private void readCsv(ImportBatch batch, InputStream in, ZipFile zip) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Marque d'ordre d'octets éventuelle en tête de fichier
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long line = csv.getRecordLine();
+            BookDto.ImportRow row;
+            try {
+                row = toImportRow(record, columns);
+            } catch (NumberFormatException e) {
+                batch.job.processedRows.incrementAndGet();
+                batch.job.reject(line, "Valeur numérique invalide: " + e.getMessage());
+                continue;
+            }
+            addRow(batch, line, row, zip);
+        }
+    }
+    
+    private BookDto.ImportRow toImportRow(List<String> record, Map<String, Integer> columns) {
+        BookDto.ImportRow row = new BookDto.ImportRow();
+        row.setTitle(cell(record, columns, "title"));
+        row.setAuthor(cell(record, columns, "author"));
+        row.setIsbn(cell(record, columns, "isbn"));
+        row.setDescription(cell(record, columns, "description"));
+        row.setLanguage(cell(record, columns, "language"));
+        row.setPdfFile(cell(record, columns, "pdffile"));
+        
+        String year = cell(record, columns, "publicationyear");
+        row.setPublicationYear(year != null ? Integer.valueOf(year) : null);
+        String pages = cell(record, columns, "pagecount");
+        row.setPageCount(pages != null ? Integer.valueOf(pages) : null);
+        String categoryId = cell(record, columns, "categoryid");
+        row.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+        row.setCategoryName(cell(record, columns, cell(record, columns, "categoryname") != null ? "categoryname" : "category"));
+        
+        String tags = cell(record, columns, columns.containsKey("tagnames") ? "tagnames" : "tags");
+        if (tags != null) {
+            row.setTagNames(new LinkedHashSet<>(Arrays.asList(tags.split(CSV_TAG_SEPARATOR))));
+        }
+        return row;
+    }
+    
+    // Valeur de la colonne, ou null si la colonne est absente ou la cellule vide
+    private static String cell(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isBlank()) {
+            return null;
+        }
+        return record.get(index).trim();
+    }
+    
+    // Tableau JSON de livres ou un livre JSON par ligne (NDJSON) ; un élément invalide est
+    // rejeté comme une ligne CSV, un JSON mal formé arrête la lecture du reste du fichier
+    private void readJson(ImportBatch batch, InputStream in, ZipFile zip) throws IOException {
+        long line = 0;
+        try (MappingIterator<BookDto.ImportRow> rows = objectMapper.readerFor(BookDto.ImportRow.class).readValues(in)) {
+            while (true) {
+                BookDto.ImportRow row;
+                try {
+                    line++;
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // Élément mal typé : l'itérateur reprend à l'élément suivant
+                    batch.job.processedRows.incrementAndGet();
+                    batch.job.reject(line, "Élément invalide: " + e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    batch.job.processedRows.incrementAndGet();
+                    batch.job.reject(line, "JSON mal formé: " + e.getOriginalMessage());
+                    batch.job.message = "Lecture arrêtée à l'élément " + line + " (JSON mal formé)";
+                    break;
+                }
+                addRow(batch, line, row, zip);
+            }
+        }
+    }
+    
+    // ===== Validation et écriture par lots =====
+    
+    private void addRow(ImportBatch batch, long line, BookDto.ImportRow row, ZipFile zip) throws IOException {
+        ImportJob job = batch.job;
+        job.processedRows.incrementAndGet();
+        
+        String error = validate(row);
+        Long categoryId = error == null ? batch.resolveCategory(row) : null;
+        if (error == null && categoryId == null) {
+            error = "Catégorie inconnue: " + (row.getCategoryId() != null ? row.getCategoryId() : row.getCategoryName());
+        }
+        if (error != null) {
+            job.reject(line, error);
+            return;
+        }
+        
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("title", row.getTitle().trim());
+        properties.put("author", row.getAuthor().trim());
+        putIfPresent(properties, "isbn", row.getIsbn());
+        putIfPresent(properties, "description", row.getDescription());
+        putIfPresent(properties, "publicationYear", row.getPublicationYear());
+        putIfPresent(properties, "pageCount", row.getPageCount());
+        putIfPresent(properties, "language", row.getLanguage());
+        
+        if (row.getPdfFile() != null) {
+            ZipEntry pdf = zip != null ? zip.getEntry(row.getPdfFile()) : null;
+            if (pdf == null) {
+                job.reject(line, "PDF introuvable dans l'archive: " + row.getPdfFile());
+                return;
+            }
+            try (InputStream content = zip.getInputStream(pdf)) {
+                String stored = fileStorageService.storeFile(content, pdf.getName(), PDF_DIRECTORY);
+                properties.put("pdfFile", stored);
+                properties.put("fileSize", pdf.getSize());
+            } catch (RuntimeException e) {
+                job.reject(line, "PDF non enregistré: " + row.getPdfFile());
+                return;
+            }
+        }
+        
+        Set<String> tagNames = new LinkedHashSet<>();
+        if (row.getTagNames() != null) {
+            for (String tagName : row.getTagNames()) {
+                if (tagName != null && !tagName.isBlank()) {
+                    tagNames.add(tagName.trim());
+                }
+            }
+        }
+        
+        batch.rows.add(new PendingRow(line, (String) properties.get("isbn"), properties, categoryId, tagNames));
+        if (batch.size() >= batchSize) {
+            flush(batch);
+        }
+    }
+    
+    private String validate(BookDto.ImportRow row) {
+        if (row.getTitle() == null || row.getTitle().isBlank()) {
+            return "Titre manquant";
+        }
+        if (row.getAuthor() == null || row.getAuthor().isBlank()) {
+            return "Auteur manquant";
+        }
+        if (row.getCategoryId() == null && (row.getCategoryName() == null || row.getCategoryName().isBlank())) {
+            return "Catégorie manquante";
+        }
+        if (row.getTitle().trim().length() > 200) {
+            return "Titre trop long (200 caractères maximum)";
+        }
+        if (row.getAuthor().trim().length() > 100) {
+            return "Auteur trop long (100 caractères maximum)";
+        }
+        return null;
+    }
+    
+    private static void putIfPresent(Map<String, Object> properties, String key, Object value) {
+        if (value instanceof String && ((String) value).isBlank()) {
+            return;
+        }
+        if (value != null) {
+            properties.put(key, value instanceof String ? ((String) value).trim() : value);
+        }
+    }
+    
+    /**
+     * Écrit le lot courant : tags inconnus créés en une requête, puis livres identifiés
+     * par ISBN et livres identifiés par titre et auteur
+     */
+    private void flush(ImportBatch batch) {
+        if (batch.size() == 0) {
+            return;
+        }
+        
+        try {
+            Set<String> unknownTags = new HashSet<>();
+            for (PendingRow row : batch.rows) {
+                for (String tagName : row.tagNames) {
+                    if (!batch.tagIds.containsKey(tagName)) {
+                        unknownTags.add(tagName);
+                    }
+                }
+            }
+            if (!unknownTags.isEmpty()) {
+                neo4jClient.query(MERGE_TAGS)
+                    .bind(new ArrayList<>(unknownTags)).to("names")
+                    .fetch().all()
+                    .forEach(tag -> batch.tagIds.put((String) tag.get("name"), ((Number) tag.get("id")).longValue()));
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la résolution des tags de l'import {}", batch.job.getId(), e);
+            batch.rejectAll("Échec de la création des tags: " + e.getMessage());
+            return;
+        }
+        
+        List<PendingRow> byIsbn = new ArrayList<>();
+        List<PendingRow> byTitle = new ArrayList<>();
+        for (PendingRow row : batch.rows) {
+            if (row.isbn != null) {
+                byIsbn.add(row);
+            } else {
+                byTitle.add(row);
+            }
+        }
+        write(batch, IMPORT_BY_ISBN, byIsbn);
+        write(batch, IMPORT_BY_TITLE, byTitle);
+        batch.rows.clear();
+    }
+    
+    private void write(ImportBatch batch, String query, List<PendingRow> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(pending.size());
+        for (PendingRow row : pending) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("isbn", row.isbn);
+            parameters.put("properties", row.properties);
+            parameters.put("categoryId", row.categoryId);
+            parameters.put("tagIds", row.tagNames.stream().map(batch.tagIds::get).collect(Collectors.toList()));
+            rows.add(parameters);
+        }
+        
+        try {
+            neo4jClient.query(query).bind(rows).to("rows").run();
+            batch.job.importedRows.addAndGet(pending.size());
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'écriture d'un lot de l'import {}", batch.job.getId(), e);
+            batch.reject(pending, "Échec de l'écriture du lot: " + e.getMessage());
+        }
+    }
+    
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+    
+    /**
+     * Lignes validées en attente d'écriture, avec les dictionnaires de l'import
+     */
+    private class ImportBatch {
+        private final ImportJob job;
+        private final List<PendingRow> rows = new ArrayList<>();
+        
+        // Dictionnaires de l'import : chargés une fois, enrichis au fil des lots
+        private final Map<Long, Long> categoryIds = new HashMap<>();
+        private final Map<String, Long> categoriesByName = new HashMap<>();
+        private final Map<String, Long> tagIds = new HashMap<>();
+        
+        ImportBatch(ImportJob job) {
+            this.job = job;
+            for (Category category : categoryRepository.findAll()) {
+                categoryIds.put(category.getId(), category.getId());
+                if (category.getName() != null) {
+                    categoriesByName.put(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+                }
+            }
+        }
+        
+        Long resolveCategory(BookDto.ImportRow row) {
+            if (row.getCategoryId() != null) {
+                return categoryIds.get(row.getCategoryId());
+            }
+            if (row.getCategoryName() != null) {
+                return categoriesByName.get(row.getCategoryName().trim().toLowerCase(Locale.ROOT));
+            }
+            return null;
+        }
+        
+        int size() {
+            return rows.size();
+        }
+        
+        void rejectAll(String message) {
+            reject(rows, message);
+            rows.clear();
+        }
+        
+        // Lignes non écrites : rejetées, et leurs PDF déjà copiés supprimés
+        void reject(List<PendingRow> pending, String message) {
+            for (PendingRow row : pending) {
+                job.reject(row.line, message);
+                Object pdfFile = row.properties.get("pdfFile");
+                if (pdfFile != null) {
+                    fileStorageService.deleteFile((String) pdfFile);
+                }
+            }
+        }
+    }
+    
+    private static class PendingRow {
+        private final long line;
+        private final String isbn;
+        private final Map<String, Object> properties;
+        private final Long categoryId;
+        private final Set<String> tagNames;
+        
+        PendingRow(long line, String isbn, Map<String, Object> properties, Long categoryId, Set<String> tagNames) {
+            this.line = line;
+            this.isbn = isbn;
+            this.properties = properties;
+            this.categoryId = categoryId;
+            this.tagNames = tagNames;
+        }
+    }
+    
+    /**
+     * Progression d'un import
+     */
+    public static class ImportJob {
+        private final String id;
+        private final String fileName;
+        private final Path upload;
+        private final ZonedDateTime startedAt = ZonedDateTime.now();
+        private volatile ZonedDateTime finishedAt;
+        private volatile String status = STATUS_PENDING;
+        private volatile String message;
+        private final AtomicLong processedRows = new AtomicLong();
+        private final AtomicLong importedRows = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        
+        ImportJob(String id, String fileName, Path upload) {
+            this.id = id;
+            this.fileName = fileName;
+            this.upload = upload;
+        }
+        
+        void reject(long line, String message) {
+            failedRows.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+        
+        boolean isFinished() {
+            return STATUS_COMPLETED.equals(status) || STATUS_FAILED.equals(status);
+        }
+        
+        public String getId() { return id; }
+        public String getFileName() { return fileName; }
+        public ZonedDateTime getStartedAt() { return startedAt; }
+        public ZonedDateTime getFinishedAt() { return finishedAt; }
+        public String getStatus() { return status; }
+        public String getMessage() { return message; }
+        public long getProcessedRows() { return processedRows.get(); }
+        public long getImportedRows() { return importedRows.get(); }
+        public long getFailedRows() { return failedRows.get(); }
+        
+        public List<RowError> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+    }
+    
+    /**
+     * Ligne rejetée : numéro de ligne (CSV) ou rang de l'élément (JSON), et motif
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+        
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
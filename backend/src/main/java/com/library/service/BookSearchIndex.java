@@ -0,0 +1,615 @@
+package com.library.service;
+
+import com.library.dto.BookDto;
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import com.library.util.TextAnalyzer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Moteur de recherche en mémoire sur le catalogue : index inversé (terme → livres,
+ * fréquences et positions) construit au démarrage puis tenu à jour à chaque
+ * écriture sur un livre (catalogue, favoris, téléchargements). Classement BM25, requêtes par
+ * préfixe et phrases entre guillemets, sans aller-retour vers Neo4j.
+ */
+@Service
+public class BookSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+    
+    // Paramètres BM25 usuels
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    // Un terme du titre pèse plus qu'un terme de la description
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double AUTHOR_WEIGHT = 2.0;
+    private static final double TAG_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    
+    // Les termes complétés par préfixe comptent moitié moins qu'un terme exact
+    private static final double PREFIX_FACTOR = 0.5;
+    
+    // Écart de positions entre champs : une phrase ne chevauche pas deux champs
+    private static final int FIELD_GAP = 100;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Termes triés pour les requêtes par préfixe
+    private TreeMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+    private Map<Long, IndexedBook> documents = new HashMap<>();
+    private double totalLength;
+    private long postingCount;
+    
+    // Écritures reçues pendant le chargement d'une reconstruction (null : livre supprimé),
+    // rejouées sur le nouvel index ; null hors reconstruction
+    private Map<Long, Book> pendingChanges;
+    
+    private volatile boolean ready;
+    private volatile long lastBuildTimeMs;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.search.index.documents", this, BookSearchIndex::getDocumentCount)
+            .description("Livres présents dans l'index de recherche en mémoire")
+            .register(meterRegistry);
+        Gauge.builder("library.search.index.terms", this, BookSearchIndex::getTermCount)
+            .description("Termes distincts de l'index de recherche en mémoire")
+            .register(meterRegistry);
+        Gauge.builder("library.search.index.postings", this, BookSearchIndex::getPostingCount)
+            .description("Entrées (terme, livre) de l'index de recherche en mémoire")
+            .register(meterRegistry);
+        Gauge.builder("library.search.index.build.time", this, BookSearchIndex::getLastBuildTimeMs)
+            .description("Durée de la dernière construction complète de l'index (ms)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Mise à jour incrémentale après l'écriture d'un livre
+     */
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            if (event.isDeleted()) {
+                remove(event.getBookId());
+            } else if (event.isCountersOnly()) {
+                updateCounters(event.getBook());
+            } else {
+                index(event.getBook());
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour de l'index de recherche pour le livre {}", event.getBookId(), e);
+        }
+    }
+    
+    /**
+     * Reconstruction complète demandée (démarrage, modifications en masse), en tâche de fond
+     */
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la reconstruction de l'index de recherche ({})", event.getReason(), e);
+        }
+    }
+    
+    /**
+     * Reconstruit entièrement l'index à partir des livres Neo4j ; les écritures arrivées
+     * pendant le chargement sont rejouées après le remplacement
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            List<Book> books = bookRepository.findAllWithRelations();
+            
+            TreeMap<String, Map<Long, Posting>> newPostings = new TreeMap<>();
+            Map<Long, IndexedBook> newDocuments = new HashMap<>();
+            double newTotalLength = 0;
+            long newPostingCount = 0;
+            
+            for (Book book : books) {
+                IndexedBook doc = analyze(book);
+                newDocuments.put(doc.id, doc);
+                newTotalLength += doc.length;
+                for (Map.Entry<String, Posting> entry : doc.terms.entrySet()) {
+                    newPostings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc.id, entry.getValue());
+                    newPostingCount++;
+                }
+            }
+            
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                totalLength = newTotalLength;
+                postingCount = newPostingCount;
+                
+                replayed = pendingChanges.size();
+                pendingChanges.forEach((id, book) -> {
+                    if (book == null) {
+                        removeLocked(id);
+                    } else {
+                        indexLocked(analyze(book));
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            
+            lastBuildTimeMs = System.currentTimeMillis() - start;
+            ready = true;
+            logger.info("Index de recherche en mémoire construit: {} livres, {} termes en {} ms ({} écritures rejouées)",
+                newDocuments.size(), newPostings.size(), lastBuildTimeMs, replayed);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Ajoute ou remplace un livre dans l'index (catégorie et tags doivent être chargés)
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        IndexedBook doc = analyze(book);
+        
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(doc.id, book);
+            }
+            indexLocked(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Nouveaux compteurs (téléchargements, favoris) d'un livre : seul le DTO renvoyé est
+     * remplacé, les termes indexés restent les mêmes (livre inconnu : indexé entièrement)
+     */
+    public void updateCounters(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        BookDto dto = BookDto.summaryFromEntity(book);
+        
+        lock.writeLock().lock();
+        try {
+            IndexedBook previous = documents.get(book.getId());
+            if (previous != null) {
+                if (pendingChanges != null) {
+                    pendingChanges.put(book.getId(), book);
+                }
+                documents.put(previous.id, new IndexedBook(dto, previous.terms, previous.length));
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        index(book);
+    }
+    
+    /**
+     * Retire un livre de l'index
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(bookId, null);
+            }
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Recherche BM25 avec filtres, tri et pagination
+     *
+     * @param query saisie utilisateur : mots (complétés par préfixe), "phrases exactes", mot*
+     * @param tags noms de tags séparés par virgule (au moins un doit correspondre)
+     */
+    public SearchResult search(String query, Long categoryId, String tags, String sortBy,
+                               boolean ascending, int offset, int limit) {
+        ParsedQuery parsed = ParsedQuery.parse(query);
+        if (parsed.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+        Set<String> tagFilter = tags != null ? new HashSet<>(Arrays.asList(tags.split(","))) : null;
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = score(parsed);
+            
+            List<IndexedBook> matches = new ArrayList<>();
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                IndexedBook doc = documents.get(entry.getKey());
+                if (doc != null && doc.matches(categoryId, tagFilter)) {
+                    matches.add(doc);
+                }
+            }
+            
+            matches.sort(comparator(sortBy, ascending, scores));
+            
+            List<BookDto> page = matches.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(doc -> doc.dto)
+                .collect(Collectors.toList());
+            return new SearchResult(page, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public boolean isReady() { return ready; }
+    
+    public long getLastBuildTimeMs() { return lastBuildTimeMs; }
+    
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getPostingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ===== Indexation =====
+    
+    private IndexedBook analyze(Book book) {
+        BookDto dto = BookDto.summaryFromEntity(book);
+        Map<String, Posting> terms = new HashMap<>();
+        int[] position = {0};
+        double length = 0;
+        
+        length += addField(terms, book.getTitle(), TITLE_WEIGHT, position);
+        length += addField(terms, book.getAuthor(), AUTHOR_WEIGHT, position);
+        if (dto.getTagNames() != null) {
+            for (String tagName : dto.getTagNames()) {
+                length += addField(terms, tagName, TAG_WEIGHT, position);
+            }
+        }
+        length += addField(terms, book.getDescription(), DESCRIPTION_WEIGHT, position);
+        
+        terms.values().forEach(Posting::trim);
+        return new IndexedBook(dto, terms, length);
+    }
+    
+    private double addField(Map<String, Posting> terms, String text, double weight, int[] position) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            terms.computeIfAbsent(token, t -> new Posting()).add(weight, position[0]++);
+        }
+        position[0] += FIELD_GAP;
+        return tokens.size() * weight;
+    }
+    
+    private void indexLocked(IndexedBook doc) {
+        removeLocked(doc.id);
+        documents.put(doc.id, doc);
+        totalLength += doc.length;
+        for (Map.Entry<String, Posting> entry : doc.terms.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc.id, entry.getValue());
+            postingCount++;
+        }
+    }
+    
+    private void removeLocked(Long bookId) {
+        IndexedBook previous = documents.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String term : previous.terms.keySet()) {
+            Map<Long, Posting> list = postings.get(term);
+            if (list != null && list.remove(bookId) != null) {
+                postingCount--;
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+    
+    // ===== Recherche =====
+    
+    private Map<Long, Double> score(ParsedQuery parsed) {
+        double avgLength = documents.isEmpty() ? 1.0 : Math.max(totalLength / documents.size(), 1.0);
+        
+        // Phrases : obligatoires, chaque mot consécutif dans un même champ
+        Map<Long, Double> scores = null;
+        for (List<String> phrase : parsed.phrases) {
+            Map<Long, Double> phraseScores = scorePhrase(phrase, avgLength);
+            if (scores == null) {
+                scores = new HashMap<>(phraseScores);
+            } else {
+                Map<Long, Double> current = scores;
+                current.keySet().retainAll(phraseScores.keySet());
+                phraseScores.forEach((bookId, value) -> current.computeIfPresent(bookId, (id, s) -> s + value));
+            }
+        }
+        boolean restricted = scores != null;
+        Map<Long, Double> result = restricted ? scores : new HashMap<>();
+        
+        // Mots libres : terme exact ou complété par préfixe, le meilleur des deux par livre
+        for (String term : parsed.terms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Posting>> entry : prefixRange(term).entrySet()) {
+                double factor = entry.getKey().equals(term) ? 1.0 : PREFIX_FACTOR;
+                Map<Long, Posting> list = entry.getValue();
+                double idf = idf(list.size());
+                for (Map.Entry<Long, Posting> posting : list.entrySet()) {
+                    double value = factor * bm25(idf, posting.getValue().frequency, posting.getKey(), avgLength);
+                    termScores.merge(posting.getKey(), value, Math::max);
+                }
+            }
+            termScores.forEach((bookId, value) -> {
+                if (restricted) {
+                    result.computeIfPresent(bookId, (id, s) -> s + value);
+                } else {
+                    result.merge(bookId, value, Double::sum);
+                }
+            });
+        }
+        return result;
+    }
+    
+    private Map<Long, Double> scorePhrase(List<String> phrase, double avgLength) {
+        List<Map<Long, Posting>> lists = new ArrayList<>();
+        for (String term : phrase) {
+            Map<Long, Posting> list = postings.get(term);
+            if (list == null) {
+                return Collections.emptyMap();
+            }
+            lists.add(list);
+        }
+        
+        Map<Long, Double> phraseScores = new HashMap<>();
+        for (Long bookId : lists.get(0).keySet()) {
+            if (!containsPhrase(lists, bookId)) {
+                continue;
+            }
+            double value = 0;
+            for (Map<Long, Posting> list : lists) {
+                value += bm25(idf(list.size()), list.get(bookId).frequency, bookId, avgLength);
+            }
+            phraseScores.put(bookId, value);
+        }
+        return phraseScores;
+    }
+    
+    private boolean containsPhrase(List<Map<Long, Posting>> lists, Long bookId) {
+        Posting first = lists.get(0).get(bookId);
+        for (int i = 0; i < first.size; i++) {
+            int start = first.positions[i];
+            boolean matched = true;
+            for (int offset = 1; offset < lists.size() && matched; offset++) {
+                Posting next = lists.get(offset).get(bookId);
+                matched = next != null && Arrays.binarySearch(next.positions, 0, next.size, start + offset) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private SortedMap<String, Map<Long, Posting>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+    
+    private double idf(int documentFrequency) {
+        int n = documents.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+    
+    private double bm25(double idf, double frequency, Long bookId, double avgLength) {
+        IndexedBook doc = documents.get(bookId);
+        double length = doc != null ? doc.length : avgLength;
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / avgLength));
+    }
+    
+    // Même ordre que la requête Neo4j : nulls en fin de tri ascendant, départage par id
+    private Comparator<IndexedBook> comparator(String sortBy, boolean ascending, Map<Long, Double> scores) {
+        Comparator<IndexedBook> byKey;
+        switch (sortBy != null ? sortBy : "relevance") {
+            case "relevance":
+                byKey = Comparator.comparing(doc -> scores.get(doc.id));
+                break;
+            case "title":
+                byKey = Comparator.comparing(doc -> doc.titleKey, Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+            case "author":
+                byKey = Comparator.comparing(doc -> doc.authorKey, Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+            case "downloadCount":
+                byKey = Comparator.comparing(doc -> doc.dto.getDownloadCount(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+            case "favoriteCount":
+                byKey = Comparator.comparing(doc -> doc.dto.getFavoriteCount(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+            case "publicationYear":
+                byKey = Comparator.comparing(doc -> doc.dto.getPublicationYear(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+            default:
+                byKey = Comparator.comparing(doc -> doc.dto.getCreatedAt(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+                break;
+        }
+        return (ascending ? byKey : byKey.reversed()).thenComparing(doc -> doc.id);
+    }
+    
+    // ===== Structures internes =====
+    
+    /**
+     * Occurrences d'un terme dans un livre : fréquence pondérée et positions triées
+     */
+    private static class Posting {
+        private double frequency;
+        private int[] positions = new int[2];
+        private int size;
+        
+        void add(double weight, int position) {
+            frequency += weight;
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+        
+        void trim() {
+            positions = Arrays.copyOf(positions, size);
+        }
+    }
+    
+    /**
+     * Livre indexé : instantané du DTO renvoyé et termes utilisés pour la suppression
+     */
+    private static class IndexedBook {
+        private final Long id;
+        private final BookDto dto;
+        private final Map<String, Posting> terms;
+        private final double length;
+        private final String titleKey;
+        private final String authorKey;
+        
+        IndexedBook(BookDto dto, Map<String, Posting> terms, double length) {
+            this.id = dto.getId();
+            this.dto = dto;
+            this.terms = terms;
+            this.length = length;
+            this.titleKey = dto.getTitle() != null ? dto.getTitle().toLowerCase(Locale.ROOT) : null;
+            this.authorKey = dto.getAuthor() != null ? dto.getAuthor().toLowerCase(Locale.ROOT) : null;
+        }
+        
+        boolean matches(Long categoryId, Set<String> tagFilter) {
+            if (!Boolean.TRUE.equals(dto.getAvailable())) {
+                return false;
+            }
+            if (categoryId != null && !categoryId.equals(dto.getCategoryId())) {
+                return false;
+            }
+            return tagFilter == null
+                || (dto.getTagNames() != null && dto.getTagNames().stream().anyMatch(tagFilter::contains));
+        }
+    }
+    
+    /**
+     * Requête analysée : mots libres (avec "mot*" explicite toléré) et phrases entre guillemets
+     */
+    private static class ParsedQuery {
+        private final List<String> terms = new ArrayList<>();
+        private final List<List<String>> phrases = new ArrayList<>();
+        
+        static ParsedQuery parse(String input) {
+            ParsedQuery parsed = new ParsedQuery();
+            if (input == null) {
+                return parsed;
+            }
+            String[] parts = input.split("\"", -1);
+            for (int i = 0; i < parts.length; i++) {
+                List<String> tokens = TextAnalyzer.tokenize(parts[i]);
+                // Les segments d'indice impair sont entre guillemets (guillemet fermant optionnel)
+                if (i % 2 == 1 && tokens.size() > 1) {
+                    parsed.phrases.add(tokens);
+                } else {
+                    parsed.terms.addAll(tokens);
+                }
+            }
+            return parsed;
+        }
+        
+        boolean isEmpty() {
+            return terms.isEmpty() && phrases.isEmpty();
+        }
+    }
+    
+    /**
+     * Page de résultats et nombre total de livres correspondants
+     */
+    public static class SearchResult {
+        private final List<BookDto> books;
+        private final long total;
+        
+        public SearchResult(List<BookDto> books, long total) {
+            this.books = books;
+            this.total = total;
+        }
+        
+        public List<BookDto> getBooks() { return books; }
+        public long getTotal() { return total; }
+    }
+}
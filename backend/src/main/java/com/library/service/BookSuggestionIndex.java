@@ -0,0 +1,499 @@
+package com.library.service;
+
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Book;
+import com.library.model.Tag;
+import com.library.repository.BookRepository;
+import com.library.util.TextAnalyzer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Autocomplétion du champ de recherche : arbre de préfixes (trie) en mémoire sur les
+ * titres, auteurs, tags et catégories des livres disponibles. Chaque nœud conserve
+ * ses meilleures suggestions (téléchargements et favoris), si bien qu'une requête
+ * se résume à descendre le préfixe puis lire une liste déjà triée. Un changement de
+ * compteurs ne fait que repondérer les suggestions du livre, et ne retrie que les nœuds
+ * où elles figurent parmi les meilleures ou peuvent y entrer.
+ */
+@Service
+public class BookSuggestionIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookSuggestionIndex.class);
+    
+    public static final String TYPE_TITLE = "title";
+    public static final String TYPE_AUTHOR = "author";
+    public static final String TYPE_TAG = "tag";
+    public static final String TYPE_CATEGORY = "category";
+    
+    // Suggestions conservées par nœud, et donc nombre maximal renvoyé
+    public static final int MAX_SUGGESTIONS = 10;
+    
+    private static final Comparator<Entry> BY_RANK = Comparator
+        .comparingLong((Entry entry) -> entry.weight).reversed()
+        .thenComparingInt(entry -> entry.text.length())
+        .thenComparing(entry -> entry.text);
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private TrieNode root = new TrieNode();
+    private Map<String, Entry> entries = new HashMap<>();
+    private Map<Long, Contribution> contributions = new HashMap<>();
+    
+    // Écritures reçues pendant le chargement d'une reconstruction (null : livre supprimé),
+    // rejouées sur le nouvel arbre ; null hors reconstruction
+    private Map<Long, Book> pendingChanges;
+    
+    private volatile long lastBuildTimeMs;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.suggestions.entries", this, BookSuggestionIndex::getEntryCount)
+            .description("Suggestions distinctes de l'autocomplétion en mémoire")
+            .register(meterRegistry);
+        Gauge.builder("library.suggestions.books", this, BookSuggestionIndex::getBookCount)
+            .description("Livres disponibles contribuant à l'autocomplétion")
+            .register(meterRegistry);
+        Gauge.builder("library.suggestions.build.time", this, BookSuggestionIndex::getLastBuildTimeMs)
+            .description("Durée de la dernière construction complète de l'autocomplétion (ms)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Mise à jour incrémentale après l'écriture d'un livre
+     */
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            lock.writeLock().lock();
+            try {
+                if (pendingChanges != null) {
+                    pendingChanges.put(event.getBookId(), event.getBook());
+                }
+                Contribution previous = contributions.get(event.getBookId());
+                if (event.isCountersOnly() && previous != null && Contribution.of(event.getBook()) != null) {
+                    reweigh(previous, Contribution.weight(event.getBook()));
+                } else {
+                    replace(event.getBookId(), event.getBook());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour de l'autocomplétion pour le livre {}", event.getBookId(), e);
+        }
+    }
+    
+    /**
+     * Reconstruction complète demandée (démarrage, renommage de tags ou catégories...),
+     * en tâche de fond
+     */
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la reconstruction de l'autocomplétion ({})", event.getReason(), e);
+        }
+    }
+    
+    /**
+     * Reconstruit l'arbre à partir des livres Neo4j ; les écritures arrivées pendant le
+     * chargement sont rejouées sur le nouvel arbre
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            List<Book> books = bookRepository.findAllWithRelations();
+            
+            lock.writeLock().lock();
+            try {
+                root = new TrieNode();
+                entries = new HashMap<>();
+                contributions = new HashMap<>();
+                for (Book book : books) {
+                    contribute(Contribution.of(book));
+                }
+                pendingChanges.forEach(this::replace);
+                lastBuildTimeMs = System.currentTimeMillis() - start;
+                logger.info("Autocomplétion construite: {} suggestions en {} ms ({} écritures rejouées)",
+                    entries.size(), lastBuildTimeMs, pendingChanges.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Meilleures complétions du préfixe saisi (insensible à la casse et aux accents)
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        lock.readLock().lock();
+        try {
+            TrieNode node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            return node.top.stream()
+                .limit(Math.min(limit, MAX_SUGGESTIONS))
+                .map(Suggestion::new)
+                .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getLastBuildTimeMs() { return lastBuildTimeMs; }
+    
+    public int getEntryCount() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getBookCount() {
+        lock.readLock().lock();
+        try {
+            return contributions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ===== Mise à jour des suggestions =====
+    
+    // Remplace la contribution du livre (book null : livre supprimé)
+    private void replace(Long bookId, Book book) {
+        withdraw(contributions.remove(bookId));
+        if (book != null) {
+            contribute(Contribution.of(book));
+        }
+    }
+    
+    private void contribute(Contribution contribution) {
+        if (contribution == null) {
+            return;
+        }
+        contributions.put(contribution.bookId, contribution);
+        contribution.forEachEntry((id, type, text, bookId) -> adjust(id, type, text, bookId, contribution.weight, 1));
+    }
+    
+    private void withdraw(Contribution contribution) {
+        if (contribution == null) {
+            return;
+        }
+        contribution.forEachEntry((id, type, text, bookId) -> adjust(id, type, text, bookId, -contribution.weight, -1));
+    }
+    
+    // Nouveau poids du livre : suggestions repondérées sans retrait ni réinsertion
+    private void reweigh(Contribution contribution, long weight) {
+        long delta = weight - contribution.weight;
+        if (delta == 0) {
+            return;
+        }
+        contributions.put(contribution.bookId, contribution.withWeight(weight));
+        contribution.forEachEntry((id, type, text, bookId) -> {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return;
+            }
+            entry.weight += delta;
+            for (String key : entry.keys) {
+                rerank(path(key, false), entry);
+            }
+        });
+    }
+    
+    // Retri de bas en haut des nœuds où la suggestion repondérée figure parmi les
+    // meilleures ou peut y entrer ; au-dessus d'un nœud inchangé, rien ne bouge
+    private void rerank(List<TrieNode> path, Entry entry) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            TrieNode node = path.get(depth);
+            boolean ranked = node.top.contains(entry);
+            boolean enters = node.top.size() < MAX_SUGGESTIONS
+                || BY_RANK.compare(entry, node.top.get(node.top.size() - 1)) < 0;
+            if (!ranked && !enters) {
+                return;
+            }
+            List<Entry> previous = node.top;
+            rank(node);
+            if (!ranked && previous.equals(node.top)) {
+                return;
+            }
+        }
+    }
+    
+    private void adjust(String id, String type, String text, Long bookId, long weight, int books) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            if (books < 0) {
+                return;
+            }
+            entry = new Entry(type, text, bookId);
+            entries.put(id, entry);
+            entry.weight += weight;
+            entry.books += books;
+            for (String key : entry.keys) {
+                insert(key, entry);
+            }
+            return;
+        }
+        
+        entry.weight += weight;
+        entry.books += books;
+        if (entry.books <= 0) {
+            entries.remove(id);
+            for (String key : entry.keys) {
+                delete(key, entry);
+            }
+        } else {
+            for (String key : entry.keys) {
+                refresh(key);
+            }
+        }
+    }
+    
+    private void insert(String key, Entry entry) {
+        List<TrieNode> path = path(key, true);
+        path.get(path.size() - 1).entries.add(entry);
+        recompute(path, key);
+    }
+    
+    private void delete(String key, Entry entry) {
+        List<TrieNode> path = path(key, false);
+        if (path.size() == key.length() + 1) {
+            path.get(path.size() - 1).entries.remove(entry);
+        }
+        recompute(path, key);
+    }
+    
+    private void refresh(String key) {
+        recompute(path(key, false), key);
+    }
+    
+    private List<TrieNode> path(String key, boolean create) {
+        List<TrieNode> path = new ArrayList<>(key.length() + 1);
+        TrieNode node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            TrieNode child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    break;
+                }
+                child = new TrieNode();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+    
+    // Recalcul des meilleures suggestions de bas en haut, en élaguant les nœuds vides
+    private void recompute(List<TrieNode> path, String key) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            TrieNode node = path.get(depth);
+            rank(node);
+            
+            if (depth > 0 && node.entries.isEmpty() && node.children.isEmpty()) {
+                path.get(depth - 1).children.remove(key.charAt(depth - 1));
+            }
+        }
+    }
+    
+    private static void rank(TrieNode node) {
+        Set<Entry> candidates = new LinkedHashSet<>(node.entries);
+        for (TrieNode child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        node.top = candidates.stream()
+            .sorted(BY_RANK)
+            .limit(MAX_SUGGESTIONS)
+            .collect(Collectors.toList());
+    }
+    
+    private static String normalizeKey(String text) {
+        return String.join(" ", TextAnalyzer.tokenize(text));
+    }
+    
+    // ===== Structures internes =====
+    
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>(4);
+        private final Set<Entry> entries = new HashSet<>(2);
+        private List<Entry> top = Collections.emptyList();
+    }
+    
+    /**
+     * Suggestion indexée, accessible par le début de chacun de ses mots
+     */
+    private static class Entry {
+        private final String type;
+        private final String text;
+        private final Long bookId;
+        private final List<String> keys = new ArrayList<>();
+        private long weight;
+        private int books;
+        
+        Entry(String type, String text, Long bookId) {
+            this.type = type;
+            this.text = text;
+            this.bookId = bookId;
+            List<String> tokens = TextAnalyzer.tokenize(text);
+            for (int i = 0; i < tokens.size(); i++) {
+                keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(String id, String type, String text, Long bookId);
+    }
+    
+    /**
+     * Apport d'un livre disponible aux suggestions : son titre, son auteur, ses tags
+     * et sa catégorie, pondérés par sa popularité
+     */
+    private static class Contribution {
+        private final Long bookId;
+        private final long weight;
+        private final String title;
+        private final String author;
+        private final String category;
+        private final Set<String> tags;
+        
+        private Contribution(Book book) {
+            this.bookId = book.getId();
+            this.weight = weight(book);
+            this.title = book.getTitle();
+            this.author = book.getAuthor();
+            this.category = book.getCategory() != null ? book.getCategory().getName() : null;
+            this.tags = book.getTags() != null
+                ? book.getTags().stream().map(Tag::getName).collect(Collectors.toSet())
+                : Collections.emptySet();
+        }
+        
+        private Contribution(Contribution other, long weight) {
+            this.bookId = other.bookId;
+            this.weight = weight;
+            this.title = other.title;
+            this.author = other.author;
+            this.category = other.category;
+            this.tags = other.tags;
+        }
+        
+        static long weight(Book book) {
+            return 1 + value(book.getDownloadCount()) + value(book.getFavoriteCount());
+        }
+        
+        Contribution withWeight(long weight) {
+            return new Contribution(this, weight);
+        }
+        
+        static Contribution of(Book book) {
+            if (book == null || book.getId() == null || !Boolean.TRUE.equals(book.getAvailable())) {
+                return null;
+            }
+            return new Contribution(book);
+        }
+        
+        void forEachEntry(EntryConsumer consumer) {
+            if (title != null) {
+                consumer.accept(TYPE_TITLE + ":" + bookId, TYPE_TITLE, title, bookId);
+            }
+            accept(consumer, TYPE_AUTHOR, author);
+            accept(consumer, TYPE_CATEGORY, category);
+            for (String tag : tags) {
+                accept(consumer, TYPE_TAG, tag);
+            }
+        }
+        
+        private static void accept(EntryConsumer consumer, String type, String text) {
+            if (text != null && !normalizeKey(text).isEmpty()) {
+                consumer.accept(type + ":" + normalizeKey(text), type, text, null);
+            }
+        }
+        
+        private static long value(Long count) {
+            return count != null ? count : 0;
+        }
+    }
+    
+    /**
+     * Suggestion renvoyée au client
+     */
+    public static class Suggestion {
+        private final String text;
+        private final String type;
+        private final Long bookId;
+        private final long score;
+        
+        Suggestion(Entry entry) {
+            this.text = entry.text;
+            this.type = entry.type;
+            this.bookId = entry.bookId;
+            this.score = entry.weight;
+        }
+        
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public Long getBookId() { return bookId; }
+        public long getScore() { return score; }
+    }
+}
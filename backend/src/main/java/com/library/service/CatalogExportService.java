@@ -0,0 +1,96 @@
+package com.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Export du catalogue en NDJSON (un livre JSON par ligne), lu en flux depuis Neo4j.
+ * Le driver ne récupère qu'un lot de EXPORT_FETCH_SIZE enregistrements à la fois et
+ * n'en demande d'autres qu'une fois le lot écrit : un client lent ralentit la lecture
+ * au lieu de faire grossir la mémoire, quelle que soit la taille du catalogue.
+ */
+@Service
+public class CatalogExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+    
+    // Enregistrements demandés au serveur par lot
+    private static final long EXPORT_FETCH_SIZE = 1000;
+    
+    // Livres écrits entre deux envois au client
+    private static final int FLUSH_INTERVAL = 500;
+    
+    // Pas de ORDER BY : le tri obligerait Neo4j à matérialiser tout le résultat
+    private static final String EXPORT_QUERY =
+        "MATCH (b:Book) " +
+        "RETURN id(b) AS id, properties(b) AS book, " +
+        "CASE WHEN $includeRelations " +
+        "  THEN [(b)-[:BELONGS_TO]->(c:Category) | {id: id(c), name: c.name}][0] END AS category, " +
+        "CASE WHEN $includeRelations " +
+        "  THEN [(b)-[:HAS_TAG]->(t:Tag) | t.name] END AS tagNames";
+    
+    @Autowired
+    private Driver driver;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Écrit tous les livres sur le flux, une ligne JSON par livre
+     *
+     * @param includeRelations ajouter la catégorie et les noms de tags de chaque livre
+     * @return nombre de livres exportés
+     */
+    public long exportBooks(OutputStream out, boolean includeRelations) throws IOException {
+        long start = System.currentTimeMillis();
+        SessionConfig config = SessionConfig.builder()
+            .withDefaultAccessMode(AccessMode.READ)
+            .withFetchSize(EXPORT_FETCH_SIZE)
+            .build();
+        
+        long exported = 0;
+        // Transaction implicite plutôt que executeRead : une nouvelle tentative après
+        // une erreur transitoire réécrirait des lignes déjà envoyées
+        try (Session session = driver.session(config)) {
+            Result result = session.run(EXPORT_QUERY, Map.of("includeRelations", includeRelations));
+            while (result.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(toRow(result.next(), includeRelations)));
+                out.write('\n');
+                if (++exported % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        
+        logger.info("Export NDJSON du catalogue: {} livres en {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+    
+    private Map<String, Object> toRow(Record record, boolean includeRelations) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", record.get("id").asLong());
+        row.putAll(record.get("book").asMap());
+        if (includeRelations) {
+            Value category = record.get("category");
+            row.put("category", category.isNull() ? null : category.asMap());
+            row.put("tagNames", record.get("tagNames").asList(Value::asString));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,804 @@
+package com.library.service;
+
+import com.library.dto.BookDto;
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import com.library.util.Bitmaps;
+import com.library.util.FilterExpression;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modèle de lecture du catalogue pour la navigation : instantané en colonnes (tableaux
+ * primitifs) des livres, avec une permutation pré-calculée par critère et sens de tri
+ * et un index bitmap par valeur de filtre (catégorie, tag, langue, année, disponibilité).
+ * Filtrer revient à combiner des bitmaps mot à mot, trier et paginer à parcourir une
+ * permutation, sans requête Neo4j ni verrou côté lecture : l'instantané est immuable et
+ * remplacé à chaque écriture (corrigé sur place pour un livre modifié ; reconstruit en
+ * arrière-plan, une fois pour les créations et suppressions rapprochées, qui y paraissent
+ * quelques millisecondes plus tard). Les compteurs (téléchargements, favoris) sont reportés
+ * par lot quelques secondes plus tard.
+ */
+@Service
+public class CatalogReadModel {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReadModel.class);
+    
+    // Critères de tri, dans l'ordre des permutations de l'instantané
+    private static final String[] SORT_KEYS = {
+        "createdAt", "title", "author", "downloadCount", "favoriteCount", "publicationYear"
+    };
+    private static final int CREATED_AT = 0;
+    private static final int TITLE = 1;
+    private static final int AUTHOR = 2;
+    private static final int DOWNLOAD_COUNT = 3;
+    private static final int FAVORITE_COUNT = 4;
+    private static final int PUBLICATION_YEAR = 5;
+    
+    // Valeurs absentes : triées en fin d'ordre ascendant, en tête d'ordre descendant (comme Neo4j)
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    // Livres par identifiant : source des reconstructions (écritures synchronisées)
+    private final Map<Long, BookDto> rows = new HashMap<>();
+    
+    // Livres dont seuls les compteurs ont changé, reportés dans l'instantané par lot
+    private final Map<Long, BookDto> counterChanges = new HashMap<>();
+    
+    // Écritures reçues pendant le chargement d'une reconstruction (null : livre supprimé),
+    // rejouées avant la publication du nouvel instantané ; null hors reconstruction
+    private Map<Long, BookDto> pendingChanges;
+    
+    // Écritures sur rows (accès synchronisés sur rows) : une reconstruction en arrière-plan
+    // dépassée par une écriture est relancée
+    private long rowsVersion;
+    
+    // Reconstruction de l'instantané hors du fil de l'écriture, une seule à la fois
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList());
+    private volatile boolean ready;
+    private volatile long lastBuildTimeMs;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.catalog.snapshot.books", this, CatalogReadModel::getBookCount)
+            .description("Livres présents dans l'instantané du catalogue")
+            .register(meterRegistry);
+        Gauge.builder("library.catalog.snapshot.build.time", this, CatalogReadModel::getLastBuildTimeMs)
+            .description("Durée de la dernière construction complète de l'instantané (ms)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        snapshotExecutor.shutdownNow();
+    }
+    
+    /**
+     * Mise à jour après l'écriture d'un livre : correction sur place si le livre était
+     * déjà présent, reconstruction en arrière-plan sinon ; les compteurs seuls sont reportés par lot
+     */
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            Book book = event.getBook();
+            if (event.isDeleted() || book == null) {
+                remove(event.getBookId());
+            } else if (event.isCountersOnly()) {
+                updateCounters(BookDto.summaryFromEntity(book));
+            } else {
+                update(BookDto.summaryFromEntity(book));
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour du catalogue en mémoire pour le livre {}", event.getBookId(), e);
+        }
+    }
+    
+    /**
+     * Reconstruction complète demandée (démarrage, modifications en masse), en tâche de fond
+     */
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la reconstruction du catalogue en mémoire ({})", event.getReason(), e);
+        }
+    }
+    
+    /**
+     * Recharge tous les livres depuis Neo4j ; les écritures arrivées pendant le chargement
+     * sont rejouées avant la publication de l'instantané
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (rows) {
+            pendingChanges = new LinkedHashMap<>();
+        }
+        
+        try {
+            List<Book> books = bookRepository.findAllWithRelations();
+            
+            synchronized (rows) {
+                rows.clear();
+                for (Book book : books) {
+                    if (book.getId() != null) {
+                        rows.put(book.getId(), BookDto.summaryFromEntity(book));
+                    }
+                }
+                pendingChanges.forEach((id, book) -> {
+                    if (book == null) {
+                        rows.remove(id);
+                    } else {
+                        rows.put(id, book);
+                    }
+                });
+                counterChanges.clear();
+                rowsVersion++;
+                snapshot = Snapshot.build(rows.values());
+            }
+        } finally {
+            synchronized (rows) {
+                pendingChanges = null;
+            }
+        }
+        
+        lastBuildTimeMs = System.currentTimeMillis() - start;
+        ready = true;
+        logger.info("Catalogue en mémoire construit: {} livres en {} ms", getBookCount(), lastBuildTimeMs);
+    }
+    
+    /**
+     * Ajoute ou remplace un livre
+     */
+    public void update(BookDto book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        synchronized (rows) {
+            if (pendingChanges != null) {
+                pendingChanges.put(book.getId(), book);
+            }
+            counterChanges.remove(book.getId());
+            rowsVersion++;
+            boolean known = rows.put(book.getId(), book) != null;
+            Snapshot patched = known ? snapshot.patched(book) : null;
+            if (patched != null) {
+                snapshot = patched;
+            } else {
+                scheduleSnapshot();
+            }
+        }
+    }
+    
+    /**
+     * Retire un livre supprimé
+     */
+    public void remove(Long bookId) {
+        synchronized (rows) {
+            if (pendingChanges != null) {
+                pendingChanges.put(bookId, null);
+            }
+            counterChanges.remove(bookId);
+            if (rows.remove(bookId) != null) {
+                rowsVersion++;
+                scheduleSnapshot();
+            }
+        }
+    }
+    
+    /**
+     * Nouveaux compteurs (téléchargements, favoris) d'un livre : enregistrés sans toucher à
+     * l'instantané, qui les reprend au prochain report (livre inconnu : ajouté aussitôt)
+     */
+    public void updateCounters(BookDto book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        synchronized (rows) {
+            if (!rows.containsKey(book.getId())) {
+                update(book);
+                return;
+            }
+            if (pendingChanges != null) {
+                pendingChanges.put(book.getId(), book);
+            }
+            rowsVersion++;
+            rows.put(book.getId(), book);
+            counterChanges.put(book.getId(), book);
+        }
+    }
+    
+    /**
+     * Report des compteurs modifiés depuis le précédent : une copie de l'instantané, seules
+     * les permutations des tris par compteur sont recalculées
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.in-memory.counters-refresh-ms:5000}")
+    public void flushCounters() {
+        synchronized (rows) {
+            if (counterChanges.isEmpty()) {
+                return;
+            }
+            snapshot = snapshot.withCounters(counterChanges.values());
+            counterChanges.clear();
+        }
+        // Pages servies changées (compteurs, ordre des tris par compteur) : nouvel ETag
+        catalogVersionService.countersChanged();
+    }
+    
+    /**
+     * Reconstruit l'instantané en arrière-plan à partir d'une copie des livres : l'écriture
+     * n'attend ni le tri ni l'indexation, et les écritures rapprochées n'en font qu'une. Une
+     * écriture arrivée pendant la construction en relance une autre après publication.
+     */
+    private void scheduleSnapshot() {
+        if (!snapshotScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotExecutor.execute(() -> {
+            try {
+                boolean again = true;
+                while (again) {
+                    snapshotScheduled.set(false);
+                    List<BookDto> copy;
+                    long version;
+                    synchronized (rows) {
+                        copy = new ArrayList<>(rows.values());
+                        version = rowsVersion;
+                    }
+                    Snapshot built = Snapshot.build(copy);
+                    synchronized (rows) {
+                        snapshot = built;
+                        again = version != rowsVersion && snapshotScheduled.compareAndSet(false, true);
+                    }
+                }
+            } catch (Exception e) {
+                snapshotScheduled.set(false);
+                logger.error("Erreur lors de la reconstruction de l'instantané du catalogue", e);
+            }
+        });
+    }
+    
+    /**
+     * Page de livres disponibles filtrés par catégorie et tags
+     *
+     * @param tags noms de tags séparés par virgule (au moins un doit correspondre)
+     * @see #page(FilterExpression, String, boolean, Long, int, int)
+     */
+    public PageResult page(Long categoryId, String tags, String sortBy, boolean ascending,
+                           Long afterId, int offset, int limit) {
+        return page(FilterExpression.of(categoryId, tags), sortBy, ascending, afterId, offset, limit);
+    }
+    
+    /**
+     * Page de livres correspondant à l'expression de filtre, dans le même ordre que la
+     * requête Neo4j ; limitée aux livres disponibles sauf si l'expression porte sur available
+     *
+     * @param filter expression de filtre, ou null pour tous les livres disponibles
+     * @param afterId dernier livre de la page précédente (curseur), ou null
+     * @param offset livres correspondants à sauter après le curseur
+     * @return la page, ou null si le livre du curseur n'est plus dans l'instantané
+     */
+    public PageResult page(FilterExpression filter, String sortBy, boolean ascending,
+                           Long afterId, int offset, int limit) {
+        Snapshot s = snapshot;
+        int key = sortKeyIndex(sortBy);
+        int[] order = ascending ? s.ascending[key] : s.descending[key];
+        int[] rank = ascending ? s.ascendingRank[key] : s.descendingRank[key];
+        
+        int start = 0;
+        if (afterId != null) {
+            int row = Arrays.binarySearch(s.ids, afterId);
+            if (row < 0) {
+                return null;
+            }
+            start = rank[row] + 1;
+        }
+        
+        // Seuls les livres disponibles sont proposés à la navigation, sauf demande explicite
+        long[] matches;
+        if (filter == null) {
+            matches = s.availableRows;
+        } else if (filter.mentions(FilterExpression.AVAILABLE)) {
+            matches = filter.evaluate(s);
+        } else {
+            matches = Bitmaps.and(s.availableRows, filter.evaluate(s));
+        }
+        long total = Bitmaps.cardinality(matches);
+        
+        List<BookDto> page = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        if (total * 64 < order.length) {
+            // Peu de livres retenus : tri de ces seules lignes par leur position
+            int[] matchedRows = Bitmaps.rows(matches);
+            long[] positions = new long[matchedRows.length];
+            for (int i = 0; i < matchedRows.length; i++) {
+                positions[i] = ((long) rank[matchedRows[i]] << 32) | matchedRows[i];
+            }
+            Arrays.sort(positions);
+            for (int i = 0; i < positions.length && page.size() < limit; i++) {
+                if ((positions[i] >>> 32) < start) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(s.books[(int) positions[i]]);
+                }
+            }
+        } else {
+            // Parcours de la permutation jusqu'à remplir la page
+            for (int position = start; position < order.length && page.size() < limit; position++) {
+                int row = order[position];
+                if (!Bitmaps.contains(matches, row)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(s.books[row]);
+                }
+            }
+        }
+        return new PageResult(page, total);
+    }
+    
+    public boolean isReady() { return ready; }
+    
+    public long getLastBuildTimeMs() { return lastBuildTimeMs; }
+    
+    public int getBookCount() { return snapshot.ids.length; }
+    
+    private static int sortKeyIndex(String sortBy) {
+        for (int i = 0; i < SORT_KEYS.length; i++) {
+            if (SORT_KEYS[i].equals(sortBy)) {
+                return i;
+            }
+        }
+        return CREATED_AT;
+    }
+    
+    // ===== Instantané en colonnes =====
+    
+    /**
+     * Colonnes indexées par ligne (livres par identifiant croissant), permutations
+     * de tri et index bitmap des filtres. Immuable une fois publié.
+     */
+    private static final class Snapshot implements FilterExpression.Resolver {
+        private final BookDto[] books;
+        private final long[] ids;
+        private final long[] downloadCounts;
+        private final long[] favoriteCounts;
+        private final int[] publicationYears;
+        private final long[] createdAt;
+        private final long[] categoryIds;
+        private final String[] titleKeys;
+        private final String[] authorKeys;
+        
+        // Tags encodés par dictionnaire : nom → code, codes triés par ligne
+        private final Map<String, Integer> tagCodes;
+        private final int[][] tagIds;
+        
+        // [critère][position] → ligne, et [critère][ligne] → position
+        private final int[][] ascending = new int[SORT_KEYS.length][];
+        private final int[][] descending = new int[SORT_KEYS.length][];
+        private final int[][] ascendingRank = new int[SORT_KEYS.length][];
+        private final int[][] descendingRank = new int[SORT_KEYS.length][];
+        
+        // Lignes par valeur de filtre ; une correction remplace les bitmaps touchés sans les modifier
+        private long[] allRows;
+        private long[] availableRows;
+        private Map<Long, long[]> categoryRows;
+        private long[][] tagRows;
+        private Map<String, long[]> languageRows;
+        private Map<Integer, long[]> yearRows;
+        
+        private Snapshot(BookDto[] books, Map<String, Integer> tagCodes) {
+            int n = books.length;
+            this.books = books;
+            this.ids = new long[n];
+            this.downloadCounts = new long[n];
+            this.favoriteCounts = new long[n];
+            this.publicationYears = new int[n];
+            this.createdAt = new long[n];
+            this.categoryIds = new long[n];
+            this.titleKeys = new String[n];
+            this.authorKeys = new String[n];
+            this.tagCodes = tagCodes;
+            this.tagIds = new int[n][];
+        }
+        
+        static Snapshot build(Collection<BookDto> rows) {
+            BookDto[] books = rows.toArray(new BookDto[0]);
+            Arrays.sort(books, (a, b) -> Long.compare(a.getId(), b.getId()));
+            
+            Map<String, Integer> tagCodes = new HashMap<>();
+            for (BookDto book : books) {
+                if (book.getTagNames() != null) {
+                    for (String tag : book.getTagNames()) {
+                        tagCodes.putIfAbsent(tag, tagCodes.size());
+                    }
+                }
+            }
+            
+            Snapshot s = new Snapshot(books, tagCodes);
+            for (int row = 0; row < books.length; row++) {
+                s.fill(row, books[row]);
+            }
+            for (int key = 0; key < SORT_KEYS.length; key++) {
+                s.ascending[key] = s.sortedRows(key, true);
+                s.descending[key] = s.sortedRows(key, false);
+                s.ascendingRank[key] = ranks(s.ascending[key]);
+                s.descendingRank[key] = ranks(s.descending[key]);
+            }
+            s.index();
+            return s;
+        }
+        
+        /**
+         * Copie avec un livre existant remplacé : colonnes recopiées et livre repositionné
+         * dans chaque permutation, sans retrier. Null si le livre n'est pas présent ou
+         * porte un tag inconnu du dictionnaire (reconstruction nécessaire).
+         */
+        Snapshot patched(BookDto book) {
+            int row = Arrays.binarySearch(ids, book.getId());
+            if (row < 0 || encodeTags(book.getTagNames()) == null) {
+                return null;
+            }
+            
+            BookDto previous = books[row];
+            Snapshot s = new Snapshot(books.clone(), tagCodes);
+            System.arraycopy(ids, 0, s.ids, 0, ids.length);
+            System.arraycopy(downloadCounts, 0, s.downloadCounts, 0, ids.length);
+            System.arraycopy(favoriteCounts, 0, s.favoriteCounts, 0, ids.length);
+            System.arraycopy(publicationYears, 0, s.publicationYears, 0, ids.length);
+            System.arraycopy(createdAt, 0, s.createdAt, 0, ids.length);
+            System.arraycopy(categoryIds, 0, s.categoryIds, 0, ids.length);
+            System.arraycopy(titleKeys, 0, s.titleKeys, 0, ids.length);
+            System.arraycopy(authorKeys, 0, s.authorKeys, 0, ids.length);
+            System.arraycopy(tagIds, 0, s.tagIds, 0, ids.length);
+            s.books[row] = book;
+            s.fill(row, book);
+            
+            for (int key = 0; key < SORT_KEYS.length; key++) {
+                s.ascending[key] = ascending[key].clone();
+                s.ascendingRank[key] = ascendingRank[key].clone();
+                s.reposition(key, true, row);
+                s.descending[key] = descending[key].clone();
+                s.descendingRank[key] = descendingRank[key].clone();
+                s.reposition(key, false, row);
+            }
+            
+            int n = ids.length;
+            s.allRows = allRows;
+            s.availableRows = Boolean.TRUE.equals(previous.getAvailable()) == Boolean.TRUE.equals(book.getAvailable())
+                ? availableRows
+                : Bitmaps.with(availableRows, row, Boolean.TRUE.equals(book.getAvailable()));
+            s.categoryRows = moved(categoryRows, previous.getCategoryId(), book.getCategoryId(), row, n);
+            s.languageRows = moved(languageRows, languageKey(previous.getLanguage()), languageKey(book.getLanguage()), row, n);
+            s.yearRows = moved(yearRows, previous.getPublicationYear(), book.getPublicationYear(), row, n);
+            s.tagRows = tagRows;
+            if (!Arrays.equals(tagIds[row], s.tagIds[row])) {
+                s.tagRows = tagRows.clone();
+                for (int code : tagIds[row]) {
+                    s.tagRows[code] = Bitmaps.with(s.tagRows[code], row, false);
+                }
+                for (int code : s.tagIds[row]) {
+                    s.tagRows[code] = Bitmaps.with(s.tagRows[code], row, true);
+                }
+            }
+            return s;
+        }
+        
+        /**
+         * Copie avec les compteurs des livres donnés remplacés : seules les permutations
+         * des tris par téléchargements et favoris sont recalculées, les autres permutations
+         * et les bitmaps sont partagés. Livres absents ignorés.
+         */
+        Snapshot withCounters(Collection<BookDto> changed) {
+            Snapshot s = new Snapshot(books.clone(), tagCodes);
+            System.arraycopy(ids, 0, s.ids, 0, ids.length);
+            System.arraycopy(downloadCounts, 0, s.downloadCounts, 0, ids.length);
+            System.arraycopy(favoriteCounts, 0, s.favoriteCounts, 0, ids.length);
+            System.arraycopy(publicationYears, 0, s.publicationYears, 0, ids.length);
+            System.arraycopy(createdAt, 0, s.createdAt, 0, ids.length);
+            System.arraycopy(categoryIds, 0, s.categoryIds, 0, ids.length);
+            System.arraycopy(titleKeys, 0, s.titleKeys, 0, ids.length);
+            System.arraycopy(authorKeys, 0, s.authorKeys, 0, ids.length);
+            System.arraycopy(tagIds, 0, s.tagIds, 0, ids.length);
+            for (BookDto book : changed) {
+                int row = Arrays.binarySearch(ids, book.getId());
+                if (row >= 0) {
+                    s.books[row] = book;
+                    s.downloadCounts[row] = book.getDownloadCount() != null ? book.getDownloadCount() : NULL_LONG;
+                    s.favoriteCounts[row] = book.getFavoriteCount() != null ? book.getFavoriteCount() : NULL_LONG;
+                }
+            }
+            
+            for (int key = 0; key < SORT_KEYS.length; key++) {
+                if (key == DOWNLOAD_COUNT || key == FAVORITE_COUNT) {
+                    s.ascending[key] = s.sortedRows(key, true);
+                    s.descending[key] = s.sortedRows(key, false);
+                    s.ascendingRank[key] = ranks(s.ascending[key]);
+                    s.descendingRank[key] = ranks(s.descending[key]);
+                } else {
+                    s.ascending[key] = ascending[key];
+                    s.descending[key] = descending[key];
+                    s.ascendingRank[key] = ascendingRank[key];
+                    s.descendingRank[key] = descendingRank[key];
+                }
+            }
+            
+            s.allRows = allRows;
+            s.availableRows = availableRows;
+            s.categoryRows = categoryRows;
+            s.tagRows = tagRows;
+            s.languageRows = languageRows;
+            s.yearRows = yearRows;
+            return s;
+        }
+        
+        // Construction des bitmaps de filtre à partir des colonnes
+        private void index() {
+            int n = ids.length;
+            allRows = Bitmaps.full(n);
+            availableRows = Bitmaps.empty(n);
+            categoryRows = new HashMap<>();
+            tagRows = new long[tagCodes.size()][];
+            for (int code = 0; code < tagRows.length; code++) {
+                tagRows[code] = Bitmaps.empty(n);
+            }
+            languageRows = new HashMap<>();
+            yearRows = new HashMap<>();
+            
+            for (int row = 0; row < n; row++) {
+                BookDto book = books[row];
+                if (Boolean.TRUE.equals(book.getAvailable())) {
+                    Bitmaps.add(availableRows, row);
+                }
+                if (book.getCategoryId() != null) {
+                    Bitmaps.add(categoryRows.computeIfAbsent(book.getCategoryId(), k -> Bitmaps.empty(n)), row);
+                }
+                for (int code : tagIds[row]) {
+                    Bitmaps.add(tagRows[code], row);
+                }
+                if (languageKey(book.getLanguage()) != null) {
+                    Bitmaps.add(languageRows.computeIfAbsent(languageKey(book.getLanguage()), k -> Bitmaps.empty(n)), row);
+                }
+                if (book.getPublicationYear() != null) {
+                    Bitmaps.add(yearRows.computeIfAbsent(book.getPublicationYear(), k -> Bitmaps.empty(n)), row);
+                }
+            }
+        }
+        
+        // Copie de l'index avec la ligne déplacée d'une valeur à l'autre (index inchangé si même valeur)
+        private static <K> Map<K, long[]> moved(Map<K, long[]> index, K before, K after, int row, int n) {
+            if (Objects.equals(before, after)) {
+                return index;
+            }
+            Map<K, long[]> copy = new HashMap<>(index);
+            if (before != null) {
+                copy.computeIfPresent(before, (k, words) -> Bitmaps.with(words, row, false));
+            }
+            if (after != null) {
+                copy.put(after, Bitmaps.with(copy.getOrDefault(after, Bitmaps.empty(n)), row, true));
+            }
+            return copy;
+        }
+        
+        private static String languageKey(String language) {
+            return language != null && !language.isBlank() ? language.trim().toLowerCase(Locale.ROOT) : null;
+        }
+        
+        @Override
+        public long[] all() {
+            return allRows;
+        }
+        
+        @Override
+        public long[] rows(String field, String value) {
+            long[] words = null;
+            switch (field) {
+                case FilterExpression.CATEGORY:
+                    words = categoryRows.get(Long.valueOf(value));
+                    break;
+                case FilterExpression.TAG:
+                    Integer code = tagCodes.get(value);
+                    words = code != null ? tagRows[code] : null;
+                    break;
+                case FilterExpression.LANGUAGE:
+                    words = languageRows.get(languageKey(value));
+                    break;
+                case FilterExpression.YEAR:
+                    words = yearRows.get(Integer.valueOf(value));
+                    break;
+                case FilterExpression.AVAILABLE:
+                    words = Boolean.parseBoolean(value) ? availableRows : Bitmaps.andNot(allRows, availableRows);
+                    break;
+                default:
+                    break;
+            }
+            return words != null ? words : Bitmaps.empty(ids.length);
+        }
+        
+        private void fill(int row, BookDto book) {
+            ids[row] = book.getId();
+            downloadCounts[row] = book.getDownloadCount() != null ? book.getDownloadCount() : NULL_LONG;
+            favoriteCounts[row] = book.getFavoriteCount() != null ? book.getFavoriteCount() : NULL_LONG;
+            publicationYears[row] = book.getPublicationYear() != null ? book.getPublicationYear() : NULL_INT;
+            createdAt[row] = book.getCreatedAt() != null ? book.getCreatedAt().toInstant().toEpochMilli() : NULL_LONG;
+            categoryIds[row] = book.getCategoryId() != null ? book.getCategoryId() : NULL_LONG;
+            titleKeys[row] = book.getTitle() != null ? book.getTitle().toLowerCase(Locale.ROOT) : null;
+            authorKeys[row] = book.getAuthor() != null ? book.getAuthor().toLowerCase(Locale.ROOT) : null;
+            int[] codes = encodeTags(book.getTagNames());
+            tagIds[row] = codes != null ? codes : new int[0];
+        }
+        
+        // Codes triés des tags connus ; null si l'un des tags est absent du dictionnaire
+        private int[] encodeTags(Collection<String> names) {
+            if (names == null) {
+                return new int[0];
+            }
+            int[] codes = new int[names.size()];
+            int size = 0;
+            for (String name : names) {
+                Integer code = tagCodes.get(name);
+                if (code == null) {
+                    return null;
+                }
+                codes[size++] = code;
+            }
+            Arrays.sort(codes);
+            return codes;
+        }
+        
+        private int[] sortedRows(int key, boolean asc) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareRows(key, asc, a, b));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+        
+        private static int[] ranks(int[] order) {
+            int[] rank = new int[order.length];
+            for (int position = 0; position < order.length; position++) {
+                rank[order[position]] = position;
+            }
+            return rank;
+        }
+        
+        // Retire la ligne de sa position puis la réinsère par recherche dichotomique
+        private void reposition(int key, boolean asc, int row) {
+            int[] order = asc ? ascending[key] : descending[key];
+            int[] rank = asc ? ascendingRank[key] : descendingRank[key];
+            int last = order.length - 1;
+            int from = rank[row];
+            System.arraycopy(order, from + 1, order, from, last - from);
+            
+            int low = 0;
+            int high = last;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareRows(key, asc, order[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            System.arraycopy(order, low, order, low + 1, last - low);
+            order[low] = row;
+            
+            for (int position = Math.min(from, low); position <= Math.max(from, low); position++) {
+                rank[order[position]] = position;
+            }
+        }
+        
+        // Même ordre que BOOK_ORDER_BY : critère puis identifiant croissant
+        private int compareRows(int key, boolean asc, int a, int b) {
+            int byKey = compareKey(key, a, b);
+            if (byKey != 0) {
+                return asc ? byKey : -byKey;
+            }
+            return Long.compare(ids[a], ids[b]);
+        }
+        
+        private int compareKey(int key, int a, int b) {
+            switch (key) {
+                case TITLE:
+                    return compareNullable(titleKeys[a], titleKeys[b]);
+                case AUTHOR:
+                    return compareNullable(authorKeys[a], authorKeys[b]);
+                case DOWNLOAD_COUNT:
+                    return compareLong(downloadCounts[a], downloadCounts[b]);
+                case FAVORITE_COUNT:
+                    return compareLong(favoriteCounts[a], favoriteCounts[b]);
+                case PUBLICATION_YEAR:
+                    return compareLong(publicationYears[a] == NULL_INT ? NULL_LONG : publicationYears[a],
+                        publicationYears[b] == NULL_INT ? NULL_LONG : publicationYears[b]);
+                default:
+                    return compareLong(createdAt[a], createdAt[b]);
+            }
+        }
+        
+        // Valeur absente considérée comme la plus grande
+        private static int compareLong(long x, long y) {
+            if (x == y) {
+                return 0;
+            }
+            if (x == NULL_LONG) {
+                return 1;
+            }
+            if (y == NULL_LONG) {
+                return -1;
+            }
+            return Long.compare(x, y);
+        }
+        
+        private static int compareNullable(String x, String y) {
+            if (x == null || y == null) {
+                return x == null ? (y == null ? 0 : 1) : -1;
+            }
+            return x.compareTo(y);
+        }
+    }
+    
+    /**
+     * Page de livres et nombre total de livres correspondant aux filtres
+     */
+    public static class PageResult {
+        private final List<BookDto> books;
+        private final long total;
+        
+        public PageResult(List<BookDto> books, long total) {
+            this.books = books;
+            this.total = total;
+        }
+        
+        public List<BookDto> getBooks() { return books; }
+        public long getTotal() { return total; }
+    }
+}
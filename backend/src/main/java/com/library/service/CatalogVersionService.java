@@ -0,0 +1,85 @@
+package com.library.service;
+
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numéro de version du catalogue, incrémenté à chaque création, modification ou
+ * suppression d'un livre, d'un tag ou d'une catégorie. Sert de clé d'invalidation aux
+ * caches dérivés du catalogue et de validateur HTTP (ETag) pour les requêtes
+ * conditionnelles des clients. Les compteurs (téléchargements, favoris) ne changent pas
+ * la version, qui invalide les caches dérivés, mais une seconde version propre aux
+ * compteurs, incrémentée à chaque changement et à chaque report dans le modèle de lecture :
+ * l'ETag, qui les contient toutes deux, change dès que le corps des réponses change.
+ */
+@Service
+public class CatalogVersionService {
+    
+    // Réponses du catalogue : stockables par le navigateur et les proxies, revalidées à chaque usage
+    public static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicLong counters = new AtomicLong();
+    
+    // Distingue les versions de deux démarrages successifs (le compteur repart à 1)
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isCountersOnly()) {
+            counters.incrementAndGet();
+        } else {
+            version.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Compteurs reportés dans les réponses du catalogue (valeurs ou ordre des tris par compteur)
+     */
+    public void countersChanged() {
+        counters.incrementAndGet();
+    }
+    
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        version.incrementAndGet();
+    }
+    
+    /**
+     * Version courante du catalogue
+     */
+    public long current() {
+        return version.get();
+    }
+    
+    /**
+     * ETag fort de la version courante du catalogue et de ses compteurs
+     */
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "." + counters.get() + "\"";
+    }
+    
+    /**
+     * Vrai si l'en-tête If-None-Match du client contient l'ETag (comparaison faible, RFC 9110)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
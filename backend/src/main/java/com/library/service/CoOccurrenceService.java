@@ -0,0 +1,429 @@
+package com.library.service;
+
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Filtrage collaboratif livre à livre (« les lecteurs de ce livre ont aussi lu ») : matrice
+ * creuse de co-occurrences, nombre d'utilisateurs ayant téléchargé ou mis en favori les deux
+ * livres, construite une fois au démarrage puis tenue à jour à chaque téléchargement, ajout
+ * ou retrait de favori. Les livres déjà comptés pour chaque utilisateur (au plus
+ * MAX_USER_BOOKS, les plus récents à la construction) sont enregistrés sur son nœud
+ * (u.alsoReadBooks) : un événement ne porte que sur son livre, comparé à cette liste sous un
+ * verrou par utilisateur, si bien qu'un retrait décompte ses paires et que deux événements
+ * concurrents ne comptent pas deux fois la même paire. Chaque livre ne garde que
+ * ses voisins les plus fréquents (élagage dès qu'une ligne double, compactage périodique) ;
+ * les voisins sont classés par similarité cosinus pour ne pas favoriser les seuls livres
+ * populaires.
+ */
+@Service
+public class CoOccurrenceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CoOccurrenceService.class);
+    
+    // Livres d'un utilisateur pris en compte (les paires croissent avec leur carré)
+    private static final int MAX_USER_BOOKS = 500;
+    
+    // Utilisateurs lus par requête lors de la construction
+    private static final int BUILD_BATCH_SIZE = 1000;
+    
+    // Verrous par utilisateur (haché) : lecture des livres et comptage d'un utilisateur à la fois
+    private static final int LOCK_STRIPES = 64;
+    
+    private static final String FIND_COUNTED =
+        "MATCH (u:User) WHERE id(u) = $userId RETURN u.alsoReadBooks AS counted";
+    
+    // Livres comptés, et si l'utilisateur a encore le livre (téléchargé ou en favori)
+    private static final String FIND_COUNTED_AND_KEPT =
+        "MATCH (u:User) WHERE id(u) = $userId " +
+        "MATCH (b:Book) WHERE id(b) = $bookId " +
+        "RETURN u.alsoReadBooks AS counted, " +
+        "       EXISTS { MATCH (u)-[:FAVORITES]->(b) } " +
+        "       OR EXISTS { MATCH (u)<-[:DOWNLOADED_BY]-(:DownloadHistory)-[:OF_BOOK]->(b) } AS kept";
+    
+    private static final String SAVE_COUNTED =
+        "MATCH (u:User) WHERE id(u) = $userId SET u.alsoReadBooks = $books";
+    
+    private static final String SAVE_ALL_COUNTED =
+        "UNWIND $rows AS row " +
+        "MATCH (u:User) WHERE id(u) = row.userId SET u.alsoReadBooks = row.books";
+    
+    // Livres distincts téléchargés ou mis en favori par chaque utilisateur, les MAX_USER_BOOKS
+    // plus récents (dernière interaction ; favoris non datés en dernier)
+    private static final String FIND_USERS_BOOKS =
+        "MATCH (u:User) WHERE id(u) > $after " +
+        "WITH u ORDER BY id(u) LIMIT $limit " +
+        "CALL { " +
+        "  WITH u " +
+        "  CALL { " +
+        "    WITH u " +
+        "    MATCH (u)<-[:DOWNLOADED_BY]-(dh:DownloadHistory)-[:OF_BOOK]->(b:Book) " +
+        "    RETURN id(b) AS book, dh.downloadedAt AS at " +
+        "    UNION ALL " +
+        "    WITH u " +
+        "    MATCH (u)-[f:FAVORITES]->(b:Book) " +
+        "    RETURN id(b) AS book, f.addedAt AS at " +
+        "  } " +
+        "  WITH book, max(at) AS at " +
+        "  ORDER BY at IS NULL, at DESC, book ASC LIMIT $maxBooks " +
+        "  RETURN collect(book) AS books " +
+        "} " +
+        "RETURN id(u) AS userId, books";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.recommendation.also-read.neighbors:50}")
+    private int maxNeighbors;
+    
+    // Matrice (accès synchronisés sur matrix) : co-occurrences par livre, lecteurs par livre
+    private final Map<Long, Map<Long, Integer>> matrix = new HashMap<>();
+    private final Map<Long, Integer> readers = new HashMap<>();
+    
+    // Dernier utilisateur lu par la construction : les événements des suivants y seront lus
+    private long builtUntil = -1;
+    private boolean building;
+    private volatile boolean ready;
+    
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    public CoOccurrenceService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.also-read.books", this, CoOccurrenceService::getBookCount)
+            .description("Livres présents dans la matrice de co-occurrences")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Lecteurs ayant aussi lu le livre, du plus proche au plus éloigné (similarité cosinus)
+     */
+    public Map<Long, Double> findAlsoRead(Long bookId, int limit) {
+        List<Map.Entry<Long, Double>> neighbors = new ArrayList<>();
+        synchronized (matrix) {
+            Map<Long, Integer> row = matrix.get(bookId);
+            if (row == null) {
+                return new LinkedHashMap<>();
+            }
+            row.forEach((neighbor, count) -> neighbors.add(Map.entry(neighbor, cosine(bookId, neighbor, count))));
+        }
+        neighbors.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        
+        Map<Long, Double> alsoRead = new LinkedHashMap<>();
+        for (Map.Entry<Long, Double> neighbor : neighbors.subList(0, Math.min(limit, neighbors.size()))) {
+            alsoRead.put(neighbor.getKey(), neighbor.getValue());
+        }
+        return alsoRead;
+    }
+    
+    /**
+     * Score collaboratif des voisins des livres donnés (hors ces livres), entre 0 et 1 :
+     * somme des similarités avec chacun, divisée par la plus forte
+     */
+    public Map<Long, Double> scoreNeighbors(Collection<Long> bookIds) {
+        Set<Long> seeds = new HashSet<>(bookIds);
+        Map<Long, Double> scores = new HashMap<>();
+        synchronized (matrix) {
+            for (Long seed : seeds) {
+                Map<Long, Integer> row = matrix.get(seed);
+                if (row == null) {
+                    continue;
+                }
+                row.forEach((neighbor, count) -> {
+                    if (!seeds.contains(neighbor)) {
+                        scores.merge(neighbor, cosine(seed, neighbor, count), Double::sum);
+                    }
+                });
+            }
+        }
+        
+        double max = scores.values().stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+        if (max > 0) {
+            scores.replaceAll((neighbor, score) -> score / max);
+        }
+        return scores;
+    }
+    
+    /**
+     * Ajoute un téléchargement ou un favori (déjà écrit en base) : si le livre n'est pas encore
+     * compté pour l'utilisateur, il forme une paire avec chacun de ses livres comptés (au-delà
+     * de MAX_USER_BOOKS livres comptés, il ne l'est pas)
+     */
+    @Async
+    public void recordInteraction(Long userId, Long bookId) {
+        if (!isBuilt(userId)) {
+            return;
+        }
+        try {
+            synchronized (lockFor(userId)) {
+                Optional<Map<String, Object>> row = neo4jClient.query(FIND_COUNTED)
+                    .bind(userId).to("userId")
+                    .fetch().one();
+                if (row.isEmpty()) {
+                    return;
+                }
+                List<Long> counted = counted(row.get());
+                if (counted.contains(bookId) || counted.size() >= MAX_USER_BOOKS) {
+                    return;
+                }
+                
+                List<Long> others = new ArrayList<>(counted);
+                counted.add(bookId);
+                // Livres comptés enregistrés avant la matrice : un échec d'écriture ne la fausse pas
+                saveCounted(userId, counted);
+                synchronized (matrix) {
+                    readers.merge(bookId, 1, Integer::sum);
+                    for (Long other : others) {
+                        increment(bookId, other);
+                        increment(other, bookId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour des co-occurrences du livre {}", bookId, e);
+        }
+    }
+    
+    /**
+     * Retire un favori (déjà supprimé en base) : si l'utilisateur n'a plus le livre (ni
+     * téléchargé, ni en favori), ses paires avec les autres livres comptés sont décomptées
+     */
+    @Async
+    public void removeInteraction(Long userId, Long bookId) {
+        if (!isBuilt(userId)) {
+            return;
+        }
+        try {
+            synchronized (lockFor(userId)) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("userId", userId);
+                parameters.put("bookId", bookId);
+                Optional<Map<String, Object>> row = neo4jClient.query(FIND_COUNTED_AND_KEPT)
+                    .bindAll(parameters)
+                    .fetch().one();
+                if (row.isEmpty() || Boolean.TRUE.equals(row.get().get("kept"))) {
+                    return;
+                }
+                List<Long> counted = counted(row.get());
+                if (!counted.remove(bookId)) {
+                    return;
+                }
+                
+                saveCounted(userId, counted);
+                synchronized (matrix) {
+                    decrementReaders(bookId);
+                    for (Long other : counted) {
+                        decrement(bookId, other);
+                        decrement(other, bookId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors du retrait des co-occurrences du livre {}", bookId, e);
+        }
+    }
+    
+    // Utilisateur déjà lu par la construction (sinon ses livres y seront lus)
+    private boolean isBuilt(Long userId) {
+        synchronized (matrix) {
+            return ready || userId <= builtUntil;
+        }
+    }
+    
+    private void saveCounted(Long userId, List<Long> counted) {
+        neo4jClient.query(SAVE_COUNTED)
+            .bind(userId).to("userId")
+            .bind(counted).to("books")
+            .run();
+    }
+    
+    private static List<Long> counted(Map<String, Object> row) {
+        List<Long> counted = new ArrayList<>();
+        if (row.get("counted") instanceof List) {
+            for (Object id : (List<?>) row.get("counted")) {
+                counted.add(((Number) id).longValue());
+            }
+        }
+        return counted;
+    }
+    
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            synchronized (matrix) {
+                matrix.remove(event.getBookId());
+                readers.remove(event.getBookId());
+            }
+        }
+    }
+    
+    /**
+     * Construction de la matrice au premier chargement du catalogue, utilisateur par utilisateur
+     */
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        synchronized (matrix) {
+            if (ready || building) {
+                return;
+            }
+            building = true;
+        }
+        
+        long start = System.currentTimeMillis();
+        long users = 0;
+        try {
+            List<Map<String, Object>> rows;
+            do {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("after", builtUntil);
+                parameters.put("limit", BUILD_BATCH_SIZE);
+                parameters.put("maxBooks", MAX_USER_BOOKS);
+                rows = new ArrayList<>(neo4jClient.query(FIND_USERS_BOOKS).bindAll(parameters).fetch().all());
+                
+                List<Map<String, Object>> countedRows = new ArrayList<>(rows.size());
+                for (Map<String, Object> row : rows) {
+                    Set<Long> books = new LinkedHashSet<>();
+                    for (Object id : (List<?>) row.get("books")) {
+                        books.add(((Number) id).longValue());
+                    }
+                    synchronized (matrix) {
+                        for (Long book : books) {
+                            readers.merge(book, 1, Integer::sum);
+                            for (Long other : books) {
+                                if (!other.equals(book)) {
+                                    increment(book, other);
+                                }
+                            }
+                        }
+                    }
+                    countedRows.add(Map.of("userId", row.get("userId"), "books", new ArrayList<>(books)));
+                    users++;
+                }
+                
+                // Livres comptés enregistrés avant d'ouvrir les événements de ces utilisateurs
+                if (!rows.isEmpty()) {
+                    neo4jClient.query(SAVE_ALL_COUNTED).bind(countedRows).to("rows").run();
+                    synchronized (matrix) {
+                        builtUntil = ((Number) rows.get(rows.size() - 1).get("userId")).longValue();
+                    }
+                }
+            } while (rows.size() == BUILD_BATCH_SIZE);
+            
+            compact();
+            ready = true;
+            logger.info("Matrice de co-occurrences construite : {} utilisateurs, {} livres ({} ms)",
+                users, getBookCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la construction de la matrice de co-occurrences", e);
+        } finally {
+            synchronized (matrix) {
+                building = false;
+                if (!ready) {
+                    // Nouvelle tentative au prochain rechargement du catalogue
+                    matrix.clear();
+                    readers.clear();
+                    builtUntil = -1;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compactage : chaque livre ne garde que ses voisins les plus fréquents, encore au catalogue
+     */
+    @Scheduled(fixedDelayString = "${app.recommendation.also-read.compaction-ms:3600000}")
+    public void compact() {
+        synchronized (matrix) {
+            for (Map<Long, Integer> row : matrix.values()) {
+                row.keySet().retainAll(readers.keySet());
+                if (row.size() > maxNeighbors) {
+                    keepMostFrequent(row, maxNeighbors);
+                }
+            }
+            matrix.values().removeIf(Map::isEmpty);
+        }
+    }
+    
+    public boolean isReady() { return ready; }
+    
+    public int getBookCount() {
+        synchronized (matrix) {
+            return matrix.size();
+        }
+    }
+    
+    private Object lockFor(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+    
+    // Appelé sous le verrou : une ligne qui atteint le double de la taille cible est élaguée
+    private void increment(Long book, Long other) {
+        Map<Long, Integer> row = matrix.computeIfAbsent(book, id -> new HashMap<>());
+        row.merge(other, 1, Integer::sum);
+        if (row.size() >= 2 * maxNeighbors) {
+            keepMostFrequent(row, maxNeighbors);
+        }
+    }
+    
+    // Appelé sous le verrou : paire déjà élaguée ignorée, paire tombée à zéro retirée
+    private void decrement(Long book, Long other) {
+        Map<Long, Integer> row = matrix.get(book);
+        if (row == null) {
+            return;
+        }
+        row.computeIfPresent(other, (id, count) -> count > 1 ? count - 1 : null);
+        if (row.isEmpty()) {
+            matrix.remove(book);
+        }
+    }
+    
+    private void decrementReaders(Long book) {
+        readers.computeIfPresent(book, (id, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    // Co-occurrences divisées par la moyenne géométrique des lecteurs des deux livres
+    private double cosine(Long book, Long other, int count) {
+        double norm = Math.sqrt((double) readers.getOrDefault(book, 1) * readers.getOrDefault(other, 1));
+        return Math.min(1.0, count / norm);
+    }
+    
+    private static void keepMostFrequent(Map<Long, Integer> row, int max) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(row.entrySet());
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue().reversed());
+        for (Map.Entry<Long, Integer> entry : entries.subList(max, entries.size())) {
+            row.remove(entry.getKey());
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.apache.pdfbox.rendering.PDFRenderer;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -106,8 +107,25 @@ public class FileStorageService {
      * @return Le nom du fichier stocké
      */
     public String storeFile(MultipartFile file, String subDirectory) {
+        try {
+            return storeFile(file.getInputStream(), file.getOriginalFilename(), subDirectory);
+        } catch (IOException ex) {
+            logger.error("Erreur lors de la lecture du fichier: {}", file.getOriginalFilename(), ex);
+            throw new RuntimeException("Erreur lors de la lecture du fichier: " + file.getOriginalFilename(), ex);
+        }
+    }
+    
+    /**
+     * Stocke le contenu d'un flux (ex: entrée d'une archive d'import) sous un nom unique
+     * 
+     * @param content Le contenu du fichier
+     * @param fileName Le nom d'origine, dont seule l'extension est conservée
+     * @param subDirectory Sous-répertoire (ex: "books/pdf", "books/covers")
+     * @return Le nom du fichier stocké
+     */
+    public String storeFile(InputStream content, String fileName, String subDirectory) {
         // Nettoyer le nom du fichier
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        String originalFileName = StringUtils.cleanPath(fileName);
         
         try {
             // Vérifier le nom du fichier
@@ -127,7 +145,7 @@ public class FileStorageService {
             Path filePath = targetLocation.resolve(uniqueFileName);
             
             // Copier le fichier
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(content, filePath, StandardCopyOption.REPLACE_EXISTING);
             
             // Retourner le chemin relatif
             String relativePath = subDirectory + "/" + uniqueFileName;
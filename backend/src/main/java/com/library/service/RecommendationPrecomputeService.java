@@ -0,0 +1,337 @@
+package com.library.service;
+
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import com.library.service.RecommendationService.RecommendationResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pré-calcul en lot des recommandations personnalisées des utilisateurs actifs (au moins un
+ * téléchargement récent), enregistrées en relations (:User)-[:RECOMMENDED {rank, score,
+ * reason, computedAt}]->(:Book) et lues par RecommendationService. Les utilisateurs sont
+ * parcourus par lots d'identifiants croissants, calculés en parallèle ; après chaque lot,
+ * le dernier identifiant traité est enregistré dans un nœud :RecommendationJob, d'où un
+ * calcul interrompu (arrêt, plantage) reprend au redémarrage ou au passage suivant.
+ */
+@Service
+public class RecommendationPrecomputeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationPrecomputeService.class);
+    
+    private static final String JOB_NAME = "precompute";
+    
+    // Relations RECOMMENDED périmées supprimées par requête en fin de calcul
+    private static final int PURGE_BATCH_SIZE = 10000;
+    
+    // Historique récent parcouru une seule fois par passage ; les identifiants sont ensuite
+    // traités par paquets
+    private static final String FIND_ACTIVE_USERS =
+        "MATCH (dh:DownloadHistory) WHERE dh.downloadedAt >= datetime({epochMillis: $since}) " +
+        "MATCH (dh)-[:DOWNLOADED_BY]->(u:User) WHERE id(u) > $after " +
+        "WITH DISTINCT id(u) AS userId " +
+        "RETURN userId ORDER BY userId ASC";
+    
+    // Une liste n'est pas remplacée si les goûts de l'utilisateur ont changé depuis le début
+    // de son calcul : elle a déjà été retirée et l'utilisateur est calculé en ligne
+    private static final String REPLACE_RECOMMENDED =
+        "UNWIND $rows AS row " +
+        "MATCH (u:User) WHERE id(u) = row.userId " +
+        "OPTIONAL MATCH (v:TasteVector {userId: row.userId}) " +
+        "WITH u, row, v WHERE v IS NULL OR v.updatedAt <= row.computedAt " +
+        "CALL { " +
+        "  WITH u " +
+        "  MATCH (u)-[old:RECOMMENDED]->() " +
+        "  DELETE old " +
+        "} " +
+        "WITH u, row " +
+        "UNWIND row.recommendations AS recommendation " +
+        "MATCH (b:Book) WHERE id(b) = recommendation.bookId " +
+        "CREATE (u)-[:RECOMMENDED {rank: recommendation.rank, score: recommendation.score, " +
+        "reason: recommendation.reason, computedAt: row.computedAt}]->(b)";
+    
+    // Listes des utilisateurs qui ne sont plus actifs
+    private static final String PURGE_RECOMMENDED =
+        "MATCH ()-[r:RECOMMENDED]->() WHERE r.computedAt < $before " +
+        "WITH r LIMIT $limit " +
+        "DELETE r " +
+        "RETURN count(r) AS deleted";
+    
+    private static final String LOAD_CHECKPOINT =
+        "MATCH (j:RecommendationJob {name: $name}) RETURN properties(j) AS job";
+    
+    private static final String SAVE_CHECKPOINT =
+        "MERGE (j:RecommendationJob {name: $name}) SET j += $properties";
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private TasteVectorService tasteVectorService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.recommendation.precompute.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.recommendation.precompute.top-n:50}")
+    private int topN;
+    
+    @Value("${app.recommendation.precompute.active-days:30}")
+    private long activeDays;
+    
+    @Value("${app.recommendation.precompute.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.recommendation.precompute.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${app.recommendation.precompute.max-age-hours:48}")
+    private long maxAgeHours;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile long lastRunTimeMs;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.recommendations.precompute.time", this, RecommendationPrecomputeService::getLastRunTimeMs)
+            .description("Durée du dernier pré-calcul complet des recommandations (ms)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Reprise au démarrage d'un calcul interrompu
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            precompute(true);
+        }
+    }
+    
+    @Scheduled(cron = "${app.recommendation.precompute.cron:0 0 4 * * *}")
+    public void scheduledPrecompute() {
+        if (enabled) {
+            precompute(false);
+        }
+    }
+    
+    /**
+     * Pré-calcule les recommandations des utilisateurs actifs, en reprenant le calcul
+     * interrompu s'il est encore récent
+     *
+     * @param resumeOnly ne rien faire s'il n'y a pas de calcul interrompu
+     */
+    public void precompute(boolean resumeOnly) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Pré-calcul des recommandations déjà en cours");
+            return;
+        }
+        
+        ExecutorService executor = null;
+        try {
+            long now = System.currentTimeMillis();
+            Checkpoint checkpoint = loadCheckpoint()
+                .filter(job -> job.finishedAt == null && now - job.startedAt < TimeUnit.HOURS.toMillis(maxAgeHours))
+                .orElse(null);
+            if (checkpoint == null) {
+                if (resumeOnly) {
+                    return;
+                }
+                checkpoint = new Checkpoint(now, now - TimeUnit.DAYS.toMillis(activeDays));
+                saveCheckpoint(checkpoint);
+            } else {
+                logger.info("Reprise du pré-calcul des recommandations après l'utilisateur {} ({} utilisateurs déjà traités)",
+                    checkpoint.lastUserId, checkpoint.processedUsers);
+            }
+            
+            // Catalogue lu une fois avec catégories et tags (scoring par contenu), partagé par le
+            // calcul de tous les utilisateurs
+            List<Book> catalog = bookRepository.findAllWithRelations().stream()
+                .filter(book -> Boolean.TRUE.equals(book.getAvailable()))
+                .collect(Collectors.toList());
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+                Thread thread = new Thread(runnable, "recommendation-precompute-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            
+            List<Long> activeUserIds = findActiveUsers(checkpoint.since, checkpoint.lastUserId);
+            for (int from = 0; from < activeUserIds.size(); from += batchSize) {
+                List<Long> userIds = activeUserIds.subList(from, Math.min(from + batchSize, activeUserIds.size()));
+                List<Future<Map<String, Object>>> futures = new ArrayList<>(userIds.size());
+                for (Long userId : userIds) {
+                    futures.add(executor.submit(() -> computeRow(userId, catalog)));
+                }
+                
+                List<Map<String, Object>> rows = new ArrayList<>(userIds.size());
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        rows.add(futures.get(i).get());
+                    } catch (ExecutionException e) {
+                        logger.warn("Pré-calcul des recommandations de l'utilisateur {} impossible", userIds.get(i), e.getCause());
+                    }
+                }
+                neo4jClient.query(REPLACE_RECOMMENDED).bind(rows).to("rows").run();
+                
+                checkpoint.lastUserId = userIds.get(userIds.size() - 1);
+                checkpoint.processedUsers += rows.size();
+                saveCheckpoint(checkpoint);
+            }
+            
+            long purged = purge(checkpoint.startedAt);
+            checkpoint.finishedAt = System.currentTimeMillis();
+            saveCheckpoint(checkpoint);
+            lastRunTimeMs = checkpoint.finishedAt - checkpoint.startedAt;
+            logger.info("Recommandations pré-calculées pour {} utilisateurs actifs en {} ms ({} relations périmées supprimées)",
+                checkpoint.processedUsers, lastRunTimeMs, purged);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Pré-calcul des recommandations interrompu");
+        } catch (Exception e) {
+            logger.error("Erreur lors du pré-calcul des recommandations, reprise au prochain passage", e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            running.set(false);
+        }
+    }
+    
+    public long getLastRunTimeMs() {
+        return lastRunTimeMs;
+    }
+    
+    private Map<String, Object> computeRow(Long userId, List<Book> catalog) {
+        // Vecteur construit avant le début du calcul : sa date ne marque alors pas un changement de goûts
+        tasteVectorService.get(userId);
+        long computedAt = System.currentTimeMillis();
+        
+        List<RecommendationResult> results = recommendationService.computePersonalizedRecommendations(userId, topN, catalog);
+        List<Map<String, Object>> recommendations = new ArrayList<>(results.size());
+        for (int rank = 0; rank < results.size(); rank++) {
+            RecommendationResult result = results.get(rank);
+            Map<String, Object> recommendation = new HashMap<>();
+            recommendation.put("bookId", result.getBook().getId());
+            recommendation.put("rank", rank);
+            recommendation.put("score", result.getScore());
+            recommendation.put("reason", result.getReason());
+            recommendations.add(recommendation);
+        }
+        
+        Map<String, Object> row = new HashMap<>();
+        row.put("userId", userId);
+        row.put("computedAt", computedAt);
+        row.put("recommendations", recommendations);
+        return row;
+    }
+    
+    private List<Long> findActiveUsers(long since, long after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("since", since);
+        parameters.put("after", after);
+        List<Long> userIds = new ArrayList<>();
+        neo4jClient.query(FIND_ACTIVE_USERS)
+            .bindAll(parameters)
+            .fetch().all()
+            .forEach(row -> userIds.add(((Number) row.get("userId")).longValue()));
+        return userIds;
+    }
+    
+    // Supprime les relations antérieures au calcul, par paquets
+    private long purge(long before) {
+        long purged = 0;
+        long deleted;
+        do {
+            deleted = neo4jClient.query(PURGE_RECOMMENDED)
+                .bind(before).to("before")
+                .bind(PURGE_BATCH_SIZE).to("limit")
+                .fetch().one()
+                .map(row -> ((Number) row.get("deleted")).longValue())
+                .orElse(0L);
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        return purged;
+    }
+    
+    private Optional<Checkpoint> loadCheckpoint() {
+        return neo4jClient.query(LOAD_CHECKPOINT)
+            .bind(JOB_NAME).to("name")
+            .fetch().one()
+            .map(row -> Checkpoint.fromProperties((Map<?, ?>) row.get("job")));
+    }
+    
+    private void saveCheckpoint(Checkpoint checkpoint) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("startedAt", checkpoint.startedAt);
+        properties.put("since", checkpoint.since);
+        properties.put("lastUserId", checkpoint.lastUserId);
+        properties.put("processedUsers", checkpoint.processedUsers);
+        properties.put("finishedAt", checkpoint.finishedAt);
+        neo4jClient.query(SAVE_CHECKPOINT)
+            .bind(JOB_NAME).to("name")
+            .bind(properties).to("properties")
+            .run();
+    }
+    
+    /**
+     * Avancement d'un calcul : début, fenêtre d'activité, dernier utilisateur traité
+     */
+    private static class Checkpoint {
+        private final long startedAt;
+        private final long since;
+        private long lastUserId = -1;
+        private long processedUsers;
+        private Long finishedAt;
+        
+        Checkpoint(long startedAt, long since) {
+            this.startedAt = startedAt;
+            this.since = since;
+        }
+        
+        static Checkpoint fromProperties(Map<?, ?> properties) {
+            Checkpoint checkpoint = new Checkpoint(((Number) properties.get("startedAt")).longValue(),
+                ((Number) properties.get("since")).longValue());
+            checkpoint.lastUserId = ((Number) properties.get("lastUserId")).longValue();
+            checkpoint.processedUsers = ((Number) properties.get("processedUsers")).longValue();
+            Object finishedAt = properties.get("finishedAt");
+            checkpoint.finishedAt = finishedAt != null ? ((Number) finishedAt).longValue() : null;
+            return checkpoint;
+        }
+    }
+}
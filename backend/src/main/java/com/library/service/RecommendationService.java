@@ -1,16 +1,28 @@
 package com.library.service;
 
+import com.library.event.CatalogReloadEvent;
+import com.library.event.UserTasteChangedEvent;
 import com.library.model.Book;
 import com.library.model.Category;
-import com.library.model.DownloadHistory;
-import com.library.model.Tag;
 import com.library.model.User;
 import com.library.repository.BookRepository;
 import com.library.repository.DownloadHistoryRepository;
+import com.library.repository.FavoriteRepository;
 import com.library.repository.UserRepository;
+import com.library.util.Deadline;
+import com.library.util.TopK;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +31,16 @@ import org.springframework.stereotype.Service;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +54,20 @@ import java.util.stream.Collectors;
  * - Score comportemental : basé sur l'historique des téléchargements et favoris
  * - Score de popularité : combinaison download_count et favorite_count avec décroissance temporelle
  * - Score final : moyenne pondérée des trois scores ci-dessus
+ * 
+ * Les recommandations personnalisées sont gardées en cache par utilisateur (liste classée,
+ * durée de vie). Une entrée périmée (durée de vie dépassée, catalogue trop modifié ou
+ * rechargé) est encore servie pendant son recalcul en arrière-plan ; elle est retirée dès
+ * que les goûts de l'utilisateur changent (téléchargement, favori). Un calcul est d'abord
+ * servi par la liste pré-calculée en lot (relations RECOMMENDED, voir
+ * RecommendationPrecomputeService) ; seuls les utilisateurs sans liste récente sont calculés en ligne.
+ * 
+ * Le calcul en ligne enchaîne des étapes (liste pré-calculée, candidats, lecture des
+ * préférences, candidats bornés, score, diversification) sous une échéance par requête : une
+ * étape sans budget est dégradée, et un calcul qui dépasse l'échéance (exécuté sur un
+ * exécuteur dédié, attendu le temps restant) est remplacé par la liste des livres
+ * populaires, calculée d'avance ; il se poursuit et son résultat est mis en cache pour la
+ * demande suivante.
  */
 @Service
 public class RecommendationService {
@@ -47,6 +83,33 @@ public class RecommendationService {
     private static final int RECENT_ACTIVITY_DAYS = 30;    // Activité récente (30 jours)
     private static final double FAVORITE_BOOST = 2.0;      // Multiplicateur pour les favoris
     private static final double DOWNLOAD_BOOST = 1.5;      // Multiplicateur pour les téléchargements
+    private static final int MAX_PROFILE_FAVORITES = 200;  // Favoris lus pour le profil (borné)
+    
+    // Candidats d'un calcul en ligne : livres lus au plus, catégories préférées interrogées
+    private static final int MAX_ONLINE_CANDIDATES = 2000;
+    private static final int MAX_CANDIDATE_CATEGORIES = 10;
+    
+    // Recalculs en attente au-delà desquels une entrée périmée est servie sans être rafraîchie
+    private static final int REFRESH_QUEUE_SIZE = 256;
+    
+    // Calculs en ligne en attente au-delà desquels une requête reçoit directement le repli
+    private static final int PIPELINE_QUEUE_SIZE = 64;
+    
+    // Générations par utilisateur (haché) : un calcul concurrent d'une invalidation n'est pas conservé
+    private static final int GENERATION_STRIPES = 64;
+    
+    // Diversification : candidats notés par recommandation rendue, livres gardés par auteur
+    private static final int RERANK_POOL_FACTOR = 2;
+    private static final int MAX_PER_AUTHOR = 3;
+    
+    // Liste pré-calculée, classée, hors livres devenus indisponibles ou favoris depuis
+    private static final String FIND_PRECOMPUTED =
+        "MATCH (u:User)-[r:RECOMMENDED]->(b:Book) " +
+        "WHERE id(u) = $userId AND r.computedAt >= $since AND b.available = true " +
+        "  AND NOT EXISTS { MATCH (u)-[:FAVORITES]->(b) } " +
+        "RETURN id(b) AS id, r.score AS score, r.reason AS reason " +
+        "ORDER BY r.rank ASC " +
+        "LIMIT $limit";
     
     @Autowired
     private BookRepository bookRepository;
@@ -57,6 +120,139 @@ public class RecommendationService {
     @Autowired
     private DownloadHistoryRepository downloadHistoryRepository;
     
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
+    @Autowired
+    private SimilarityGraphService similarityGraphService;
+    
+    @Autowired
+    private TasteVectorService tasteVectorService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Value("${app.recommendation.cache.max-users:5000}")
+    private int cacheMaxUsers;
+    
+    @Value("${app.recommendation.cache.list-size:50}")
+    private int cachedListSize;
+    
+    @Value("${app.recommendation.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    @Value("${app.recommendation.cache.max-stale-seconds:3600}")
+    private long cacheMaxStaleSeconds;
+    
+    @Value("${app.recommendation.cache.catalog-drift:100}")
+    private long cacheCatalogDrift;
+    
+    @Value("${app.recommendation.cache.refresh-threads:2}")
+    private int refreshThreads;
+    
+    @Value("${app.recommendation.precompute.max-age-hours:48}")
+    private long precomputedMaxAgeHours;
+    
+    @Value("${app.recommendation.pipeline.threads:4}")
+    private int pipelineThreads;
+    
+    @Value("${app.recommendation.pipeline.fallback-size:100}")
+    private int fallbackSize;
+    
+    // Livres les plus téléchargés, recalculés régulièrement : repli sans requête
+    private volatile List<RecommendationResult> popularFallback = Collections.emptyList();
+    
+    // Ordre d'accès : la première entrée est celle de l'utilisateur le moins récemment servi
+    private final LinkedHashMap<Long, CachedRecommendations> recommendationCache =
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedRecommendations> eldest) {
+                return size() > cacheMaxUsers;
+            }
+        };
+    private final long[] generations = new long[GENERATION_STRIPES];
+    
+    // Instant du dernier rechargement du catalogue : les listes calculées avant sont périmées
+    private volatile long catalogReloadedAt;
+    
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor refreshExecutor;
+    private ThreadPoolExecutor pipelineExecutor;
+    
+    private Counter cacheHits;
+    private Counter cacheStaleHits;
+    private Counter cacheMisses;
+    private Counter pipelineComplete;
+    private Counter pipelineDegraded;
+    private Counter pipelineFallback;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "recommendation-refresh-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        refreshExecutor.allowCoreThreadTimeOut(true);
+        
+        AtomicInteger pipelineThreadCount = new AtomicInteger();
+        pipelineExecutor = new ThreadPoolExecutor(pipelineThreads, pipelineThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(PIPELINE_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "recommendation-pipeline-" + pipelineThreadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pipelineExecutor.allowCoreThreadTimeOut(true);
+        
+        cacheHits = Counter.builder("library.cache.recommendations.requests")
+            .tag("result", "hit")
+            .description("Recommandations personnalisées servies fraîches par le cache")
+            .register(meterRegistry);
+        cacheStaleHits = Counter.builder("library.cache.recommendations.requests")
+            .tag("result", "stale")
+            .description("Recommandations personnalisées servies périmées pendant leur recalcul")
+            .register(meterRegistry);
+        cacheMisses = Counter.builder("library.cache.recommendations.requests")
+            .tag("result", "miss")
+            .description("Recommandations personnalisées calculées pendant la requête")
+            .register(meterRegistry);
+        pipelineComplete = Counter.builder("library.recommendations.pipeline")
+            .tag("outcome", "complete")
+            .description("Recommandations personnalisées calculées en ligne en entier")
+            .register(meterRegistry);
+        pipelineDegraded = Counter.builder("library.recommendations.pipeline")
+            .tag("outcome", "degraded")
+            .description("Recommandations personnalisées rendues sans préférences ou sans diversification")
+            .register(meterRegistry);
+        pipelineFallback = Counter.builder("library.recommendations.pipeline")
+            .tag("outcome", "fallback")
+            .description("Recommandations personnalisées remplacées par les livres populaires")
+            .register(meterRegistry);
+        Gauge.builder("library.cache.recommendations.size", this, RecommendationService::getCachedUsers)
+            .description("Utilisateurs dont les recommandations sont en cache")
+            .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+        pipelineExecutor.shutdownNow();
+    }
+    
     /**
      * Génère des recommandations personnalisées pour un utilisateur
      * 
@@ -65,33 +261,287 @@ public class RecommendationService {
      * @return Liste des livres recommandés avec leur score
      */
     public List<RecommendationResult> getPersonalizedRecommendations(Long userId, int limit) {
+        return getPersonalizedRecommendations(userId, limit, Deadline.none());
+    }
+    
+    /**
+     * Recommandations personnalisées sous une échéance : un calcul en ligne qui la dépasse
+     * rend une liste dégradée (ou les livres populaires) et se termine en arrière-plan
+     */
+    public List<RecommendationResult> getPersonalizedRecommendations(Long userId, int limit, Deadline deadline) {
+        if (limit > cachedListSize) {
+            return loadWithinDeadline(userId, limit, deadline, null).results;
+        }
+        
+        long now = System.currentTimeMillis();
+        long catalogVersion = catalogVersionService.current();
+        CachedRecommendations cached;
+        long generation;
+        synchronized (recommendationCache) {
+            cached = recommendationCache.get(userId);
+            if (cached != null && now - cached.computedAt > cacheMaxStaleSeconds * 1000) {
+                recommendationCache.remove(userId);
+                cached = null;
+            }
+            generation = generations[stripe(userId)];
+        }
+        
+        if (cached == null) {
+            cacheMisses.increment();
+            // Calcul qui dépasse l'échéance : poursuivi, son résultat est mis en cache à la fin
+            Ranking ranking = loadWithinDeadline(userId, cachedListSize, deadline,
+                late -> cache(userId, late.results, generation, catalogVersion, now));
+            if (ranking.complete) {
+                return head(cache(userId, ranking.results, generation, catalogVersion, now), limit);
+            }
+            if (!ranking.pending) {
+                scheduleRefresh(userId);
+            }
+            return head(ranking.results, limit);
+        }
+        
+        if (isStale(cached, now, catalogVersion)) {
+            cacheStaleHits.increment();
+            scheduleRefresh(userId);
+        } else {
+            cacheHits.increment();
+        }
+        return head(cached.results, limit);
+    }
+    
+    /**
+     * Les goûts de l'utilisateur ont changé (sa liste pré-calculée a été retirée avec l'écriture
+     * du vecteur) : sa liste en cache est retirée et, s'il en avait une (utilisateur actif),
+     * recalculée en arrière-plan
+     */
+    @EventListener
+    public void onUserTasteChanged(UserTasteChangedEvent event) {
+        CachedRecommendations removed;
+        synchronized (recommendationCache) {
+            generations[stripe(event.getUserId())]++;
+            removed = recommendationCache.remove(event.getUserId());
+        }
+        if (removed != null) {
+            scheduleRefresh(event.getUserId());
+        }
+    }
+    
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        catalogReloadedAt = System.currentTimeMillis();
+    }
+    
+    public int getCachedUsers() {
+        synchronized (recommendationCache) {
+            return recommendationCache.size();
+        }
+    }
+    
+    /**
+     * Recommandations personnalisées calculées sur un catalogue déjà chargé (calcul en lot) ;
+     * liste vide si l'utilisateur n'a aucun livre candidat
+     */
+    public List<RecommendationResult> computePersonalizedRecommendations(Long userId, int limit, List<Book> catalog) {
+        Set<Long> favoriteIds = new HashSet<>(favoriteRepository.findBookIdsByUserId(userId));
+        List<Book> candidates = catalog.stream()
+            .filter(book -> !favoriteIds.contains(book.getId()))
+            .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return rank(buildProfile(userId), candidates, limit, Deadline.none()).results;
+    }
+    
+    /**
+     * Calcul borné par l'échéance : exécuté sur l'exécuteur du pipeline et attendu le temps
+     * restant ; échéance dépassée ou exécuteur saturé, les livres populaires calculés d'avance
+     * sont rendus sans requête. Un calcul dépassé n'est pas interrompu : son résultat est
+     * transmis à onLate (null = abandonné) plutôt que recalculé
+     */
+    private Ranking loadWithinDeadline(Long userId, int limit, Deadline deadline, Consumer<Ranking> onLate) {
+        if (deadline == Deadline.none()) {
+            return loadPersonalizedRecommendations(userId, limit, deadline);
+        }
+        
+        CompletableFuture<Ranking> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> loadPersonalizedRecommendations(userId, limit, deadline),
+                pipelineExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.info("Exécuteur des recommandations saturé, livres populaires pour l'utilisateur {}", userId);
+            pipelineFallback.increment();
+            return Ranking.fallback(head(popularFallback, limit));
+        }
+        
+        try {
+            return future.get(deadline.remainingMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.info("Budget épuisé pendant le calcul, livres populaires pour l'utilisateur {}", userId);
+            pipelineFallback.increment();
+            if (onLate == null) {
+                return Ranking.fallback(head(popularFallback, limit));
+            }
+            future.whenComplete((ranking, error) -> {
+                if (ranking != null) {
+                    onLate.accept(ranking);
+                } else {
+                    logger.error("Erreur lors du calcul des recommandations de l'utilisateur {}", userId, error);
+                }
+            });
+            return Ranking.pending(head(popularFallback, limit));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Liste pré-calculée de l'utilisateur si elle est récente, sinon calcul en ligne
+     */
+    private Ranking loadPersonalizedRecommendations(Long userId, int limit, Deadline deadline) {
+        List<RecommendationResult> precomputed = findPrecomputedRecommendations(userId, limit);
+        if (!precomputed.isEmpty()) {
+            return new Ranking(precomputed, true);
+        }
+        Ranking ranking = computePersonalizedRecommendations(userId, limit, deadline);
+        if (ranking.complete) {
+            pipelineComplete.increment();
+        } else if (ranking.fallback) {
+            pipelineFallback.increment();
+        } else {
+            pipelineDegraded.increment();
+        }
+        return ranking;
+    }
+    
+    private List<RecommendationResult> findPrecomputedRecommendations(Long userId, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("since", System.currentTimeMillis() - TimeUnit.HOURS.toMillis(precomputedMaxAgeHours));
+        parameters.put("limit", limit);
+        List<Map<String, Object>> rows = new ArrayList<>(neo4jClient.query(FIND_PRECOMPUTED)
+            .bindAll(parameters)
+            .fetch().all());
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Long> ids = rows.stream()
+            .map(row -> ((Number) row.get("id")).longValue())
+            .collect(Collectors.toList());
+        Map<Long, Book> books = bookRepository.findAllByIdWithRelations(ids).stream()
+            .collect(Collectors.toMap(Book::getId, book -> book));
+        
+        List<RecommendationResult> results = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Book book = books.get(((Number) row.get("id")).longValue());
+            if (book != null) {
+                results.add(new RecommendationResult(book, ((Number) row.get("score")).doubleValue(),
+                    (String) row.get("reason")));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Calcule les recommandations personnalisées en ligne, sans cache ni liste pré-calculée,
+     * étape par étape tant que l'échéance le permet
+     */
+    private Ranking computePersonalizedRecommendations(Long userId, int limit, Deadline deadline) {
         logger.info("Génération de recommandations personnalisées pour l'utilisateur {}", userId);
         
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isEmpty()) {
             logger.warn("Utilisateur {} non trouvé", userId);
-            return getFallbackRecommendations(limit);
+            return new Ranking(getFallbackRecommendations(limit), true);
         }
         
         User user = userOpt.get();
+        if (deadline.isExpired()) {
+            logger.info("Budget épuisé avant les préférences, livres populaires pour l'utilisateur {}", userId);
+            return Ranking.fallback(getFallbackRecommendations(limit));
+        }
         
-        // Récupérer tous les livres disponibles (sauf ceux déjà dans les favoris)
-        List<Book> candidateBooks = getAllCandidateBooks(user);
+        // 1. Préférences lues une fois, partagées par le choix et le score des candidats
+        UserPreferenceProfile profile = buildProfile(user.getId());
+        if (deadline.isExpired()) {
+            logger.info("Budget épuisé avant les candidats, livres populaires pour l'utilisateur {}", userId);
+            return Ranking.fallback(getFallbackRecommendations(limit));
+        }
+        
+        // 2. Candidats bornés tirés des préférences (sauf ceux déjà dans les favoris)
+        List<Book> candidateBooks = getCandidateBooks(profile);
         
         if (candidateBooks.isEmpty()) {
             logger.info("Aucun livre candidat trouvé pour l'utilisateur {}", userId);
-            return getFallbackRecommendations(limit);
+            return new Ranking(getFallbackRecommendations(limit), true);
         }
         
-        // Calculer les scores pour chaque livre candidat
-        List<RecommendationResult> recommendations = candidateBooks.stream()
-            .map(book -> calculateRecommendationScore(user, book))
-            .sorted((r1, r2) -> Double.compare(r2.getScore(), r1.getScore()))
-            .limit(limit)
-            .collect(Collectors.toList());
+        // Sans budget, les candidats sont classés par popularité seule (en mémoire)
+        if (deadline.isExpired()) {
+            return rankByPopularity(candidateBooks, limit);
+        }
+        
+        // 3. et 4. Score des candidats et diversification
+        Ranking ranking = rank(profile, candidateBooks, limit, deadline);
         
-        logger.info("Généré {} recommandations pour l'utilisateur {}", recommendations.size(), userId);
-        return recommendations;
+        logger.info("Généré {} recommandations pour l'utilisateur {}", ranking.results.size(), userId);
+        return ranking;
+    }
+    
+    /**
+     * Note les candidats (en parallèle) et garde les meilleurs, puis diversifie la liste
+     * (au plus MAX_PER_AUTHOR livres par auteur) si l'échéance le permet
+     */
+    private Ranking rank(UserPreferenceProfile profile, List<Book> candidates, int limit, Deadline deadline) {
+        List<RecommendationResult> scored = selectTop(profile, candidates, limit * RERANK_POOL_FACTOR);
+        if (deadline.isExpired()) {
+            return new Ranking(head(scored, limit), false);
+        }
+        return new Ranking(diversify(scored, limit), true);
+    }
+    
+    // Classement dégradé, sans préférences : popularité seule, calculée en mémoire
+    private Ranking rankByPopularity(List<Book> candidates, int limit) {
+        Book[] books = candidates.toArray(new Book[0]);
+        ZonedDateTime now = ZonedDateTime.now();
+        int[] best = TopK.select(books.length, limit, i -> calculatePopularityScore(books[i], now));
+        List<RecommendationResult> results = new ArrayList<>(best.length);
+        for (int index : best) {
+            results.add(new RecommendationResult(books[index], calculatePopularityScore(books[index], now), "Populaire"));
+        }
+        return new Ranking(results, false);
+    }
+    
+    /**
+     * Re-classement : parcourt la liste dans l'ordre des scores en écartant les livres d'un
+     * auteur déjà assez représenté, puis complète avec les écartés si la liste est trop courte
+     */
+    private static List<RecommendationResult> diversify(List<RecommendationResult> scored, int limit) {
+        List<RecommendationResult> results = new ArrayList<>(Math.min(limit, scored.size()));
+        List<RecommendationResult> deferred = new ArrayList<>();
+        Map<String, Integer> perAuthor = new HashMap<>();
+        for (RecommendationResult result : scored) {
+            if (results.size() == limit) {
+                break;
+            }
+            String author = result.getBook().getAuthor();
+            int count = author != null ? perAuthor.merge(author.trim().toLowerCase(Locale.ROOT), 1, Integer::sum) : 1;
+            if (count <= MAX_PER_AUTHOR) {
+                results.add(result);
+            } else {
+                deferred.add(result);
+            }
+        }
+        for (int i = 0; i < deferred.size() && results.size() < limit; i++) {
+            results.add(deferred.get(i));
+        }
+        return results;
     }
     
     /**
@@ -103,7 +553,7 @@ public class RecommendationService {
         int skip = 0;
         List<Book> booksInCategory = bookRepository.findByCategoryIdPaginated(categoryId, skip, limit * 2);
         
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<User> userOpt = userId != null ? userRepository.findById(userId) : Optional.empty();
         if (userOpt.isEmpty()) {
             return booksInCategory.stream()
                 .limit(limit)
@@ -112,16 +562,13 @@ public class RecommendationService {
         }
         
         User user = userOpt.get();
-        Set<Long> userFavoriteIds = user.getFavorites().stream()
-            .map(Book::getId)
-            .collect(Collectors.toSet());
+        UserPreferenceProfile profile = buildProfile(user.getId());
+        Set<Long> userFavoriteIds = new HashSet<>(favoriteRepository.findBookIdsByUserId(user.getId()));
         
-        return booksInCategory.stream()
+        List<Book> candidates = booksInCategory.stream()
             .filter(book -> !userFavoriteIds.contains(book.getId()))
-            .map(book -> calculateRecommendationScore(user, book))
-            .sorted((r1, r2) -> Double.compare(r2.getScore(), r1.getScore()))
-            .limit(limit)
             .collect(Collectors.toList());
+        return selectTop(profile, candidates, limit);
     }
     
     /**
@@ -130,29 +577,55 @@ public class RecommendationService {
     public List<RecommendationResult> getSimilarBooks(Long bookId, Long userId, int limit) {
         logger.info("Recherche de livres similaires au livre {} pour l'utilisateur {}", bookId, userId);
         
-        Optional<Book> targetBookOpt = bookRepository.findById(bookId);
-        if (targetBookOpt.isEmpty()) {
+        // Voisins pré-calculés (relations SIMILAR_TO), disponibles et hors favoris
+        Map<Long, Double> similar = similarityGraphService.findSimilar(bookId, userId, limit);
+        
+        // Seuls topK voisins sont enregistrés : une liste trop courte (limite plus grande,
+        // voisins en favoris ou indisponibles) est complétée par le classement en mémoire
+        if (similar.size() < limit) {
+            Set<Long> excluded = new HashSet<>(similar.keySet());
+            if (userId != null) {
+                excluded.addAll(favoriteRepository.findBookIdsByUserId(userId));
+            }
+            similarityGraphService.rankSimilar(bookId, excluded, limit - similar.size()).forEach(similar::putIfAbsent);
+        }
+        if (similar.isEmpty()) {
             return Collections.emptyList();
         }
         
-        Book targetBook = targetBookOpt.get();
-        List<Book> allBooks = bookRepository.findAll();
+        Map<Long, Book> books = bookRepository.findAllByIdWithRelations(new ArrayList<>(similar.keySet())).stream()
+            .collect(Collectors.toMap(Book::getId, book -> book));
         
-        Optional<User> userOpt = userRepository.findById(userId);
-        Set<Long> userFavoriteIds = userOpt.map(user -> 
-            user.getFavorites().stream().map(Book::getId).collect(Collectors.toSet())
-        ).orElse(Collections.emptySet());
+        return similar.entrySet().stream()
+            .filter(entry -> books.containsKey(entry.getKey()))
+            .map(entry -> new RecommendationResult(books.get(entry.getKey()), entry.getValue(), "Livre similaire"))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Livres téléchargés ou mis en favori par les lecteurs d'un livre donné (co-occurrences),
+     * disponibles et hors favoris de l'utilisateur
+     */
+    public List<RecommendationResult> getAlsoReadBooks(Long bookId, Long userId, int limit) {
+        logger.info("Recherche des livres lus aussi par les lecteurs du livre {} pour l'utilisateur {}", bookId, userId);
+        
+        Set<Long> favoriteIds = userId != null
+            ? new HashSet<>(favoriteRepository.findBookIdsByUserId(userId))
+            : Collections.emptySet();
+        Map<Long, Double> alsoRead = coOccurrenceService.findAlsoRead(bookId, limit + favoriteIds.size());
+        alsoRead.keySet().removeAll(favoriteIds);
+        if (alsoRead.isEmpty()) {
+            return Collections.emptyList();
+        }
         
-        return allBooks.stream()
-            .filter(book -> !book.getId().equals(bookId))
-            .filter(book -> book.getAvailable())
-            .filter(book -> !userFavoriteIds.contains(book.getId()))
-            .map(book -> {
-                double similarity = calculateContentSimilarity(targetBook, book);
-                return new RecommendationResult(book, similarity, "Livre similaire");
-            })
-            .sorted((r1, r2) -> Double.compare(r2.getScore(), r1.getScore()))
+        Map<Long, Book> books = bookRepository.findAllByIdWithRelations(new ArrayList<>(alsoRead.keySet())).stream()
+            .filter(book -> !Boolean.FALSE.equals(book.getAvailable()))
+            .collect(Collectors.toMap(Book::getId, book -> book));
+        
+        return alsoRead.entrySet().stream()
+            .filter(entry -> books.containsKey(entry.getKey()))
             .limit(limit)
+            .map(entry -> new RecommendationResult(books.get(entry.getKey()), entry.getValue(), "Lu aussi par ses lecteurs"))
             .collect(Collectors.toList());
     }
     
@@ -162,181 +635,79 @@ public class RecommendationService {
     public List<RecommendationResult> getTrendingRecommendations(int limit) {
         logger.info("Génération des recommandations tendances");
         
-        int skip = 0;
+        // Compteurs pas encore chargés (démarrage) : livres les plus téléchargés
+        if (!trendingService.isReady()) {
+            return getFallbackRecommendations(limit);
+        }
         
-        // Récupérer les livres les plus téléchargés récemment
-        List<Book> recentlyPopular = downloadHistoryRepository
-            .findBooksDownloadedAfterPaginated(ZonedDateTime.now().minus(7, ChronoUnit.DAYS), skip, limit * 2);
+        // Livres les plus actifs récemment, classés en continu par les compteurs en mémoire
+        List<TrendingService.TrendingBook> recentlyPopular = trendingService.getTrending(limit * 2);
+        ZonedDateTime now = ZonedDateTime.now();
         
         // Calculer un score de tendance basé sur l'activité récente
         return recentlyPopular.stream()
-            .map(book -> {
-                double trendScore = calculateTrendScore(book);
-                return new RecommendationResult(book, trendScore, "Tendance");
+            .map(trending -> {
+                double trendScore = calculateTrendScore(trending, now);
+                return new RecommendationResult(trending.getBook(), trendScore, buildTrendingReason(trending));
             })
             .sorted((r1, r2) -> Double.compare(r2.getScore(), r1.getScore()))
             .limit(limit)
             .collect(Collectors.toList());
     }
     
+    /**
+     * Les limit meilleurs candidats : notés en parallèle sur un tableau, sans tri complet ni
+     * objet par candidat ; seuls les livres retenus deviennent des RecommendationResult
+     */
+    private List<RecommendationResult> selectTop(UserPreferenceProfile profile, List<Book> candidates, int limit) {
+        Book[] books = candidates.toArray(new Book[0]);
+        ZonedDateTime now = ZonedDateTime.now();
+        int[] best = TopK.select(books.length, limit, i -> {
+            Book book = books[i];
+            return combineScores(profile.contentScore(book), profile.behaviorScore(book),
+                calculatePopularityScore(book, now));
+        });
+        
+        List<RecommendationResult> results = new ArrayList<>(best.length);
+        for (int index : best) {
+            results.add(calculateRecommendationScore(profile, books[index], now));
+        }
+        return results;
+    }
+    
     /**
      * Calcule le score de recommandation pour un livre donné et un utilisateur
      */
-    private RecommendationResult calculateRecommendationScore(User user, Book book) {
+    private RecommendationResult calculateRecommendationScore(UserPreferenceProfile profile, Book book, ZonedDateTime now) {
         // 1. Score de similarité de contenu
-        double contentScore = calculateContentScore(user, book);
+        double contentScore = profile.contentScore(book);
         
         // 2. Score comportemental
-        double behaviorScore = calculateBehaviorScore(user, book);
+        double behaviorScore = profile.behaviorScore(book);
         
         // 3. Score de popularité
-        double popularityScore = calculatePopularityScore(book);
-        
-        // Score final pondéré
-        double finalScore = (contentScore * CONTENT_WEIGHT) + 
-                           (behaviorScore * BEHAVIOR_WEIGHT) + 
-                           (popularityScore * POPULARITY_WEIGHT);
-        
-        // Normaliser le score entre 0 et 1
-        finalScore = Math.min(1.0, Math.max(0.0, finalScore));
+        double popularityScore = calculatePopularityScore(book, now);
         
+        double finalScore = combineScores(contentScore, behaviorScore, popularityScore);
         String reason = buildRecommendationReason(contentScore, behaviorScore, popularityScore);
         
         return new RecommendationResult(book, finalScore, reason);
     }
     
     /**
-     * Calcule le score de similarité de contenu entre les préférences utilisateur et un livre
-     * Utilise la similarité de Jaccard pour les tags + pondération catégorie
-     */
-    private double calculateContentScore(User user, Book book) {
-        Set<Book> userFavorites = user.getFavorites();
-        if (userFavorites.isEmpty()) {
-            return 0.3; // Score neutre si pas de favoris
-        }
-        
-        double maxSimilarity = 0.0;
-        
-        for (Book favorite : userFavorites) {
-            double similarity = calculateContentSimilarity(favorite, book);
-            maxSimilarity = Math.max(maxSimilarity, similarity);
-        }
-        
-        return maxSimilarity;
-    }
-    
-    /**
-     * Calcule la similarité de contenu entre deux livres
+     * Score final pondéré, normalisé entre 0 et 1
      */
-    private double calculateContentSimilarity(Book book1, Book book2) {
-        double categoryScore = 0.0;
-        double tagScore = 0.0;
-        double authorScore = 0.0;
-        
-        // Similarité de catégorie (poids fort)
-        if (book1.getCategory().getId().equals(book2.getCategory().getId())) {
-            categoryScore = 1.0;
-        }
-        
-        // Similarité d'auteur
-        if (book1.getAuthor().equalsIgnoreCase(book2.getAuthor())) {
-            authorScore = 1.0;
-        }
-        
-        // Similarité de tags (Jaccard Similarity)
-        Set<String> tags1 = book1.getTags().stream()
-            .map(Tag::getName)
-            .collect(Collectors.toSet());
-        Set<String> tags2 = book2.getTags().stream()
-            .map(Tag::getName)
-            .collect(Collectors.toSet());
-        
-        if (!tags1.isEmpty() || !tags2.isEmpty()) {
-            Set<String> intersection = new HashSet<>(tags1);
-            intersection.retainAll(tags2);
-            
-            Set<String> union = new HashSet<>(tags1);
-            union.addAll(tags2);
-            
-            tagScore = union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
-        }
-        
-        // Score final pondéré
-        return (categoryScore * 0.5) + (tagScore * 0.3) + (authorScore * 0.2);
-    }
-    
-    /**
-     * Calcule le score comportemental basé sur l'historique utilisateur
-     */
-    private double calculateBehaviorScore(User user, Book book) {
-        // Analyser les patterns de téléchargement de l'utilisateur
-        List<DownloadHistory> userDownloads = downloadHistoryRepository
-            .findByUserIdOrderByDownloadedAtDesc(user.getId());
-        
-        if (userDownloads.isEmpty()) {
-            return 0.2; // Score faible si pas d'historique
-        }
-        
-        // Analyser les catégories et tags préférés
-        Map<Long, Integer> categoryPreferences = new HashMap<>();
-        Map<String, Integer> tagPreferences = new HashMap<>();
-        Map<String, Integer> authorPreferences = new HashMap<>();
-        
-        // Analyser les favoris (poids plus fort)
-        for (Book favorite : user.getFavorites()) {
-            categoryPreferences.merge(favorite.getCategory().getId(), 2, Integer::sum);
-            authorPreferences.merge(favorite.getAuthor(), 2, Integer::sum);
-            for (Tag tag : favorite.getTags()) {
-                tagPreferences.merge(tag.getName(), 2, Integer::sum);
-            }
-        }
-        
-        // Analyser l'historique de téléchargement (poids moyen)
-        for (DownloadHistory download : userDownloads) {
-            Book downloadedBook = download.getBook();
-            categoryPreferences.merge(downloadedBook.getCategory().getId(), 1, Integer::sum);
-            authorPreferences.merge(downloadedBook.getAuthor(), 1, Integer::sum);
-            for (Tag tag : downloadedBook.getTags()) {
-                tagPreferences.merge(tag.getName(), 1, Integer::sum);
-            }
-        }
-        
-        // Calculer le score pour le livre candidat
-        double score = 0.0;
-        
-        // Score catégorie
-        Integer categoryPref = categoryPreferences.get(book.getCategory().getId());
-        if (categoryPref != null) {
-            score += Math.min(1.0, categoryPref / 10.0) * 0.4;
-        }
-        
-        // Score auteur
-        Integer authorPref = authorPreferences.get(book.getAuthor());
-        if (authorPref != null) {
-            score += Math.min(1.0, authorPref / 5.0) * 0.3;
-        }
-        
-        // Score tags
-        double tagScore = 0.0;
-        int tagCount = 0;
-        for (Tag tag : book.getTags()) {
-            Integer tagPref = tagPreferences.get(tag.getName());
-            if (tagPref != null) {
-                tagScore += Math.min(1.0, tagPref / 5.0);
-                tagCount++;
-            }
-        }
-        if (tagCount > 0) {
-            score += (tagScore / tagCount) * 0.3;
-        }
-        
-        return Math.min(1.0, score);
+    private static double combineScores(double contentScore, double behaviorScore, double popularityScore) {
+        double finalScore = (contentScore * CONTENT_WEIGHT) + 
+                           (behaviorScore * BEHAVIOR_WEIGHT) + 
+                           (popularityScore * POPULARITY_WEIGHT);
+        return Math.min(1.0, Math.max(0.0, finalScore));
     }
     
     /**
-     * Calcule le score de popularité d'un livre
+     * Calcule le score de popularité d'un livre à l'instant donné
      */
-    private double calculatePopularityScore(Book book) {
+    private double calculatePopularityScore(Book book, ZonedDateTime now) {
         // Normaliser les compteurs (supposons des valeurs max raisonnables)
         double downloadScore = Math.min(1.0, book.getDownloadCount() / 1000.0);
         double favoriteScore = Math.min(1.0, book.getFavoriteCount() / 100.0);
@@ -344,7 +715,7 @@ public class RecommendationService {
         // Facteur de fraîcheur (les nouveaux livres ont un petit boost)
         double freshnessScore = 0.0;
         if (book.getCreatedAt() != null) {
-            long daysOld = ChronoUnit.DAYS.between(book.getCreatedAt(), ZonedDateTime.now());
+            long daysOld = ChronoUnit.DAYS.between(book.getCreatedAt(), now);
             if (daysOld < 30) {
                 freshnessScore = 0.2 * (30 - daysOld) / 30.0;
             }
@@ -356,20 +727,34 @@ public class RecommendationService {
     /**
      * Calcule le score de tendance pour les recommandations trending
      */
-    private double calculateTrendScore(Book book) {
-        // Récupérer l'activité récente (7 derniers jours)
-        ZonedDateTime weekAgo = ZonedDateTime.now().minus(7, ChronoUnit.DAYS);
-        
-        long recentDownloads = downloadHistoryRepository
-            .countByBookIdAndDownloadedAtAfter(book.getId(), weekAgo);
-        
-        // Score basé sur l'activité récente vs activité totale
-        double recentActivity = Math.min(1.0, recentDownloads / 50.0); // Max 50 téléchargements/semaine
-        double totalPopularity = calculatePopularityScore(book);
+    private double calculateTrendScore(TrendingService.TrendingBook trending, ZonedDateTime now) {
+        // Score basé sur l'activité récente (téléchargements des 7 derniers jours, amortis) vs activité totale
+        double recentActivity = trending.getActivityScore();
+        double totalPopularity = calculatePopularityScore(trending.getBook(), now);
         
         return (recentActivity * 0.7) + (totalPopularity * 0.3);
     }
     
+    /**
+     * Explication d'une tendance : téléchargements de la période la plus courte où le livre est actif
+     */
+    private static String buildTrendingReason(TrendingService.TrendingBook trending) {
+        if (trending.getDownloadsLastHour() > 0) {
+            return "Tendance : " + downloads(trending.getDownloadsLastHour()) + " dans l'heure";
+        }
+        if (trending.getDownloadsLastDay() > 0) {
+            return "Tendance : " + downloads(trending.getDownloadsLastDay()) + " en 24 h";
+        }
+        if (trending.getDownloadsLastWeek() > 0) {
+            return "Tendance : " + downloads(trending.getDownloadsLastWeek()) + " cette semaine";
+        }
+        return "Tendance";
+    }
+    
+    private static String downloads(int count) {
+        return count + (count > 1 ? " téléchargements" : " téléchargement");
+    }
+    
     /**
      * Construit une explication pour la recommandation
      */
@@ -394,24 +779,146 @@ public class RecommendationService {
     }
     
     /**
-     * Récupère tous les livres candidats (excluant les favoris de l'utilisateur)
+     * Candidats du calcul en ligne, au plus MAX_ONLINE_CANDIDATES livres disponibles hors
+     * favoris : livres des catégories préférées, proches des favoris par les tags (bandes
+     * MinHash), voisins « lus aussi » et livres populaires, les plus téléchargés d'abord
      */
-    private List<Book> getAllCandidateBooks(User user) {
-        Set<Long> favoriteIds = user.getFavorites().stream()
-            .map(Book::getId)
-            .collect(Collectors.toSet());
+    private List<Book> getCandidateBooks(UserPreferenceProfile profile) {
+        Set<Long> categoryIds = new HashSet<>();
+        profile.getCategoryWeights().entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit(MAX_CANDIDATE_CATEGORIES)
+            .forEach(entry -> categoryIds.add(entry.getKey()));
+        for (Book favorite : profile.getFavorites()) {
+            if (favorite.getCategory() != null && categoryIds.size() < 2 * MAX_CANDIDATE_CATEGORIES) {
+                categoryIds.add(favorite.getCategory().getId());
+            }
+        }
         
-        return bookRepository.findAllAvailable().stream()
-            .filter(book -> !favoriteIds.contains(book.getId()))
-            .collect(Collectors.toList());
+        Set<Long> bookIds = new LinkedHashSet<>();
+        popularFallback.forEach(result -> bookIds.add(result.getBook().getId()));
+        bookIds.addAll(profile.getAlsoReadScores().keySet());
+        if (profile.getTagCandidates() != null) {
+            for (Long id : profile.getTagCandidates()) {
+                if (bookIds.size() >= MAX_ONLINE_CANDIDATES) {
+                    break;
+                }
+                bookIds.add(id);
+            }
+        }
+        
+        return bookRepository.findRecommendationCandidates(profile.getUserId(), categoryIds, bookIds,
+            MAX_ONLINE_CANDIDATES);
     }
     
     /**
-     * Recommandations de fallback quand l'utilisateur n'a pas d'historique
+     * Profil de préférences : favoris (en nombre borné) et vecteur de goûts, lus une fois
      */
-    private List<RecommendationResult> getFallbackRecommendations(int limit) {
-        logger.info("Génération de recommandations de fallback");
-        
+    private UserPreferenceProfile buildProfile(Long userId) {
+        List<Book> favorites = loadFavorites(userId);
+        TasteVector taste = tasteVectorService.get(userId);
+        // Livres aux tags proches de ceux d'un favori (bandes MinHash) : seuls comparés sur les tags
+        Set<Long> tagCandidates = similarityGraphService.findTagCandidates(favorites);
+        // Voisins « lus aussi » des favoris et des derniers livres téléchargés (matrice en mémoire)
+        Set<Long> seeds = new HashSet<>(taste.getRecentBooks());
+        favorites.forEach(favorite -> seeds.add(favorite.getId()));
+        Map<Long, Double> alsoReadScores = coOccurrenceService.scoreNeighbors(seeds);
+        return UserPreferenceProfile.build(userId, favorites, taste, tagCandidates, alsoReadScores);
+    }
+    
+    /**
+     * Favoris de l'utilisateur avec catégorie et tags, en nombre borné
+     */
+    private List<Book> loadFavorites(Long userId) {
+        return favoriteRepository.findByUserIdPaginated(userId, 0, MAX_PROFILE_FAVORITES);
+    }
+    
+    // Durée de vie dépassée, catalogue rechargé ou trop modifié depuis le calcul
+    private boolean isStale(CachedRecommendations cached, long now, long catalogVersion) {
+        return now - cached.computedAt > cacheTtlSeconds * 1000
+            || cached.computedAt < catalogReloadedAt
+            || catalogVersion - cached.catalogVersion > cacheCatalogDrift;
+    }
+    
+    /**
+     * Recalcule la liste de l'utilisateur sur l'exécuteur d'arrière-plan (une fois à la fois par
+     * utilisateur) ; file pleine : l'entrée périmée reste servie jusqu'à la prochaine demande
+     */
+    private void scheduleRefresh(Long userId) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long now = System.currentTimeMillis();
+                    long catalogVersion = catalogVersionService.current();
+                    long generation;
+                    synchronized (recommendationCache) {
+                        generation = generations[stripe(userId)];
+                    }
+                    cache(userId, loadPersonalizedRecommendations(userId, cachedListSize, Deadline.none()).results, generation,
+                        catalogVersion, now);
+                } catch (Exception e) {
+                    logger.error("Erreur lors du rafraîchissement des recommandations de l'utilisateur {}", userId, e);
+                } finally {
+                    refreshing.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(userId);
+            logger.debug("Rafraîchissement des recommandations de l'utilisateur {} différé (file pleine)", userId);
+        }
+    }
+    
+    /**
+     * Met la liste en cache, sauf si les goûts de l'utilisateur ont changé pendant le calcul
+     */
+    private List<RecommendationResult> cache(Long userId, List<RecommendationResult> results, long generation,
+                                             long catalogVersion, long computedAt) {
+        List<RecommendationResult> ranked = List.copyOf(results);
+        synchronized (recommendationCache) {
+            if (generation == generations[stripe(userId)]) {
+                recommendationCache.put(userId, new CachedRecommendations(ranked, catalogVersion, computedAt));
+            }
+        }
+        return ranked;
+    }
+    
+    private static List<RecommendationResult> head(List<RecommendationResult> results, int limit) {
+        return results.subList(0, Math.max(0, Math.min(limit, results.size())));
+    }
+    
+    private static int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+    
+    /**
+     * Recommandations de fallback quand l'utilisateur n'a pas d'historique : livres les plus
+     * téléchargés, servis depuis la liste calculée d'avance (lue en base tant qu'elle est vide)
+     */
+    public List<RecommendationResult> getFallbackRecommendations(int limit) {
+        List<RecommendationResult> popular = popularFallback;
+        if (popular.isEmpty() || limit > popular.size()) {
+            logger.info("Génération de recommandations de fallback");
+            return loadPopularBooks(limit);
+        }
+        return head(popular, limit);
+    }
+    
+    /**
+     * Recalcule la liste des livres populaires servie en repli
+     */
+    @Scheduled(fixedDelayString = "${app.recommendation.pipeline.fallback-refresh-ms:600000}")
+    public void refreshFallbackRecommendations() {
+        try {
+            popularFallback = List.copyOf(loadPopularBooks(fallbackSize));
+        } catch (Exception e) {
+            logger.error("Erreur lors du calcul des livres populaires de repli", e);
+        }
+    }
+    
+    private List<RecommendationResult> loadPopularBooks(int limit) {
         List<Book> popularBooks = bookRepository.findMostDownloadedPaginated(0, limit);
         
         return popularBooks.stream()
@@ -419,6 +926,52 @@ public class RecommendationService {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Liste calculée en ligne : complète, dégradée (étape sautée) ou remplacée par le repli
+     */
+    private static class Ranking {
+        private final List<RecommendationResult> results;
+        private final boolean complete;
+        private final boolean fallback;
+        
+        // Repli rendu pendant que le calcul se poursuit (son résultat sera mis en cache)
+        private final boolean pending;
+        
+        Ranking(List<RecommendationResult> results, boolean complete) {
+            this(results, complete, false, false);
+        }
+        
+        private Ranking(List<RecommendationResult> results, boolean complete, boolean fallback, boolean pending) {
+            this.results = results;
+            this.complete = complete;
+            this.fallback = fallback;
+            this.pending = pending;
+        }
+        
+        static Ranking fallback(List<RecommendationResult> results) {
+            return new Ranking(results, false, true, false);
+        }
+        
+        static Ranking pending(List<RecommendationResult> results) {
+            return new Ranking(results, false, true, true);
+        }
+    }
+    
+    /**
+     * Liste classée mise en cache pour un utilisateur
+     */
+    private static class CachedRecommendations {
+        private final List<RecommendationResult> results;
+        private final long catalogVersion;
+        private final long computedAt;
+        
+        CachedRecommendations(List<RecommendationResult> results, long catalogVersion, long computedAt) {
+            this.results = results;
+            this.catalogVersion = catalogVersion;
+            this.computedAt = computedAt;
+        }
+    }
+    
     /**
      * Classe interne pour représenter un résultat de recommandation
      */
@@ -0,0 +1,669 @@
+package com.library.service;
+
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Book;
+import com.library.model.Tag;
+import com.library.repository.BookRepository;
+import com.library.util.MinHash;
+import com.library.util.TopK;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Graphe de similarité des livres : pour chaque livre, les topK livres les plus proches
+ * (catégorie, Jaccard sur les tags, auteur) sont enregistrés comme relations pondérées
+ * (:Book)-[:SIMILAR_TO {score}]->(:Book), et « livres similaires » devient une lecture
+ * à un saut. Le calcul ne compare un livre qu'à ses candidats : livres partageant sa
+ * catégorie, son auteur ou une bande MinHash de ses tags (LSH, voir {@link MinHash}),
+ * c'est-à-dire des ensembles de tags proches ; le Jaccard exact n'est calculé que pour
+ * eux. Les mêmes bandes servent aux recommandations personnalisées
+ * ({@link #findTagCandidates}). Le graphe est reconstruit en tâche de fond
+ * (rechargement du catalogue, chaque nuit) et corrigé pour le seul livre concerné quand
+ * sa catégorie, ses tags ou son auteur changent.
+ */
+@Service
+public class SimilarityGraphService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SimilarityGraphService.class);
+    
+    // Pondération de la similarité de contenu
+    private static final double CATEGORY_WEIGHT = 0.5;
+    private static final double TAG_WEIGHT = 0.3;
+    private static final double AUTHOR_WEIGHT = 0.2;
+    
+    // Livres lus au plus par catégorie, auteur ou bande pour chercher les candidats d'un livre,
+    // pour borner le coût des valeurs très répandues (grande catégorie, auteur prolifique).
+    // Approximation : un livre de la liste non lu mais mieux noté (tags ou auteur en commun)
+    // n'est retrouvé que par une autre de ses clés, sinon il manque aux voisins enregistrés
+    private static final int MAX_POSTINGS_SCANNED = 2000;
+    
+    // Listes de voisins écrites par requête UNWIND
+    private static final int WRITE_BATCH_SIZE = 1000;
+    
+    // Remplace les relations SIMILAR_TO sortantes de chaque livre du lot
+    private static final String REPLACE_SIMILAR =
+        "UNWIND $rows AS row " +
+        "MATCH (a:Book) WHERE id(a) = row.id " +
+        "CALL { " +
+        "  WITH a " +
+        "  MATCH (a)-[old:SIMILAR_TO]->() " +
+        "  DELETE old " +
+        "} " +
+        "WITH a, row " +
+        "UNWIND row.similar AS similar " +
+        "MATCH (b:Book) WHERE id(b) = similar.id " +
+        "CREATE (a)-[:SIMILAR_TO {score: similar.score}]->(b)";
+    
+    // Voisins disponibles d'un livre, hors favoris de l'utilisateur ($userId null = aucun)
+    private static final String FIND_SIMILAR =
+        "MATCH (a:Book)-[s:SIMILAR_TO]->(b:Book) " +
+        "WHERE id(a) = $bookId AND b.available = true " +
+        "  AND ($userId IS NULL OR NOT EXISTS { " +
+        "    MATCH (u:User)-[:FAVORITES]->(b) WHERE id(u) = $userId " +
+        "  }) " +
+        "RETURN id(b) AS id, s.score AS score " +
+        "ORDER BY score DESC, id ASC " +
+        "LIMIT $limit";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.recommendation.similarity.top-k:20}")
+    private int topK;
+    
+    // État du graphe (accès synchronisés sur lock) : profils, listes inversées, voisins ;
+    // une reconstruction le calcule à part puis le remplace d'un coup
+    private final Object lock = new Object();
+    private Map<Long, Profile> profiles = new HashMap<>();
+    private Map<String, Set<Long>> postings = new HashMap<>();
+    private Map<Long, List<Neighbor>> neighbors = new HashMap<>();
+    private Map<Long, Set<Long>> incoming = new HashMap<>();
+    private Set<Long> unavailable = new HashSet<>();
+    private boolean ready;
+    
+    // Écritures du graphe (reconstruction, corrections) une à la fois, dans l'ordre de leur
+    // calcul, pour que les relations enregistrées suivent les voisins en mémoire ; pris avant
+    // lock et gardé pendant les écritures Neo4j, que les lectures n'attendent pas
+    private final Object writeLock = new Object();
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private volatile long lastBuildTimeMs;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.similarity.books", this, SimilarityGraphService::getBookCount)
+            .description("Livres présents dans le graphe de similarité")
+            .register(meterRegistry);
+        Gauge.builder("library.similarity.build.time", this, SimilarityGraphService::getLastBuildTimeMs)
+            .description("Durée de la dernière reconstruction du graphe de similarité (ms)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Livres similaires disponibles, du plus proche au plus éloigné
+     *
+     * @param userId utilisateur dont les favoris sont exclus (null = aucun)
+     * @return identifiants des livres avec leur score, dans l'ordre
+     */
+    public Map<Long, Double> findSimilar(Long bookId, Long userId, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bookId", bookId);
+        parameters.put("userId", userId);
+        parameters.put("limit", limit);
+        
+        Map<Long, Double> similar = new LinkedHashMap<>();
+        neo4jClient.query(FIND_SIMILAR)
+            .bindAll(parameters)
+            .fetch().all()
+            .forEach(row -> similar.put(((Number) row.get("id")).longValue(), ((Number) row.get("score")).doubleValue()));
+        return similar;
+    }
+    
+    /**
+     * Livres disponibles classés par similarité avec le livre, scores nuls compris, hors
+     * livres exclus : complète une liste de voisins enregistrés trop courte (limite
+     * au-delà de topK, voisins en favoris). Vide tant que le graphe n'est pas construit.
+     */
+    public Map<Long, Double> rankSimilar(Long bookId, Set<Long> excluded, int limit) {
+        Profile profile;
+        List<Long> ids = new ArrayList<>();
+        List<Profile> candidates = new ArrayList<>();
+        synchronized (lock) {
+            profile = profiles.get(bookId);
+            if (!ready || profile == null) {
+                return new LinkedHashMap<>();
+            }
+            profiles.forEach((id, candidate) -> {
+                if (!id.equals(bookId) && !excluded.contains(id) && !unavailable.contains(id)) {
+                    ids.add(id);
+                    candidates.add(candidate);
+                }
+            });
+        }
+        
+        int[] best = TopK.select(ids.size(), limit, i -> similarity(profile, candidates.get(i), true));
+        Map<Long, Double> ranked = new LinkedHashMap<>();
+        for (int i : best) {
+            ranked.put(ids.get(i), similarity(profile, candidates.get(i), true));
+        }
+        return ranked;
+    }
+    
+    /**
+     * Correction du graphe après l'écriture d'un livre, si son contenu a changé
+     */
+    @Async
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            if (event.isDeleted() || event.getBook() == null) {
+                remove(event.getBookId());
+            } else {
+                update(event.getBook());
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour des livres similaires au livre {}", event.getBookId(), e);
+        }
+    }
+    
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        logger.debug("Reconstruction du graphe de similarité demandée ({})", event.getReason());
+        rebuild();
+    }
+    
+    /**
+     * Reconstruction de nuit : rattrape les corrections approximatives de la journée
+     */
+    @Scheduled(cron = "${app.recommendation.similarity.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+    
+    /**
+     * Recalcule les voisins de tous les livres ; les demandes reçues pendant une
+     * reconstruction sont regroupées en une seule reconstruction suivante
+     */
+    public void rebuild() {
+        rebuildRequested.set(true);
+        while (rebuildRequested.get() && rebuilding.compareAndSet(false, true)) {
+            try {
+                while (rebuildRequested.getAndSet(false)) {
+                    rebuildGraph();
+                }
+            } catch (Exception e) {
+                logger.error("Erreur lors de la reconstruction du graphe de similarité", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+    }
+    
+    public int getBookCount() {
+        synchronized (lock) {
+            return profiles.size();
+        }
+    }
+    
+    public long getLastBuildTimeMs() { return lastBuildTimeMs; }
+    
+    /**
+     * Similarité de contenu entre deux livres, entre 0 et 1, sans la part des tags si
+     * compareTags est faux (livres sans bande MinHash commune : Jaccard presque toujours faible)
+     */
+    public static double similarity(Book book1, Book book2, boolean compareTags) {
+        return similarity(Profile.of(book1), Profile.of(book2), compareTags);
+    }
+    
+    /**
+     * Livres dont les tags partagent une bande MinHash avec ceux d'au moins un des livres
+     * donnés : candidats à une similarité de tags notable
+     *
+     * @return identifiants des candidats, ou null si le graphe n'est pas encore construit
+     */
+    public Set<Long> findTagCandidates(Collection<Book> books) {
+        synchronized (lock) {
+            if (!ready) {
+                return null;
+            }
+            Set<Long> candidates = new HashSet<>();
+            for (Book book : books) {
+                Profile profile = profiles.get(book.getId());
+                if (profile == null) {
+                    profile = Profile.of(book);
+                }
+                for (String band : profile.bands()) {
+                    Set<Long> posting = postings.get(band);
+                    if (posting != null) {
+                        candidates.addAll(posting);
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+    
+    private void rebuildGraph() {
+        synchronized (writeLock) {
+            long start = System.currentTimeMillis();
+            List<Book> books = bookRepository.findAllWithRelations();
+            
+            // Graphe calculé hors du verrou : les lectures continuent sur l'ancien
+            Map<Long, Profile> builtProfiles = new HashMap<>();
+            Map<String, Set<Long>> builtPostings = new HashMap<>();
+            Set<Long> builtUnavailable = new HashSet<>();
+            for (Book book : books) {
+                if (book.getId() != null) {
+                    index(builtProfiles, builtPostings, book.getId(), Profile.of(book));
+                    if (!Boolean.TRUE.equals(book.getAvailable())) {
+                        builtUnavailable.add(book.getId());
+                    }
+                }
+            }
+            Map<Long, List<Neighbor>> builtNeighbors = new HashMap<>();
+            Map<Long, Set<Long>> builtIncoming = new HashMap<>();
+            for (Map.Entry<Long, Profile> entry : builtProfiles.entrySet()) {
+                List<Neighbor> similar = computeNeighbors(entry.getKey(), entry.getValue(), builtProfiles, builtPostings);
+                builtNeighbors.put(entry.getKey(), similar);
+                similar.forEach(neighbor ->
+                    builtIncoming.computeIfAbsent(neighbor.id, key -> new HashSet<>()).add(entry.getKey()));
+            }
+            
+            // Seules les listes différentes de celles déjà enregistrées sont réécrites
+            Map<Long, List<Neighbor>> changed = new LinkedHashMap<>();
+            synchronized (lock) {
+                builtNeighbors.forEach((id, similar) -> {
+                    if (!similar.equals(neighbors.get(id))) {
+                        changed.put(id, similar);
+                    }
+                });
+                profiles = builtProfiles;
+                postings = builtPostings;
+                neighbors = builtNeighbors;
+                incoming = builtIncoming;
+                unavailable = builtUnavailable;
+                ready = true;
+            }
+            write(changed);
+            
+            lastBuildTimeMs = System.currentTimeMillis() - start;
+            logger.info("Graphe de similarité construit: {} livres, {} listes réécrites en {} ms",
+                builtProfiles.size(), changed.size(), lastBuildTimeMs);
+        }
+    }
+    
+    private void update(Book book) {
+        synchronized (writeLock) {
+            Map<Long, List<Neighbor>> changed;
+            synchronized (lock) {
+                changed = applyUpdate(book);
+            }
+            if (!changed.isEmpty()) {
+                write(changed);
+                logger.debug("Graphe de similarité corrigé pour le livre {}: {} listes réécrites",
+                    book.getId(), changed.size());
+            }
+        }
+    }
+    
+    // Appelé sous lock : voisins corrigés en mémoire, listes à réécrire en retour
+    private Map<Long, List<Neighbor>> applyUpdate(Book book) {
+        Long id = book.getId();
+        Profile profile = Profile.of(book);
+        Map<Long, List<Neighbor>> changed = new LinkedHashMap<>();
+        // Avant la première construction, le livre sera lu par la reconstruction
+        if (!ready) {
+            return changed;
+        }
+        if (Boolean.TRUE.equals(book.getAvailable())) {
+            unavailable.remove(id);
+        } else {
+            unavailable.add(id);
+        }
+        // Compteurs, disponibilité, description : les voisins ne changent pas
+        Profile previous = profiles.get(id);
+        if (profile.equals(previous)) {
+            return changed;
+        }
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        index(profiles, postings, id, profile);
+        
+        List<Neighbor> similar = computeNeighbors(id, profile, profiles, postings);
+        setNeighbors(id, similar);
+        changed.put(id, similar);
+        
+        // Les livres qui citaient ce livre sont recalculés : son score a changé
+        Set<Long> sources = new HashSet<>(incoming.getOrDefault(id, Collections.emptySet()));
+        for (Long source : sources) {
+            List<Neighbor> recomputed = computeNeighbors(source, profiles.get(source), profiles, postings);
+            setNeighbors(source, recomputed);
+            changed.put(source, recomputed);
+        }
+        
+        // Le livre entre dans les voisins des candidats dont il dépasse le moins proche
+        scanCandidates(id, profile, profiles, postings, (candidate, score) -> {
+            if (sources.contains(candidate)) {
+                return;
+            }
+            List<Neighbor> current = neighbors.getOrDefault(candidate, Collections.emptyList());
+            if (current.size() < topK || score > current.get(current.size() - 1).score) {
+                List<Neighbor> inserted = new ArrayList<>(current);
+                inserted.add(new Neighbor(id, score));
+                inserted.sort(Neighbor.ORDER);
+                if (inserted.size() > topK) {
+                    inserted.remove(inserted.size() - 1);
+                }
+                setNeighbors(candidate, inserted);
+                changed.put(candidate, inserted);
+            }
+        });
+        return changed;
+    }
+    
+    private void remove(Long id) {
+        synchronized (writeLock) {
+            Map<Long, List<Neighbor>> changed = new LinkedHashMap<>();
+            synchronized (lock) {
+                unavailable.remove(id);
+                Profile previous = profiles.remove(id);
+                if (previous == null) {
+                    return;
+                }
+                unindex(id, previous);
+                setNeighbors(id, null);
+                
+                // Les relations du livre ont disparu avec lui ; ses sources perdent un voisin
+                Set<Long> sources = incoming.remove(id);
+                if (sources != null) {
+                    for (Long source : sources) {
+                        List<Neighbor> recomputed = computeNeighbors(source, profiles.get(source), profiles, postings);
+                        setNeighbors(source, recomputed);
+                        changed.put(source, recomputed);
+                    }
+                }
+            }
+            write(changed);
+        }
+    }
+    
+    /**
+     * topK voisins du livre, du plus proche au plus éloigné
+     */
+    private List<Neighbor> computeNeighbors(Long id, Profile profile, Map<Long, Profile> profiles,
+                                            Map<String, Set<Long>> postings) {
+        // Tas des meilleurs voisins : le moins proche en tête
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(topK + 1, Neighbor.ORDER.reversed());
+        scanCandidates(id, profile, profiles, postings, (candidate, score) -> {
+            best.add(new Neighbor(candidate, score));
+            if (best.size() > topK) {
+                best.poll();
+            }
+        });
+        List<Neighbor> similar = new ArrayList<>(best);
+        similar.sort(Neighbor.ORDER);
+        return similar;
+    }
+    
+    /**
+     * Score exact des livres partageant la catégorie, l'auteur ou une bande MinHash du livre (score > 0)
+     */
+    private static void scanCandidates(Long id, Profile profile, Map<Long, Profile> profiles,
+                                       Map<String, Set<Long>> postings, BiConsumer<Long, Double> consumer) {
+        Set<Long> seen = new HashSet<>();
+        seen.add(id);
+        for (String key : profile.keys()) {
+            Set<Long> posting = postings.get(key);
+            if (posting == null) {
+                continue;
+            }
+            int scanned = 0;
+            for (Long candidate : posting) {
+                if (++scanned > MAX_POSTINGS_SCANNED) {
+                    break;
+                }
+                if (seen.add(candidate)) {
+                    double score = similarity(profile, profiles.get(candidate), true);
+                    if (score > 0) {
+                        consumer.accept(candidate, score);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void setNeighbors(Long id, List<Neighbor> similar) {
+        List<Neighbor> previous = similar != null ? neighbors.put(id, similar) : neighbors.remove(id);
+        if (previous != null) {
+            for (Neighbor neighbor : previous) {
+                Set<Long> sources = incoming.get(neighbor.id);
+                if (sources != null) {
+                    sources.remove(id);
+                }
+            }
+        }
+        if (similar != null) {
+            for (Neighbor neighbor : similar) {
+                incoming.computeIfAbsent(neighbor.id, key -> new HashSet<>()).add(id);
+            }
+        }
+    }
+    
+    private static void index(Map<Long, Profile> profiles, Map<String, Set<Long>> postings, Long id,
+                              Profile profile) {
+        profiles.put(id, profile);
+        for (String key : profile.keys()) {
+            postings.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+        }
+    }
+    
+    private void unindex(Long id, Profile profile) {
+        for (String key : profile.keys()) {
+            Set<Long> posting = postings.get(key);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+    
+    private void write(Map<Long, List<Neighbor>> changed) {
+        try {
+            writeBatches(changed);
+        } catch (RuntimeException e) {
+            // Listes non enregistrées : oubliées pour être réécrites à la prochaine reconstruction
+            synchronized (lock) {
+                neighbors.keySet().removeAll(changed.keySet());
+            }
+            throw e;
+        }
+    }
+    
+    private void writeBatches(Map<Long, List<Neighbor>> changed) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<Long, List<Neighbor>> entry : changed.entrySet()) {
+            List<Map<String, Object>> similar = new ArrayList<>(entry.getValue().size());
+            for (Neighbor neighbor : entry.getValue()) {
+                similar.add(Map.of("id", neighbor.id, "score", neighbor.score));
+            }
+            rows.add(Map.of("id", entry.getKey(), "similar", similar));
+            if (rows.size() == WRITE_BATCH_SIZE) {
+                neo4jClient.query(REPLACE_SIMILAR).bind(rows).to("rows").run();
+                rows = new ArrayList<>();
+            }
+        }
+        if (!rows.isEmpty()) {
+            neo4jClient.query(REPLACE_SIMILAR).bind(rows).to("rows").run();
+        }
+    }
+    
+    /**
+     * Similarité de contenu entre deux profils (voir {@link #similarity(Book, Book, boolean)})
+     */
+    public static double similarity(Profile profile1, Profile profile2, boolean compareTags) {
+        if (profile2 == null) {
+            return 0.0;
+        }
+        double score = 0.0;
+        if (profile1.categoryId != null && profile1.categoryId.equals(profile2.categoryId)) {
+            score += CATEGORY_WEIGHT;
+        }
+        if (profile1.author != null && profile1.author.equals(profile2.author)) {
+            score += AUTHOR_WEIGHT;
+        }
+        
+        // Jaccard : |intersection| / |union|
+        if (compareTags && !profile1.tags.isEmpty() && !profile2.tags.isEmpty()) {
+            int common = 0;
+            for (String tag : profile1.tags) {
+                if (profile2.tags.contains(tag)) {
+                    common++;
+                }
+            }
+            int union = profile1.tags.size() + profile2.tags.size() - common;
+            score += TAG_WEIGHT * common / union;
+        }
+        return score;
+    }
+    
+    /**
+     * Contenu d'un livre utilisé par la similarité
+     */
+    public static final class Profile {
+        private final Long categoryId;
+        private final String author;
+        private final Set<String> tags;
+        
+        // Clés des bandes MinHash des tags, calculées au premier besoin
+        private String[] bands;
+        
+        private Profile(Long categoryId, String author, Set<String> tags) {
+            this.categoryId = categoryId;
+            this.author = author;
+            this.tags = tags;
+        }
+        
+        public static Profile of(Book book) {
+            Set<String> tags = new HashSet<>();
+            if (book.getTags() != null) {
+                for (Tag tag : book.getTags()) {
+                    if (tag.getName() != null) {
+                        tags.add(tag.getName());
+                    }
+                }
+            }
+            String author = book.getAuthor() != null ? book.getAuthor().trim().toLowerCase(Locale.ROOT) : null;
+            Long categoryId = book.getCategory() != null ? book.getCategory().getId() : null;
+            return new Profile(categoryId, author == null || author.isEmpty() ? null : author, tags);
+        }
+        
+        // Clés des listes inversées où figure le livre
+        List<String> keys() {
+            String[] bands = bands();
+            List<String> keys = new ArrayList<>(bands.length + 2);
+            Collections.addAll(keys, bands);
+            if (author != null) {
+                keys.add("a:" + author);
+            }
+            if (categoryId != null) {
+                keys.add("c:" + categoryId);
+            }
+            return keys;
+        }
+        
+        String[] bands() {
+            if (bands == null) {
+                bands = MinHash.bandKeys(MinHash.signature(tags));
+            }
+            return bands;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            
+            Profile that = (Profile) o;
+            return Objects.equals(categoryId, that.categoryId)
+                && Objects.equals(author, that.author)
+                && tags.equals(that.tags);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryId, author, tags);
+        }
+    }
+    
+    /**
+     * Voisin d'un livre avec son score
+     */
+    private static final class Neighbor {
+        // Score décroissant, puis identifiant croissant
+        static final Comparator<Neighbor> ORDER = Comparator
+            .comparingDouble((Neighbor neighbor) -> -neighbor.score)
+            .thenComparingLong(neighbor -> neighbor.id);
+        
+        private final long id;
+        private final double score;
+        
+        Neighbor(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            
+            Neighbor that = (Neighbor) o;
+            return id == that.id && score == that.score;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, score);
+        }
+    }
+}
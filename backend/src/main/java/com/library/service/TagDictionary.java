@@ -0,0 +1,102 @@
+package com.library.service;
+
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Tag;
+import com.library.repository.TagRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résolution des noms de tags en entités Tag pour la création et la modification de livres.
+ * Les noms connus sont servis par un cache en mémoire ; les autres sont retrouvés ou créés
+ * par un seul MERGE ensembliste, quel que soit leur nombre. Le cache est vidé à chaque
+ * rechargement du catalogue, publié notamment par toute modification ou suppression de tag.
+ */
+@Service
+public class TagDictionary {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TagDictionary.class);
+    
+    @Autowired
+    private TagRepository tagRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Map<String, Tag> tagsByName = new ConcurrentHashMap<>();
+    
+    private Counter hits;
+    private Counter misses;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.tags.cache.size", tagsByName, Map::size)
+            .description("Tags présents dans le cache nom → tag")
+            .register(meterRegistry);
+        hits = Counter.builder("library.tags.cache.requests")
+            .tag("result", "hit")
+            .description("Noms de tags résolus par le cache")
+            .register(meterRegistry);
+        misses = Counter.builder("library.tags.cache.requests")
+            .tag("result", "miss")
+            .description("Noms de tags résolus par Neo4j")
+            .register(meterRegistry);
+    }
+    
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        tagsByName.clear();
+        logger.debug("Cache des tags vidé ({})", event.getReason());
+    }
+    
+    /**
+     * Tags portant ces noms, créés si nécessaire (noms vides ignorés)
+     */
+    public Set<Tag> resolve(Collection<String> names) {
+        Set<Tag> tags = new LinkedHashSet<>();
+        if (names == null) {
+            return tags;
+        }
+        
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            Tag cached = tagsByName.get(name);
+            if (cached != null) {
+                tags.add(cached);
+            } else {
+                missing.add(name);
+            }
+        }
+        hits.increment(tags.size());
+        
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            // Un seul aller-retour pour tous les tags absents du cache, existants ou nouveaux
+            List<Tag> merged = tagRepository.mergeAllByName(new ArrayList<>(missing));
+            for (Tag tag : merged) {
+                tagsByName.put(tag.getName(), tag);
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,174 @@
+package com.library.service;
+
+import com.library.model.Book;
+import com.library.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vecteur de goûts d'un utilisateur : poids par catégorie, auteur et tag, cumulés à chaque
+ * téléchargement ou favori et amortis exponentiellement avec le temps (demi-vie), avec les
+ * compteurs d'activité. Mis à jour à chaque événement sans relire l'historique.
+ */
+public class TasteVector {
+    
+    // Poids en dessous duquel une préférence est oubliée
+    static final double MIN_WEIGHT = 0.01;
+    
+    // Derniers livres téléchargés ou mis en favori gardés (voisins « lus aussi »)
+    static final int MAX_RECENT_BOOKS = 20;
+    
+    private final Long userId;
+    private long updatedAt;
+    private long downloads;
+    private long favorites;
+    private Long createdAt;
+    private Long firstActivity;
+    private Long lastActivity;
+    private final Map<Long, Double> categories = new HashMap<>();
+    private final Map<String, Double> authors = new HashMap<>();
+    private final Map<String, Double> tags = new HashMap<>();
+    private final List<Long> recentBooks = new ArrayList<>();
+    
+    /**
+     * @param updatedAt instant (millisecondes) auquel correspondent les poids
+     */
+    public TasteVector(Long userId, long updatedAt) {
+        this.userId = userId;
+        this.updatedAt = updatedAt;
+    }
+    
+    /**
+     * Amortit tous les poids jusqu'à l'instant donné (millisecondes)
+     */
+    public void decayTo(long now, long halfLifeMs) {
+        if (now <= updatedAt) {
+            return;
+        }
+        double factor = Math.pow(0.5, (double) (now - updatedAt) / halfLifeMs);
+        decay(categories, factor);
+        decay(authors, factor);
+        decay(tags, factor);
+        updatedAt = now;
+    }
+    
+    /**
+     * Ajoute (ou retire, si weight est négatif) le contenu du livre aux préférences
+     */
+    public void add(Book book, double weight) {
+        List<String> tagNames = new ArrayList<>();
+        if (book.getTags() != null) {
+            for (Tag tag : book.getTags()) {
+                tagNames.add(tag.getName());
+            }
+        }
+        add(book.getCategory() != null ? book.getCategory().getId() : null, book.getAuthor(), tagNames, weight);
+    }
+    
+    /**
+     * Ajoute (ou retire) une catégorie, un auteur et des tags aux préférences
+     */
+    public void add(Long categoryId, String author, Collection<String> tagNames, double weight) {
+        if (categoryId != null) {
+            merge(categories, categoryId, weight);
+        }
+        if (author != null) {
+            merge(authors, author, weight);
+        }
+        if (tagNames != null) {
+            for (String tag : tagNames) {
+                merge(tags, tag, weight);
+            }
+        }
+    }
+    
+    /**
+     * Place le livre en tête des livres récents (le plus ancien sort au-delà de MAX_RECENT_BOOKS)
+     */
+    public void touch(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        recentBooks.remove(bookId);
+        recentBooks.add(0, bookId);
+        if (recentBooks.size() > MAX_RECENT_BOOKS) {
+            recentBooks.subList(MAX_RECENT_BOOKS, recentBooks.size()).clear();
+        }
+    }
+    
+    /**
+     * Ne garde que les préférences les plus fortes de chaque sorte (vecteur compact)
+     */
+    public void trim(int maxCategories, int maxAuthors, int maxTags) {
+        keepStrongest(categories, maxCategories);
+        keepStrongest(authors, maxAuthors);
+        keepStrongest(tags, maxTags);
+    }
+    
+    /**
+     * Enregistre un téléchargement à l'instant donné (millisecondes)
+     */
+    public void recordDownload(long at) {
+        downloads++;
+        if (firstActivity == null || at < firstActivity) {
+            firstActivity = at;
+        }
+        if (lastActivity == null || at > lastActivity) {
+            lastActivity = at;
+        }
+    }
+    
+    public Long getUserId() { return userId; }
+    public long getUpdatedAt() { return updatedAt; }
+    
+    public long getDownloads() { return downloads; }
+    public void setDownloads(long downloads) { this.downloads = downloads; }
+    
+    public long getFavorites() { return favorites; }
+    public void setFavorites(long favorites) { this.favorites = Math.max(0, favorites); }
+    
+    public Long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Long createdAt) { this.createdAt = createdAt; }
+    
+    public Long getFirstActivity() { return firstActivity; }
+    public void setFirstActivity(Long firstActivity) { this.firstActivity = firstActivity; }
+    
+    public Long getLastActivity() { return lastActivity; }
+    public void setLastActivity(Long lastActivity) { this.lastActivity = lastActivity; }
+    
+    public Map<Long, Double> getCategories() { return Collections.unmodifiableMap(categories); }
+    public Map<String, Double> getAuthors() { return Collections.unmodifiableMap(authors); }
+    public Map<String, Double> getTags() { return Collections.unmodifiableMap(tags); }
+    public List<Long> getRecentBooks() { return Collections.unmodifiableList(recentBooks); }
+    
+    private static <K> void merge(Map<K, Double> weights, K key, double weight) {
+        double merged = weights.getOrDefault(key, 0.0) + weight;
+        if (merged < MIN_WEIGHT) {
+            weights.remove(key);
+        } else {
+            weights.put(key, merged);
+        }
+    }
+    
+    private static <K> void keepStrongest(Map<K, Double> weights, int max) {
+        if (weights.size() <= max) {
+            return;
+        }
+        List<Map.Entry<K, Double>> entries = new ArrayList<>(weights.entrySet());
+        entries.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        for (Map.Entry<K, Double> entry : entries.subList(max, entries.size())) {
+            weights.remove(entry.getKey());
+        }
+    }
+    
+    private static <K> void decay(Map<K, Double> weights, double factor) {
+        weights.replaceAll((key, weight) -> weight * factor);
+        weights.values().removeIf(weight -> weight < MIN_WEIGHT);
+    }
+}
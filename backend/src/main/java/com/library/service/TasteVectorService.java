@@ -0,0 +1,308 @@
+package com.library.service;
+
+import com.library.event.UserTasteChangedEvent;
+import com.library.model.Book;
+import com.library.repository.DownloadHistoryRepository;
+import com.library.repository.DownloadHistoryRepository.DownloadedBook;
+import com.library.repository.FavoriteRepository;
+import com.library.repository.FavoriteRepository.FavoriteBook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Vecteurs de goûts des utilisateurs, enregistrés dans un nœud :TasteVector par utilisateur
+ * (listes parallèles clés / poids). Chaque téléchargement ou changement de favori amortit
+ * le vecteur jusqu'à maintenant puis y ajoute le livre : la lecture est en O(1) quelle que
+ * soit la longueur de l'historique. Un vecteur absent (utilisateur antérieur à ce mécanisme)
+ * est construit une fois à partir des favoris et de l'historique de téléchargement.
+ */
+@Service
+public class TasteVectorService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TasteVectorService.class);
+    
+    private static final double FAVORITE_WEIGHT = 2.0;
+    private static final double DOWNLOAD_WEIGHT = 1.0;
+    
+    // Préférences conservées par sorte dans le vecteur enregistré
+    private static final int MAX_CATEGORIES = 50;
+    private static final int MAX_AUTHORS = 100;
+    private static final int MAX_TAGS = 200;
+    
+    // Historique lu pour construire un vecteur absent
+    private static final int BOOTSTRAP_FAVORITES = 1000;
+    private static final int BOOTSTRAP_DOWNLOADED_BOOKS = 5000;
+    
+    // Verrous par utilisateur (haché) : deux événements du même utilisateur ne se perdent pas
+    private static final int LOCK_STRIPES = 64;
+    
+    private static final String LOAD_VECTOR =
+        "MATCH (v:TasteVector {userId: $userId}) RETURN properties(v) AS vector";
+    
+    private static final String SAVE_VECTOR =
+        "MERGE (v:TasteVector {userId: $userId}) SET v += $properties";
+    
+    // Goûts changés : la liste pré-calculée de l'utilisateur est périmée, retirée dans la même écriture
+    private static final String UPDATE_VECTOR =
+        SAVE_VECTOR + " " +
+        "WITH v MATCH (u:User)-[r:RECOMMENDED]->() WHERE id(u) = $userId DELETE r";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
+    @Autowired
+    private DownloadHistoryRepository downloadHistoryRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.recommendation.taste.half-life-days:90}")
+    private long halfLifeDays;
+    
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    public TasteVectorService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    /**
+     * Vecteur de l'utilisateur amorti jusqu'à maintenant (construit s'il n'existe pas encore)
+     */
+    public TasteVector get(Long userId) {
+        synchronized (lockFor(userId)) {
+            long now = System.currentTimeMillis();
+            TasteVector vector = load(userId).orElseGet(() -> {
+                TasteVector built = bootstrap(userId, now);
+                save(built, SAVE_VECTOR);
+                return built;
+            });
+            vector.decayTo(now, halfLifeMs());
+            return vector;
+        }
+    }
+    
+    /**
+     * Ajoute un téléchargement (déjà enregistré dans l'historique) au vecteur
+     */
+    @Async
+    public void recordDownload(Long userId, Book book) {
+        update(userId, vector -> {
+            vector.add(book, DOWNLOAD_WEIGHT);
+            vector.touch(book.getId());
+            vector.recordDownload(vector.getUpdatedAt());
+        });
+    }
+    
+    /**
+     * Ajoute un favori (déjà écrit en base) au vecteur
+     */
+    @Async
+    public void recordFavorite(Long userId, Book book) {
+        update(userId, vector -> {
+            vector.add(book, FAVORITE_WEIGHT);
+            vector.setFavorites(vector.getFavorites() + 1);
+            vector.touch(book.getId());
+        });
+    }
+    
+    /**
+     * Retire un favori (déjà supprimé en base) du vecteur : soustrait sa contribution amortie
+     * depuis son ajout, les préférences devenues nulles disparaissent. Un favori non daté
+     * (ajouté avant la datation des favoris) compte depuis la construction du vecteur ; pour
+     * un vecteur construit avant elle, seul le compteur change et la contribution s'éteint
+     * avec l'amortissement.
+     */
+    @Async
+    public void removeFavorite(Long userId, Book book, ZonedDateTime addedAt) {
+        update(userId, vector -> {
+            Long since = addedAt != null ? Long.valueOf(addedAt.toInstant().toEpochMilli()) : vector.getCreatedAt();
+            if (since != null) {
+                vector.add(book, -FAVORITE_WEIGHT * decay(vector.getUpdatedAt() - since));
+            }
+            vector.setFavorites(vector.getFavorites() - 1);
+        });
+    }
+    
+    private void update(Long userId, Consumer<TasteVector> change) {
+        try {
+            synchronized (lockFor(userId)) {
+                long now = System.currentTimeMillis();
+                Optional<TasteVector> stored = load(userId);
+                TasteVector vector;
+                if (stored.isPresent()) {
+                    vector = stored.get();
+                    vector.decayTo(now, halfLifeMs());
+                    change.accept(vector);
+                } else {
+                    // L'historique relu contient déjà l'événement
+                    vector = bootstrap(userId, now);
+                }
+                save(vector, UPDATE_VECTOR);
+            }
+            eventPublisher.publishEvent(new UserTasteChangedEvent(userId));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la mise à jour du vecteur de goûts de l'utilisateur {}", userId, e);
+        }
+    }
+    
+    /**
+     * Construit le vecteur à partir des favoris et des téléchargements (enregistré par l'appelant)
+     */
+    private TasteVector bootstrap(Long userId, long now) {
+        TasteVector vector = new TasteVector(userId, now);
+        vector.setCreatedAt(now);
+        
+        // Chaque favori compte amorti depuis son ajout (non daté : ajouté maintenant)
+        List<FavoriteBook> favorites = favoriteRepository.findFavoriteBooksByUserId(userId, BOOTSTRAP_FAVORITES);
+        for (int i = Math.min(favorites.size(), TasteVector.MAX_RECENT_BOOKS) - 1; i >= 0; i--) {
+            vector.touch(favorites.get(i).getBookId());
+        }
+        for (FavoriteBook favorite : favorites) {
+            long addedAt = favorite.getAddedAt() != null ? favorite.getAddedAt().toInstant().toEpochMilli() : now;
+            vector.add(favorite.getCategoryId(), favorite.getAuthor(), favorite.getTagNames(),
+                FAVORITE_WEIGHT * decay(now - addedAt));
+        }
+        vector.setFavorites(favoriteRepository.countByUserId(userId));
+        
+        // Chaque livre téléchargé compte comme s'il l'avait été à sa dernière date de téléchargement
+        long downloads = 0;
+        List<DownloadedBook> downloadedBooks =
+            downloadHistoryRepository.findDownloadedBooksByUserId(userId, BOOTSTRAP_DOWNLOADED_BOOKS);
+        for (int i = Math.min(downloadedBooks.size(), TasteVector.MAX_RECENT_BOOKS) - 1; i >= 0; i--) {
+            vector.touch(downloadedBooks.get(i).getBookId());
+        }
+        for (DownloadedBook book : downloadedBooks) {
+            downloads += book.getDownloads();
+            if (book.getLastDownload() == null) {
+                // Historique sans date : compté sans amortissement ni date d'activité
+                vector.add(book.getCategoryId(), book.getAuthor(), book.getTagNames(),
+                    DOWNLOAD_WEIGHT * book.getDownloads());
+                continue;
+            }
+            long lastDownload = book.getLastDownload().toInstant().toEpochMilli();
+            long firstDownload = book.getFirstDownload() != null
+                ? book.getFirstDownload().toInstant().toEpochMilli() : lastDownload;
+            vector.add(book.getCategoryId(), book.getAuthor(), book.getTagNames(),
+                DOWNLOAD_WEIGHT * book.getDownloads() * decay(now - lastDownload));
+            if (vector.getFirstActivity() == null || firstDownload < vector.getFirstActivity()) {
+                vector.setFirstActivity(firstDownload);
+            }
+            if (vector.getLastActivity() == null || lastDownload > vector.getLastActivity()) {
+                vector.setLastActivity(lastDownload);
+            }
+        }
+        vector.setDownloads(downloads);
+        
+        logger.debug("Vecteur de goûts construit pour l'utilisateur {} ({} favoris, {} téléchargements)",
+            userId, favorites.size(), downloads);
+        return vector;
+    }
+    
+    private Optional<TasteVector> load(Long userId) {
+        return neo4jClient.query(LOAD_VECTOR)
+            .bind(userId).to("userId")
+            .fetch().one()
+            .map(row -> fromProperties(userId, (Map<?, ?>) row.get("vector")));
+    }
+    
+    private void save(TasteVector vector, String query) {
+        vector.trim(MAX_CATEGORIES, MAX_AUTHORS, MAX_TAGS);
+        
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("updatedAt", vector.getUpdatedAt());
+        properties.put("downloads", vector.getDownloads());
+        properties.put("favorites", vector.getFavorites());
+        properties.put("createdAt", vector.getCreatedAt());
+        properties.put("firstActivity", vector.getFirstActivity());
+        properties.put("lastActivity", vector.getLastActivity());
+        properties.put("categoryIds", new ArrayList<>(vector.getCategories().keySet()));
+        properties.put("categoryWeights", new ArrayList<>(vector.getCategories().values()));
+        properties.put("authors", new ArrayList<>(vector.getAuthors().keySet()));
+        properties.put("authorWeights", new ArrayList<>(vector.getAuthors().values()));
+        properties.put("tags", new ArrayList<>(vector.getTags().keySet()));
+        properties.put("tagWeights", new ArrayList<>(vector.getTags().values()));
+        properties.put("recentBookIds", new ArrayList<>(vector.getRecentBooks()));
+        
+        neo4jClient.query(query)
+            .bind(vector.getUserId()).to("userId")
+            .bind(properties).to("properties")
+            .run();
+    }
+    
+    private static TasteVector fromProperties(Long userId, Map<?, ?> properties) {
+        TasteVector vector = new TasteVector(userId, asLong(properties.get("updatedAt")));
+        vector.setDownloads(asLong(properties.get("downloads")));
+        vector.setFavorites(asLong(properties.get("favorites")));
+        Object createdAt = properties.get("createdAt");
+        vector.setCreatedAt(createdAt != null ? asLong(createdAt) : null);
+        Object firstActivity = properties.get("firstActivity");
+        Object lastActivity = properties.get("lastActivity");
+        vector.setFirstActivity(firstActivity != null ? asLong(firstActivity) : null);
+        vector.setLastActivity(lastActivity != null ? asLong(lastActivity) : null);
+        
+        List<?> categoryIds = list(properties.get("categoryIds"));
+        List<?> categoryWeights = list(properties.get("categoryWeights"));
+        for (int i = 0; i < categoryIds.size(); i++) {
+            vector.add(asLong(categoryIds.get(i)), null, null, asDouble(categoryWeights.get(i)));
+        }
+        List<?> authors = list(properties.get("authors"));
+        List<?> authorWeights = list(properties.get("authorWeights"));
+        for (int i = 0; i < authors.size(); i++) {
+            vector.add(null, (String) authors.get(i), null, asDouble(authorWeights.get(i)));
+        }
+        List<?> recentBookIds = list(properties.get("recentBookIds"));
+        for (int i = recentBookIds.size() - 1; i >= 0; i--) {
+            vector.touch(asLong(recentBookIds.get(i)));
+        }
+        List<?> tags = list(properties.get("tags"));
+        List<?> tagWeights = list(properties.get("tagWeights"));
+        for (int i = 0; i < tags.size(); i++) {
+            vector.add(null, null, List.of((String) tags.get(i)), asDouble(tagWeights.get(i)));
+        }
+        return vector;
+    }
+    
+    private Object lockFor(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+    
+    // Facteur d'amortissement d'une contribution de l'âge donné (millisecondes)
+    private double decay(long ageMs) {
+        return Math.pow(0.5, (double) Math.max(0, ageMs) / halfLifeMs());
+    }
+    
+    private long halfLifeMs() {
+        return halfLifeDays * 24 * 60 * 60 * 1000;
+    }
+    
+    private static List<?> list(Object value) {
+        return value instanceof List ? (List<?>) value : List.of();
+    }
+    
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+    
+    private static double asDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+}
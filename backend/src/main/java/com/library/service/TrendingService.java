@@ -0,0 +1,346 @@
+package com.library.service;
+
+import com.library.event.BookChangedEvent;
+import com.library.event.CatalogReloadEvent;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import com.library.util.TopK;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Livres en tendance : compteurs de téléchargements en mémoire par livre, dans un tampon
+ * circulaire de 168 tranches horaires (7 jours) alimenté par chaque téléchargement. Le
+ * score d'un livre est la somme de ses tranches amorties exponentiellement avec leur âge ;
+ * le classement des meilleurs livres est recalculé régulièrement et servi sans requête.
+ * Au démarrage, les compteurs sont remplis une fois depuis l'historique des téléchargements.
+ */
+@Service
+public class TrendingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+    
+    private static final int BUCKETS = 168;
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    
+    // Demi-vie (heures) de l'amortissement des téléchargements dans le score
+    private static final double HALF_LIFE_HOURS = 24.0;
+    
+    // Score (téléchargements amortis) d'une activité pleine (1.0) : environ 50 téléchargements
+    // réguliers par semaine
+    private static final double SCORE_SATURATION = 10.0;
+    
+    private static final double[] DECAY = new double[BUCKETS];
+    
+    static {
+        for (int age = 0; age < BUCKETS; age++) {
+            DECAY[age] = Math.pow(0.5, age / HALF_LIFE_HOURS);
+        }
+    }
+    
+    private static final String LOAD_DOWNLOADS =
+        "MATCH (dh:DownloadHistory)-[:OF_BOOK]->(b:Book) " +
+        "WHERE dh.downloadedAt >= datetime({epochMillis: $since}) " +
+        "  AND dh.downloadedAt < datetime({epochMillis: $until}) " +
+        "RETURN id(b) AS bookId, dh.downloadedAt.epochMillis / $hourMs AS hour, count(dh) AS downloads";
+    
+    @Autowired
+    private Neo4jClient neo4jClient;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.recommendation.trending.top-k:100}")
+    private int topK;
+    
+    // Compteurs par livre (accès synchronisés sur counters)
+    private final Map<Long, DownloadCounter> counters = new HashMap<>();
+    
+    // Les téléchargements antérieurs sont lus dans l'historique, les suivants comptés en direct
+    private final long countingSince = System.currentTimeMillis();
+    private boolean loaded;
+    private boolean loading;
+    
+    private volatile List<TrendingBook> ranking = Collections.emptyList();
+    private volatile boolean ready;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("library.trending.books", this, TrendingService::getTrackedBooks)
+            .description("Livres téléchargés dans les 7 derniers jours, suivis par les compteurs de tendance")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Compte un téléchargement du livre (déjà enregistré dans l'historique)
+     */
+    public void recordDownload(Book book) {
+        long hour = System.currentTimeMillis() / HOUR_MS;
+        synchronized (counters) {
+            counters.computeIfAbsent(book.getId(), id -> new DownloadCounter(book)).add(hour, 1);
+        }
+    }
+    
+    /**
+     * Livres en tendance, du plus au moins actif ; vide tant que les compteurs ne sont pas chargés
+     */
+    public List<TrendingBook> getTrending(int limit) {
+        List<TrendingBook> current = ranking;
+        return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+    }
+    
+    public boolean isReady() { return ready; }
+    
+    public int getTrackedBooks() {
+        synchronized (counters) {
+            return counters.size();
+        }
+    }
+    
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (counters) {
+            if (event.isDeleted()) {
+                counters.remove(event.getBookId());
+            } else {
+                DownloadCounter counter = counters.get(event.getBookId());
+                if (counter != null) {
+                    counter.book = event.getBook();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Premier chargement des compteurs depuis l'historique (retenté au rechargement suivant
+     * s'il échoue), puis à chaque rechargement du catalogue (catégories, tags renommés)
+     * relecture des livres suivis
+     */
+    @Async
+    @EventListener
+    public void onCatalogReload(CatalogReloadEvent event) {
+        try {
+            boolean firstLoad;
+            synchronized (counters) {
+                // Un seul chargement à la fois : un rechargement concurrent ne relit pas l'historique
+                firstLoad = !loaded && !loading;
+                loading = loading || firstLoad;
+            }
+            if (firstLoad) {
+                try {
+                    loadDownloads();
+                    synchronized (counters) {
+                        loaded = true;
+                    }
+                } finally {
+                    synchronized (counters) {
+                        loading = false;
+                    }
+                }
+            }
+            reloadBooks();
+            refreshRanking();
+            synchronized (counters) {
+                // Classement servi seulement une fois l'historique chargé
+                ready = loaded;
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors du chargement des compteurs de tendance ({})", event.getReason(), e);
+        }
+    }
+    
+    /**
+     * Recalcule le classement : score amorti de chaque livre suivi, meilleurs livres par tas borné
+     */
+    @Scheduled(fixedDelayString = "${app.recommendation.trending.refresh-ms:60000}")
+    public void refreshRanking() {
+        long hour = System.currentTimeMillis() / HOUR_MS;
+        Book[] books;
+        double[] scores;
+        int[][] velocities;
+        synchronized (counters) {
+            // Livres sans téléchargement depuis 7 jours : plus suivis
+            counters.values().removeIf(counter -> counter.isEmpty(hour));
+            books = new Book[counters.size()];
+            scores = new double[books.length];
+            velocities = new int[books.length][];
+            int i = 0;
+            for (DownloadCounter counter : counters.values()) {
+                books[i] = counter.book;
+                scores[i] = counter.score(hour);
+                velocities[i] = counter.velocities(hour);
+                i++;
+            }
+        }
+        
+        int[] best = TopK.select(books.length, topK, i -> Boolean.FALSE.equals(books[i].getAvailable()) ? -1 : scores[i]);
+        List<TrendingBook> top = new ArrayList<>(best.length);
+        for (int i : best) {
+            if (scores[i] > 0 && !Boolean.FALSE.equals(books[i].getAvailable())) {
+                top.add(new TrendingBook(books[i], Math.min(1.0, scores[i] / SCORE_SATURATION),
+                    velocities[i][0], velocities[i][1], velocities[i][2]));
+            }
+        }
+        ranking = Collections.unmodifiableList(top);
+    }
+    
+    // Téléchargements des 7 derniers jours antérieurs au comptage en direct, par livre et par heure
+    private void loadDownloads() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("since", (countingSince / HOUR_MS - BUCKETS + 1) * HOUR_MS);
+        parameters.put("until", countingSince);
+        parameters.put("hourMs", HOUR_MS);
+        
+        Map<Long, List<long[]>> downloads = new HashMap<>();
+        neo4jClient.query(LOAD_DOWNLOADS)
+            .bindAll(parameters)
+            .fetch().all()
+            .forEach(row -> downloads.computeIfAbsent(((Number) row.get("bookId")).longValue(), id -> new ArrayList<>())
+                .add(new long[] {((Number) row.get("hour")).longValue(), ((Number) row.get("downloads")).longValue()}));
+        if (downloads.isEmpty()) {
+            return;
+        }
+        
+        List<Book> books = bookRepository.findAllByIdWithRelations(new ArrayList<>(downloads.keySet()));
+        synchronized (counters) {
+            for (Book book : books) {
+                DownloadCounter counter = counters.computeIfAbsent(book.getId(), id -> new DownloadCounter(book));
+                for (long[] hourly : downloads.get(book.getId())) {
+                    counter.add(hourly[0], (int) hourly[1]);
+                }
+            }
+        }
+        logger.info("Compteurs de tendance chargés : {} livres téléchargés en 7 jours ({} ms)",
+            books.size(), System.currentTimeMillis() - start);
+    }
+    
+    // Livres suivis relus avec leur catégorie et leurs tags à jour
+    private void reloadBooks() {
+        List<Long> ids;
+        synchronized (counters) {
+            ids = new ArrayList<>(counters.keySet());
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Book> books = bookRepository.findAllByIdWithRelations(ids);
+        synchronized (counters) {
+            for (Book book : books) {
+                DownloadCounter counter = counters.get(book.getId());
+                if (counter != null) {
+                    counter.book = book;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Téléchargements d'un livre par heure sur 7 jours (tampon circulaire indexé par heure)
+     */
+    private static class DownloadCounter {
+        private Book book;
+        private final int[] buckets = new int[BUCKETS];
+        
+        // Heure (depuis l'epoch) de la tranche la plus récente ; les 167 précédentes sont valides
+        private long latestHour = Long.MIN_VALUE;
+        
+        DownloadCounter(Book book) {
+            this.book = book;
+        }
+        
+        void add(long hour, int downloads) {
+            if (hour > latestHour) {
+                // Tranches des heures écoulées depuis la dernière : vidées avant réutilisation
+                long cleared = latestHour == Long.MIN_VALUE ? BUCKETS : Math.min(BUCKETS, hour - latestHour);
+                for (long h = hour - cleared + 1; h <= hour; h++) {
+                    buckets[(int) Math.floorMod(h, (long) BUCKETS)] = 0;
+                }
+                latestHour = hour;
+            } else if (hour <= latestHour - BUCKETS) {
+                return;
+            }
+            buckets[(int) Math.floorMod(hour, (long) BUCKETS)] += downloads;
+        }
+        
+        int count(long hour) {
+            if (hour > latestHour || hour <= latestHour - BUCKETS) {
+                return 0;
+            }
+            return buckets[(int) Math.floorMod(hour, (long) BUCKETS)];
+        }
+        
+        boolean isEmpty(long now) {
+            return now - latestHour >= BUCKETS;
+        }
+        
+        // Somme des tranches des 7 derniers jours, amorties selon leur âge
+        double score(long now) {
+            double score = 0.0;
+            for (int age = 0; age < BUCKETS; age++) {
+                score += count(now - age) * DECAY[age];
+            }
+            return score;
+        }
+        
+        // Téléchargements de l'heure en cours, des 24 dernières heures et des 7 derniers jours
+        int[] velocities(long now) {
+            int lastHour = count(now);
+            int lastDay = 0;
+            int lastWeek = 0;
+            for (int age = 0; age < BUCKETS; age++) {
+                int downloads = count(now - age);
+                if (age < 24) {
+                    lastDay += downloads;
+                }
+                lastWeek += downloads;
+            }
+            return new int[] {lastHour, lastDay, lastWeek};
+        }
+    }
+    
+    /**
+     * Livre en tendance avec son activité récente
+     */
+    public static class TrendingBook {
+        private final Book book;
+        private final double activityScore;
+        private final int downloadsLastHour;
+        private final int downloadsLastDay;
+        private final int downloadsLastWeek;
+        
+        public TrendingBook(Book book, double activityScore, int downloadsLastHour, int downloadsLastDay,
+                            int downloadsLastWeek) {
+            this.book = book;
+            this.activityScore = activityScore;
+            this.downloadsLastHour = downloadsLastHour;
+            this.downloadsLastDay = downloadsLastDay;
+            this.downloadsLastWeek = downloadsLastWeek;
+        }
+        
+        public Book getBook() { return book; }
+        public double getActivityScore() { return activityScore; }
+        public int getDownloadsLastHour() { return downloadsLastHour; }
+        public int getDownloadsLastDay() { return downloadsLastDay; }
+        public int getDownloadsLastWeek() { return downloadsLastWeek; }
+    }
+}
@@ -0,0 +1,156 @@
+package com.library.service;
+
+import com.library.model.Book;
+import com.library.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Profil de préférences d'un utilisateur, construit une fois par demande de recommandations
+ * à partir de son vecteur de goûts (favoris poids 2, téléchargements poids 1, amortis avec
+ * le temps) : poids normalisés entre 0 et 1 par catégorie, auteur et tag, et scores
+ * collaboratifs « lus aussi » des voisins de ses livres récents, partagés par tous les
+ * calculs de score des livres candidats sans nouvelle lecture en base.
+ */
+public class UserPreferenceProfile {
+    
+    // Poids cumulés à partir desquels une préférence est pleine (1.0)
+    private static final double CATEGORY_SATURATION = 10.0;
+    private static final double AUTHOR_SATURATION = 5.0;
+    private static final double TAG_SATURATION = 5.0;
+    
+    // Part de chaque critère dans le score comportemental
+    private static final double CATEGORY_SHARE = 0.4;
+    private static final double AUTHOR_SHARE = 0.3;
+    private static final double TAG_SHARE = 0.3;
+    
+    // Part du score collaboratif (co-occurrences) dans le score comportemental, s'il existe
+    private static final double ALSO_READ_SHARE = 0.3;
+    
+    // Score comportemental sans historique de téléchargement
+    private static final double NO_HISTORY_SCORE = 0.2;
+    
+    // Score de contenu neutre sans favoris
+    private static final double NO_FAVORITES_SCORE = 0.3;
+    
+    private final Long userId;
+    private final List<Book> favorites;
+    private final List<SimilarityGraphService.Profile> favoriteProfiles;
+    private final Set<Long> tagCandidates;
+    private final boolean hasDownloads;
+    private final Map<Long, Double> categoryWeights;
+    private final Map<String, Double> authorWeights;
+    private final Map<String, Double> tagWeights;
+    private final Map<Long, Double> alsoReadScores;
+    
+    private UserPreferenceProfile(Long userId, List<Book> favorites, Set<Long> tagCandidates, boolean hasDownloads,
+                                  Map<Long, Double> categoryWeights, Map<String, Double> authorWeights,
+                                  Map<String, Double> tagWeights, Map<Long, Double> alsoReadScores) {
+        this.userId = userId;
+        this.favorites = Collections.unmodifiableList(favorites);
+        this.favoriteProfiles = new ArrayList<>(favorites.size());
+        for (Book favorite : favorites) {
+            favoriteProfiles.add(SimilarityGraphService.Profile.of(favorite));
+        }
+        this.tagCandidates = tagCandidates;
+        this.hasDownloads = hasDownloads;
+        this.categoryWeights = categoryWeights;
+        this.authorWeights = authorWeights;
+        this.tagWeights = tagWeights;
+        this.alsoReadScores = alsoReadScores;
+    }
+    
+    /**
+     * @param favorites favoris avec catégorie et tags (similarité de contenu)
+     * @param taste vecteur de goûts amorti de l'utilisateur (favoris et téléchargements)
+     * @param tagCandidates livres à comparer sur les tags aux favoris (null = tous)
+     * @param alsoReadScores scores collaboratifs entre 0 et 1 des voisins des livres de l'utilisateur
+     */
+    public static UserPreferenceProfile build(Long userId, List<Book> favorites, TasteVector taste,
+                                              Set<Long> tagCandidates, Map<Long, Double> alsoReadScores) {
+        return new UserPreferenceProfile(userId, favorites, tagCandidates, taste.getDownloads() > 0,
+            normalize(taste.getCategories(), CATEGORY_SATURATION), normalize(taste.getAuthors(), AUTHOR_SATURATION),
+            normalize(taste.getTags(), TAG_SATURATION), alsoReadScores);
+    }
+    
+    /**
+     * Score de contenu du livre : similarité avec le plus proche des favoris ; les tags ne
+     * sont comparés que pour les candidats LSH des favoris
+     */
+    public double contentScore(Book book) {
+        if (favoriteProfiles.isEmpty()) {
+            return NO_FAVORITES_SCORE;
+        }
+        
+        SimilarityGraphService.Profile candidate = SimilarityGraphService.Profile.of(book);
+        boolean compareTags = compareTags(book);
+        double maxSimilarity = 0.0;
+        for (SimilarityGraphService.Profile favorite : favoriteProfiles) {
+            maxSimilarity = Math.max(maxSimilarity, SimilarityGraphService.similarity(favorite, candidate, compareTags));
+        }
+        return maxSimilarity;
+    }
+    
+    /**
+     * Score comportemental du livre : proximité avec les catégories, auteurs et tags préférés,
+     * combinée au score « lus aussi » quand les livres de l'utilisateur ont des voisins
+     */
+    public double behaviorScore(Book book) {
+        double score = hasDownloads ? tasteScore(book) : NO_HISTORY_SCORE;
+        if (alsoReadScores.isEmpty()) {
+            return score;
+        }
+        return score * (1 - ALSO_READ_SHARE) + alsoReadScores.getOrDefault(book.getId(), 0.0) * ALSO_READ_SHARE;
+    }
+    
+    private double tasteScore(Book book) {
+        double score = 0.0;
+        if (book.getCategory() != null) {
+            score += categoryWeights.getOrDefault(book.getCategory().getId(), 0.0) * CATEGORY_SHARE;
+        }
+        if (book.getAuthor() != null) {
+            score += authorWeights.getOrDefault(book.getAuthor(), 0.0) * AUTHOR_SHARE;
+        }
+        
+        // Moyenne des poids des seuls tags déjà appréciés
+        double tagScore = 0.0;
+        int tagCount = 0;
+        for (Tag tag : book.getTags()) {
+            Double weight = tagWeights.get(tag.getName());
+            if (weight != null) {
+                tagScore += weight;
+                tagCount++;
+            }
+        }
+        if (tagCount > 0) {
+            score += (tagScore / tagCount) * TAG_SHARE;
+        }
+        
+        return Math.min(1.0, score);
+    }
+    
+    /**
+     * Les tags du livre doivent-ils être comparés à ceux des favoris
+     */
+    private boolean compareTags(Book book) {
+        return tagCandidates == null || tagCandidates.contains(book.getId());
+    }
+    
+    public Long getUserId() { return userId; }
+    public List<Book> getFavorites() { return favorites; }
+    public boolean hasDownloads() { return hasDownloads; }
+    public Map<Long, Double> getCategoryWeights() { return Collections.unmodifiableMap(categoryWeights); }
+    public Set<Long> getTagCandidates() { return tagCandidates; }
+    public Map<Long, Double> getAlsoReadScores() { return Collections.unmodifiableMap(alsoReadScores); }
+    
+    private static <K> Map<K, Double> normalize(Map<K, Double> taste, double saturation) {
+        Map<K, Double> weights = new HashMap<>(taste.size() * 2);
+        taste.forEach((key, weight) -> weights.put(key, Math.min(1.0, weight / saturation)));
+        return weights;
+    }
+}
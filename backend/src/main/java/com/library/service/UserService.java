@@ -4,6 +4,7 @@ import com.library.dto.UserDto;
 import com.library.exception.ResourceNotFoundException;
 import com.library.model.Role;
 import com.library.model.User;
+import com.library.repository.FavoriteRepository;
 import com.library.repository.RoleRepository;
 import com.library.repository.UserRepository;
 import com.library.util.PageImpl;
@@ -14,6 +15,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,6 +32,9 @@ public class UserService {
     @Autowired
     private RoleRepository roleRepository;
     
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
@@ -210,13 +215,11 @@ public class UserService {
         dto.setRoleName(user.getRole().getName().name());
         // DateTime fields removed temporarily
         
-        // Ajouter les IDs des livres favoris
-        dto.setFavoriteBookIds(user.getFavorites().stream()
-                .map(book -> book.getId())
-                .collect(Collectors.toSet()));
+        // Ajouter les IDs des livres favoris (lus sans charger les livres)
+        dto.setFavoriteBookIds(new HashSet<>(favoriteRepository.findBookIdsByUserId(user.getId())));
         
-        // Compter les téléchargements
-        dto.setDownloadCount(user.getDownloadHistory().size());
+        // Compteur de téléchargements tenu sur l'utilisateur
+        dto.setDownloadCount(user.getDownloadCount() != null ? user.getDownloadCount() : 0);
         
         return dto;
     }
@@ -0,0 +1,105 @@
+package com.library.util;
+
+/**
+ * Opérations sur des ensembles de lignes représentés par des mots de 64 bits
+ * (bit i du mot i / 64 = ligne i). Hormis add, les opérations renvoient un nouveau tableau et
+ * ne modifient jamais leurs arguments, qui peuvent donc être partagés entre lecteurs.
+ */
+public final class Bitmaps {
+    
+    private Bitmaps() {
+    }
+    
+    /**
+     * Ensemble vide pouvant contenir n lignes
+     */
+    public static long[] empty(int n) {
+        return new long[(n + 63) >>> 6];
+    }
+    
+    /**
+     * Ensemble des lignes 0 à n - 1
+     */
+    public static long[] full(int n) {
+        long[] words = empty(n);
+        for (int i = 0; i < words.length; i++) {
+            words[i] = -1L;
+        }
+        if ((n & 63) != 0) {
+            words[words.length - 1] = (1L << (n & 63)) - 1;
+        }
+        return words;
+    }
+    
+    public static boolean contains(long[] words, int row) {
+        return (words[row >>> 6] & (1L << row)) != 0;
+    }
+    
+    /**
+     * Ajoute la ligne sur place : réservé à la construction d'un ensemble pas encore publié
+     */
+    public static void add(long[] words, int row) {
+        words[row >>> 6] |= 1L << row;
+    }
+    
+    /**
+     * Copie avec la ligne ajoutée ou retirée
+     */
+    public static long[] with(long[] words, int row, boolean present) {
+        long[] copy = words.clone();
+        if (present) {
+            copy[row >>> 6] |= 1L << row;
+        } else {
+            copy[row >>> 6] &= ~(1L << row);
+        }
+        return copy;
+    }
+    
+    public static long[] and(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+    
+    public static long[] or(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] | b[i];
+        }
+        return result;
+    }
+    
+    public static long[] andNot(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] & ~b[i];
+        }
+        return result;
+    }
+    
+    public static long cardinality(long[] words) {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    /**
+     * Lignes présentes, par ordre croissant
+     */
+    public static int[] rows(long[] words) {
+        int[] rows = new int[(int) cardinality(words)];
+        int size = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                rows[size++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rows;
+    }
+}
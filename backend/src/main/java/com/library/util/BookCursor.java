@@ -0,0 +1,171 @@
+package com.library.util;
+
+import com.library.dto.BookDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Jeton de continuation opaque pour la pagination par curseur (keyset) des livres.
+ * Encode le critère de tri, la direction, la dernière clé de tri et l'identifiant
+ * du dernier livre renvoyé, afin que la page suivante reprenne directement après lui.
+ * Le tri par pertinence n'expose pas son score sur l'entité : son curseur porte
+ * alors la position du prochain résultat.
+ */
+public class BookCursor {
+    
+    private static final String SEPARATOR = "|";
+    private static final String OFFSET_TYPE = "o";
+    
+    private final String sortBy;
+    private final boolean ascending;
+    private final Object key;
+    private final Long id;
+    private final int offset;
+    
+    private BookCursor(String sortBy, boolean ascending, Object key, Long id, int offset) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.key = key;
+        this.id = id;
+        this.offset = offset;
+    }
+    
+    public String getSortBy() { return sortBy; }
+    public boolean isAscending() { return ascending; }
+    public Object getKey() { return key; }
+    public Long getId() { return id; }
+    public int getOffset() { return offset; }
+    
+    /**
+     * Normalise le critère de tri (même repli sur createdAt que la requête Cypher)
+     */
+    public static String normalizeSortBy(String sortBy) {
+        if (sortBy == null) {
+            return "createdAt";
+        }
+        switch (sortBy) {
+            case "title":
+            case "author":
+            case "downloadCount":
+            case "favoriteCount":
+            case "publicationYear":
+            case "relevance":
+                return sortBy;
+            default:
+                return "createdAt";
+        }
+    }
+    
+    /**
+     * Construit le jeton pointant après le livre donné
+     */
+    public static String encode(BookDto last, String sortBy, boolean ascending) {
+        if (last == null) {
+            return null;
+        }
+        String normalized = normalizeSortBy(sortBy);
+        String typedKey;
+        
+        switch (normalized) {
+            case "title":
+                typedKey = typed("s", last.getTitle() != null ? last.getTitle().toLowerCase(Locale.ROOT) : null);
+                break;
+            case "author":
+                typedKey = typed("s", last.getAuthor() != null ? last.getAuthor().toLowerCase(Locale.ROOT) : null);
+                break;
+            case "downloadCount":
+                typedKey = typed("l", last.getDownloadCount());
+                break;
+            case "favoriteCount":
+                typedKey = typed("l", last.getFavoriteCount());
+                break;
+            case "publicationYear":
+                typedKey = typed("l", last.getPublicationYear());
+                break;
+            case "createdAt":
+            default:
+                typedKey = typed("t", last.getCreatedAt());
+                break;
+        }
+        
+        String raw = normalized + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR
+            + typedKey + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Construit un jeton positionnel, pour les tris dont la clé n'est pas portée par le livre
+     */
+    public static String encodeOffset(String sortBy, boolean ascending, int offset) {
+        String raw = normalizeSortBy(sortBy) + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR
+            + OFFSET_TYPE + SEPARATOR + offset + SEPARATOR + 0;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Décode un jeton ; il doit correspondre au tri de la requête courante
+     *
+     * @throws IllegalArgumentException si le jeton est invalide ou ne correspond pas au tri
+     */
+    public static BookCursor decode(String token, String sortBy, boolean ascending) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+        
+        // La valeur de clé peut contenir le séparateur : id en dernier, tri et type en tête
+        int first = raw.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : raw.indexOf(SEPARATOR, first + 1);
+        int third = second < 0 ? -1 : raw.indexOf(SEPARATOR, second + 1);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || second < 0 || third < 0 || last <= third) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        
+        String cursorSortBy = raw.substring(0, first);
+        boolean cursorAscending = "asc".equals(raw.substring(first + 1, second));
+        if (!cursorSortBy.equals(normalizeSortBy(sortBy)) || cursorAscending != ascending) {
+            throw new IllegalArgumentException("Le curseur ne correspond pas au tri demandé");
+        }
+        
+        try {
+            String type = raw.substring(second + 1, third);
+            String value = raw.substring(third + 1, last);
+            if (OFFSET_TYPE.equals(type)) {
+                int offset = Integer.parseInt(value);
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Position négative");
+                }
+                return new BookCursor(cursorSortBy, cursorAscending, null, null, offset);
+            }
+            Long id = Long.valueOf(raw.substring(last + 1));
+            return new BookCursor(cursorSortBy, cursorAscending, parseKey(type, value), id, 0);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+    
+    private static String typed(String type, Object value) {
+        return value == null ? "n" + SEPARATOR : type + SEPARATOR + value;
+    }
+    
+    private static Object parseKey(String type, String value) {
+        switch (type) {
+            case "s":
+                return value;
+            case "l":
+                return Long.valueOf(value);
+            case "t":
+                return ZonedDateTime.parse(value);
+            case "n":
+                return null;
+            default:
+                throw new IllegalArgumentException("Type de clé inconnu: " + type);
+        }
+    }
+}
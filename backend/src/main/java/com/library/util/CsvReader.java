@@ -0,0 +1,101 @@
+package com.library.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux d'un fichier CSV (RFC 4180) : séparateur virgule, champs entre
+ * guillemets pouvant contenir virgules, retours à la ligne et guillemets doublés.
+ * Un seul enregistrement est gardé en mémoire à la fois.
+ */
+public class CsvReader implements Closeable {
+    
+    private final Reader reader;
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+    
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * Enregistrement suivant, ou null en fin de fichier
+     *
+     * @throws IllegalArgumentException si un guillemet n'est pas fermé
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Guillemet non fermé (ligne " + recordLine + ")");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+    
+    /**
+     * Numéro de ligne du début du dernier enregistrement lu (à partir de 1)
+     */
+    public long getRecordLine() { return recordLine; }
+    
+    private int read() throws IOException {
+        int c;
+        if (pending != -2) {
+            c = pending;
+            pending = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.util;
+
+/**
+ * Échéance d'une requête : budget de temps partagé par les étapes d'un traitement, chacune
+ * vérifiant avant de démarrer qu'il reste du temps (sinon elle est sautée ou dégradée)
+ */
+public final class Deadline {
+    
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+    
+    // Instant limite (System.nanoTime)
+    private final long expiresAt;
+    
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    /**
+     * Échéance dans le nombre de millisecondes donné
+     */
+    public static Deadline in(long budgetMs) {
+        return new Deadline(System.nanoTime() + budgetMs * 1_000_000L);
+    }
+    
+    /**
+     * Pas d'échéance (traitements en arrière-plan)
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+    
+    public boolean isExpired() {
+        return this != NONE && System.nanoTime() - expiresAt >= 0;
+    }
+    
+    /**
+     * Millisecondes restantes (0 si dépassée, Long.MAX_VALUE sans échéance)
+     */
+    public long remainingMs() {
+        if (this == NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (expiresAt - System.nanoTime()) / 1_000_000L);
+    }
+    
+}
@@ -0,0 +1,325 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Expression de filtre du catalogue, évaluée sur des ensembles de lignes (voir {@link Bitmaps}).
+ * Syntaxe : termes champ:valeur combinés par AND, OR, NOT et parenthèses, AND étant
+ * implicite entre deux termes juxtaposés. Par exemple :
+ * <pre>tag:roman AND (language:fr OR language:en) AND NOT year:2001</pre>
+ * Champs reconnus : category (identifiant), tag (nom, entre guillemets s'il contient
+ * des espaces), language, year et available (true/false).
+ */
+public abstract class FilterExpression {
+    
+    public static final String CATEGORY = "category";
+    public static final String TAG = "tag";
+    public static final String LANGUAGE = "language";
+    public static final String YEAR = "year";
+    public static final String AVAILABLE = "available";
+    
+    private static final List<String> FIELDS = Arrays.asList(CATEGORY, TAG, LANGUAGE, YEAR, AVAILABLE);
+    
+    // Limite la taille des expressions reçues en paramètre de requête
+    private static final int MAX_LENGTH = 1000;
+    
+    /**
+     * Fournit les ensembles de lignes sur lesquels l'expression est évaluée
+     */
+    public interface Resolver {
+        
+        // Ensemble de toutes les lignes
+        long[] all();
+        
+        // Lignes dont le champ vaut la valeur (ensemble vide si la valeur est inconnue)
+        long[] rows(String field, String value);
+    }
+    
+    /**
+     * Lignes satisfaisant l'expression ; le tableau renvoyé peut être partagé avec le resolver
+     */
+    public abstract long[] evaluate(Resolver resolver);
+    
+    /**
+     * Vrai si un terme de l'expression porte sur le champ
+     */
+    public abstract boolean mentions(String field);
+    
+    public static FilterExpression term(String field, String value) {
+        return new Term(field, value);
+    }
+    
+    /**
+     * Conjonction des expressions non nulles (null si aucune)
+     */
+    public static FilterExpression and(FilterExpression... operands) {
+        return combine(true, Arrays.asList(operands));
+    }
+    
+    /**
+     * Disjonction des expressions non nulles (null si aucune)
+     */
+    public static FilterExpression or(List<FilterExpression> operands) {
+        return combine(false, operands);
+    }
+    
+    public static FilterExpression not(FilterExpression operand) {
+        return new Not(operand);
+    }
+    
+    /**
+     * Filtres simples de l'API : catégorie et au moins un des tags (séparés par virgule)
+     */
+    public static FilterExpression of(Long categoryId, String tags) {
+        FilterExpression byCategory = categoryId != null ? term(CATEGORY, String.valueOf(categoryId)) : null;
+        FilterExpression byTags = null;
+        if (tags != null) {
+            List<FilterExpression> anyTag = new ArrayList<>();
+            for (String tag : tags.split(",")) {
+                anyTag.add(term(TAG, tag));
+            }
+            byTags = or(anyTag);
+        }
+        return and(byCategory, byTags);
+    }
+    
+    /**
+     * Analyse une expression saisie par l'utilisateur
+     *
+     * @return l'expression, ou null si la saisie est vide
+     * @throws IllegalArgumentException si l'expression est mal formée (le message indique
+     *         la colonne fautive, à partir de 1)
+     */
+    public static FilterExpression parse(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Expression de filtre trop longue");
+        }
+        Parser parser = new Parser(text);
+        FilterExpression expression = parser.parseOr();
+        if (parser.peek() != null) {
+            throw parser.error("Jeton inattendu dans le filtre: " + parser.peek());
+        }
+        return expression;
+    }
+    
+    private static FilterExpression combine(boolean conjunction, List<FilterExpression> operands) {
+        List<FilterExpression> present = new ArrayList<>();
+        for (FilterExpression operand : operands) {
+            if (operand != null) {
+                present.add(operand);
+            }
+        }
+        if (present.isEmpty()) {
+            return null;
+        }
+        return present.size() == 1 ? present.get(0) : new Combination(conjunction, present);
+    }
+    
+    // ===== Noeuds de l'expression =====
+    
+    private static final class Term extends FilterExpression {
+        private final String field;
+        private final String value;
+        
+        Term(String field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+        
+        @Override
+        public long[] evaluate(Resolver resolver) {
+            return resolver.rows(field, value);
+        }
+        
+        @Override
+        public boolean mentions(String field) {
+            return this.field.equals(field);
+        }
+    }
+    
+    private static final class Not extends FilterExpression {
+        private final FilterExpression operand;
+        
+        Not(FilterExpression operand) {
+            this.operand = operand;
+        }
+        
+        @Override
+        public long[] evaluate(Resolver resolver) {
+            return Bitmaps.andNot(resolver.all(), operand.evaluate(resolver));
+        }
+        
+        @Override
+        public boolean mentions(String field) {
+            return operand.mentions(field);
+        }
+    }
+    
+    private static final class Combination extends FilterExpression {
+        private final boolean conjunction;
+        private final List<FilterExpression> operands;
+        
+        Combination(boolean conjunction, List<FilterExpression> operands) {
+            this.conjunction = conjunction;
+            this.operands = operands;
+        }
+        
+        @Override
+        public long[] evaluate(Resolver resolver) {
+            long[] result = operands.get(0).evaluate(resolver);
+            for (int i = 1; i < operands.size(); i++) {
+                long[] next = operands.get(i).evaluate(resolver);
+                result = conjunction ? Bitmaps.and(result, next) : Bitmaps.or(result, next);
+            }
+            return result;
+        }
+        
+        @Override
+        public boolean mentions(String field) {
+            return operands.stream().anyMatch(operand -> operand.mentions(field));
+        }
+    }
+    
+    // ===== Analyse syntaxique (descente récursive) =====
+    
+    private static final class Parser {
+        private final List<String> tokens = new ArrayList<>();
+        // Indice du premier caractère de chaque jeton dans la saisie
+        private final List<Integer> starts = new ArrayList<>();
+        private final int length;
+        private int position;
+        
+        Parser(String text) {
+            length = text.length();
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                    starts.add(i);
+                    i++;
+                } else {
+                    int start = i;
+                    // Terme ou opérateur ; les guillemets protègent espaces et parenthèses
+                    StringBuilder token = new StringBuilder();
+                    boolean quoted = false;
+                    while (i < text.length()) {
+                        c = text.charAt(i);
+                        if (c == '"') {
+                            quoted = !quoted;
+                        } else if (!quoted && (Character.isWhitespace(c) || c == '(' || c == ')')) {
+                            break;
+                        } else {
+                            token.append(c);
+                        }
+                        i++;
+                    }
+                    if (quoted) {
+                        throw error("Guillemet non fermé dans le filtre", start);
+                    }
+                    tokens.add(token.toString());
+                    starts.add(start);
+                }
+            }
+        }
+        
+        String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+        
+        // Erreur située sur le jeton courant (fin de saisie s'il n'y en a plus)
+        IllegalArgumentException error(String message) {
+            return error(message, position < starts.size() ? starts.get(position) : length);
+        }
+        
+        private static IllegalArgumentException error(String message, int index) {
+            return new IllegalArgumentException(message + " (colonne " + (index + 1) + ")");
+        }
+        
+        FilterExpression parseOr() {
+            List<FilterExpression> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while ("OR".equalsIgnoreCase(peek())) {
+                position++;
+                operands.add(parseAnd());
+            }
+            return or(operands);
+        }
+        
+        FilterExpression parseAnd() {
+            List<FilterExpression> operands = new ArrayList<>();
+            operands.add(parseNot());
+            while (peek() != null && !")".equals(peek()) && !"OR".equalsIgnoreCase(peek())) {
+                if ("AND".equalsIgnoreCase(peek())) {
+                    position++;
+                }
+                operands.add(parseNot());
+            }
+            return combine(true, operands);
+        }
+        
+        FilterExpression parseNot() {
+            String token = peek();
+            if (token == null) {
+                throw error("Fin inattendue du filtre");
+            }
+            if ("NOT".equalsIgnoreCase(token)) {
+                position++;
+                return not(parseNot());
+            }
+            if ("(".equals(token)) {
+                int open = starts.get(position++);
+                FilterExpression inner = parseOr();
+                if (!")".equals(peek())) {
+                    throw error("Parenthèse ouverte en colonne " + (open + 1) + " non fermée dans le filtre");
+                }
+                position++;
+                return inner;
+            }
+            FilterExpression term = parseTerm(token);
+            position++;
+            return term;
+        }
+        
+        // Terme champ:valeur au jeton courant
+        private FilterExpression parseTerm(String token) {
+            int colon = token.indexOf(':');
+            if (colon <= 0 || colon == token.length() - 1) {
+                throw error("Terme de filtre invalide: " + token);
+            }
+            String field = token.substring(0, colon).toLowerCase(Locale.ROOT);
+            String value = token.substring(colon + 1);
+            if (!FIELDS.contains(field)) {
+                throw error("Champ de filtre inconnu: " + field);
+            }
+            try {
+                switch (field) {
+                    case CATEGORY:
+                        Long.parseLong(value);
+                        break;
+                    case YEAR:
+                        Integer.parseInt(value);
+                        break;
+                    case AVAILABLE:
+                        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                            throw error("Valeur invalide pour available: " + value);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw error("Valeur invalide pour " + field + ": " + value);
+            }
+            return term(field, value);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.util;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Construction des requêtes Lucene envoyées aux index full-text Neo4j.
+ * La saisie utilisateur est échappée (pas de syntaxe Lucene libre) puis chaque mot
+ * est recherché tel quel et en préfixe, afin de conserver le comportement
+ * "contient" de l'ancienne recherche tout en bénéficiant du score de pertinence.
+ */
+public final class FullTextQuery {
+    
+    private static final String SPECIAL_CHARACTERS = "+-&|!(){}[]^\"~*?:\\/";
+    
+    private FullTextQuery() {
+    }
+    
+    /**
+     * Convertit une saisie utilisateur en requête Lucene
+     *
+     * @return la requête, ou null si la saisie ne contient aucun terme
+     */
+    public static String fromUserInput(String input) {
+        if (input == null) {
+            return null;
+        }
+        
+        StringJoiner query = new StringJoiner(" ");
+        for (String token : input.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            String term = escape(token);
+            if (term.isEmpty()) {
+                continue;
+            }
+            // Le terme exact est pondéré par BM25, le préfixe rattrape les mots incomplets
+            query.add(term).add(term + "*");
+        }
+        
+        return query.length() > 0 ? query.toString() : null;
+    }
+    
+    private static String escape(String token) {
+        StringBuilder escaped = new StringBuilder(token.length());
+        for (char c : token.toCharArray()) {
+            if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        // Saisie en minuscules : AND/OR/NOT ne sont pas interprétés comme opérateurs
+        return escaped.toString();
+    }
+}
@@ -16,17 +16,31 @@ public class PageImpl<T> implements Page<T> {
     private final List<T> content;
     private final Pageable pageable;
     private final long total;
+    private final String nextCursor;
     
     public PageImpl(List<T> content, Pageable pageable, long total) {
+        this(content, pageable, total, null);
+    }
+    
+    public PageImpl(List<T> content, Pageable pageable, long total, String nextCursor) {
         this.content = content;
         this.pageable = pageable;
         this.total = total;
+        this.nextCursor = nextCursor;
     }
     
     public PageImpl(List<T> content) {
         this.content = content;
         this.pageable = Pageable.unpaged();
         this.total = content.size();
+        this.nextCursor = null;
+    }
+    
+    /**
+     * Jeton de continuation pour la pagination par curseur (null s'il n'y a pas de page suivante)
+     */
+    public String getNextCursor() {
+        return nextCursor;
     }
     
     @Override
@@ -44,7 +58,7 @@ public class PageImpl<T> implements Page<T> {
         List<U> convertedContent = content.stream()
             .map(converter)
             .collect(java.util.stream.Collectors.toList());
-        return new PageImpl<>(convertedContent, pageable, total);
+        return new PageImpl<>(convertedContent, pageable, total, nextCursor);
     }
     
     @Override
@@ -0,0 +1,44 @@
+package com.library.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Analyse de texte commune aux index en mémoire : minuscules, suppression des accents
+ * et découpage en mots, pour que "Élégie" et "elegie" désignent le même terme.
+ */
+public final class TextAnalyzer {
+    
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private TextAnalyzer() {
+    }
+    
+    /**
+     * Normalise un texte (minuscules, sans accents)
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+    
+    /**
+     * Découpe un texte normalisé en termes, dans l'ordre d'apparition
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
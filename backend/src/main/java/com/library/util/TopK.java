@@ -0,0 +1,157 @@
+package com.library.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Sélection des k meilleurs éléments d'un tableau selon un score, sans trier le tableau :
+ * le tableau est découpé en tranches notées en parallèle (fork/join), chaque tranche garde
+ * ses k meilleurs dans un tas min borné en tableaux primitifs, puis les tas sont fusionnés.
+ * À score égal, l'élément d'indice le plus petit l'emporte (comme un tri stable).
+ */
+public final class TopK {
+    
+    // Éléments notés par une tâche sans nouvelle division
+    private static final int CHUNK_SIZE = 1024;
+    
+    private final int[] indices;
+    private final double[] scores;
+    private int size;
+    
+    private TopK(int capacity) {
+        this.indices = new int[capacity];
+        this.scores = new double[capacity];
+    }
+    
+    /**
+     * Indices des k éléments de meilleur score parmi 0 à n - 1, du meilleur au moins bon
+     *
+     * @param scorer score de l'élément d'indice donné, appelé en parallèle (doit être sans effet de bord)
+     */
+    public static int[] select(int n, int k, IntToDoubleFunction scorer) {
+        if (n <= 0 || k <= 0) {
+            return new int[0];
+        }
+        TopK best = n <= CHUNK_SIZE
+            ? score(0, n, k, scorer)
+            : ForkJoinPool.commonPool().invoke(new ScoringTask(0, n, k, scorer));
+        return best.sortedIndices();
+    }
+    
+    private static TopK score(int from, int to, int k, IntToDoubleFunction scorer) {
+        TopK best = new TopK(Math.min(k, to - from));
+        for (int i = from; i < to; i++) {
+            best.offer(i, scorer.applyAsDouble(i));
+        }
+        return best;
+    }
+    
+    private void offer(int index, double score) {
+        if (size < indices.length) {
+            indices[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && better(index, score, indices[0], scores[0])) {
+            indices[0] = index;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+    
+    private TopK merge(TopK other, int k) {
+        TopK merged = new TopK(Math.min(k, size + other.size));
+        for (int i = 0; i < size; i++) {
+            merged.offer(indices[i], scores[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            merged.offer(other.indices[i], other.scores[i]);
+        }
+        return merged;
+    }
+    
+    // Vide le tas : le moins bon sort en premier, le tableau est rempli par la fin
+    private int[] sortedIndices() {
+        int[] sorted = new int[size];
+        while (size > 0) {
+            sorted[size - 1] = indices[0];
+            size--;
+            indices[0] = indices[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return sorted;
+    }
+    
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(indices[parent], scores[parent], indices[i], scores[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+    
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(indices[worst], scores[worst], indices[left], scores[left])) {
+                worst = left;
+            }
+            if (right < size && better(indices[worst], scores[worst], indices[right], scores[right])) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+    
+    private void swap(int a, int b) {
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+    
+    private static boolean better(int index1, double score1, int index2, double score2) {
+        return score1 > score2 || (score1 == score2 && index1 < index2);
+    }
+    
+    /**
+     * Note une plage d'indices, en la divisant tant qu'elle dépasse CHUNK_SIZE
+     */
+    private static final class ScoringTask extends RecursiveTask<TopK> {
+        private final int from;
+        private final int to;
+        private final int k;
+        private final IntToDoubleFunction scorer;
+        
+        ScoringTask(int from, int to, int k, IntToDoubleFunction scorer) {
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.scorer = scorer;
+        }
+        
+        @Override
+        protected TopK compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return score(from, to, k, scorer);
+            }
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(from, middle, k, scorer);
+            left.fork();
+            TopK right = new ScoringTask(middle, to, k, scorer).compute();
+            return left.join().merge(right, k);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitmapsTest {
+
+    private static long[] of(int n, int... rows) {
+        long[] words = Bitmaps.empty(n);
+        for (int row : rows) {
+            Bitmaps.add(words, row);
+        }
+        return words;
+    }
+
+    @Test
+    void fullStopsAtTheLastRow() {
+        assertEquals(0, Bitmaps.full(0).length);
+        assertEquals(64, Bitmaps.cardinality(Bitmaps.full(64)));
+        long[] full = Bitmaps.full(70);
+        assertEquals(2, full.length);
+        assertEquals(70, Bitmaps.cardinality(full));
+        assertTrue(Bitmaps.contains(full, 69));
+        assertFalse(Bitmaps.contains(full, 70));
+    }
+
+    @Test
+    void rowsAreListedInAscendingOrder() {
+        assertArrayEquals(new int[] {0, 5, 63, 64, 127, 128}, Bitmaps.rows(of(130, 128, 0, 64, 5, 127, 63)));
+        assertArrayEquals(new int[0], Bitmaps.rows(Bitmaps.empty(130)));
+    }
+
+    @Test
+    void setOperations() {
+        long[] a = of(100, 1, 2, 64, 99);
+        long[] b = of(100, 2, 3, 99);
+        assertArrayEquals(new int[] {2, 99}, Bitmaps.rows(Bitmaps.and(a, b)));
+        assertArrayEquals(new int[] {1, 2, 3, 64, 99}, Bitmaps.rows(Bitmaps.or(a, b)));
+        assertArrayEquals(new int[] {1, 64}, Bitmaps.rows(Bitmaps.andNot(a, b)));
+    }
+
+    @Test
+    void operationsLeaveTheirArgumentsUntouched() {
+        long[] a = of(100, 1, 64);
+        long[] b = of(100, 64);
+        Bitmaps.and(a, b);
+        Bitmaps.andNot(a, b);
+        long[] added = Bitmaps.with(a, 70, true);
+        long[] removed = Bitmaps.with(a, 64, false);
+
+        assertArrayEquals(new int[] {1, 64}, Bitmaps.rows(a));
+        assertArrayEquals(new int[] {64}, Bitmaps.rows(b));
+        assertArrayEquals(new int[] {1, 64, 70}, Bitmaps.rows(added));
+        assertArrayEquals(new int[] {1}, Bitmaps.rows(removed));
+    }
+}
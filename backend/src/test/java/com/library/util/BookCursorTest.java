@@ -0,0 +1,98 @@
+package com.library.util;
+
+import com.library.dto.BookDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookCursorTest {
+
+    private static BookDto book(Long id) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setTitle("Les Misérables | Tome 1");
+        book.setAuthor("Victor Hugo");
+        book.setDownloadCount(1234L);
+        book.setFavoriteCount(56L);
+        book.setPublicationYear(1862);
+        book.setCreatedAt(ZonedDateTime.parse("2024-03-01T10:15:30.123+01:00[Europe/Paris]"));
+        return book;
+    }
+
+    // Jeton forgé à la main, comme le ferait un client qui modifie le curseur
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTripKeepsKeyAndId() {
+        BookDto book = book(42L);
+
+        BookCursor byDownloads = BookCursor.decode(BookCursor.encode(book, "downloadCount", false), "downloadCount", false);
+        assertEquals(1234L, byDownloads.getKey());
+        assertEquals(42L, byDownloads.getId());
+        assertEquals("downloadCount", byDownloads.getSortBy());
+
+        BookCursor byYear = BookCursor.decode(BookCursor.encode(book, "publicationYear", true), "publicationYear", true);
+        assertEquals(1862L, byYear.getKey());
+
+        BookCursor byDate = BookCursor.decode(BookCursor.encode(book, "createdAt", false), "createdAt", false);
+        assertEquals(book.getCreatedAt(), byDate.getKey());
+    }
+
+    @Test
+    void textKeyIsLowercasedAndMayContainTheSeparator() {
+        BookCursor cursor = BookCursor.decode(BookCursor.encode(book(7L), "title", true), "title", true);
+        assertEquals("les misérables | tome 1", cursor.getKey());
+        assertEquals(7L, cursor.getId());
+    }
+
+    @Test
+    void missingKeyDecodesToNull() {
+        BookDto book = book(9L);
+        book.setAuthor(null);
+        BookCursor cursor = BookCursor.decode(BookCursor.encode(book, "author", true), "author", true);
+        assertNull(cursor.getKey());
+        assertEquals(9L, cursor.getId());
+    }
+
+    @Test
+    void unknownSortFallsBackToCreatedAt() {
+        String token = BookCursor.encode(book(3L), "isbn", false);
+        assertEquals("createdAt", BookCursor.decode(token, null, false).getSortBy());
+        assertNull(BookCursor.encode(null, "title", true));
+    }
+
+    @Test
+    void offsetCursorCarriesOnlyThePosition() {
+        BookCursor cursor = BookCursor.decode(BookCursor.encodeOffset("relevance", false, 40), "relevance", false);
+        assertEquals(40, cursor.getOffset());
+        assertNull(cursor.getId());
+        assertNull(cursor.getKey());
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String token = BookCursor.encode(book(42L), "title", true);
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token, "author", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token, "title", false));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode("pas du base64 !", "title", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("title|asc"), "title", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("title|asc|s|abc"), "title", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("title|asc|s|abc|x42"), "title", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("downloadCount|asc|l|beaucoup|42"), "downloadCount", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("createdAt|desc|t|hier|42"), "createdAt", false));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("title|asc|z|abc|42"), "title", true));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(token("relevance|desc|o|-12|0"), "relevance", false));
+    }
+}
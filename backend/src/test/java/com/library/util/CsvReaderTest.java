@@ -0,0 +1,77 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void quotedFieldsKeepCommasNewlinesAndQuotes() throws IOException {
+        List<List<String>> records = readAll(
+            "title,author,description\n" +
+            "\"Guerre et paix, tome 1\",Tolstoï,\"Première ligne\nseconde ligne\"\n" +
+            "\"Le \"\"Horla\"\"\",Maupassant,\"\"\n");
+
+        assertEquals(3, records.size());
+        assertEquals(Arrays.asList("Guerre et paix, tome 1", "Tolstoï", "Première ligne\nseconde ligne"), records.get(1));
+        assertEquals(Arrays.asList("Le \"Horla\"", "Maupassant", ""), records.get(2));
+    }
+
+    @Test
+    void emptyFieldsAndLastLineWithoutNewline() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("a", "", "c", ""), Arrays.asList("", "b")), readAll("a,,c,\n,b"));
+    }
+
+    @Test
+    void windowsAndOldMacLineEndings() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e")),
+            readAll("a,b\r\nc,d\re\r\n"));
+    }
+
+    @Test
+    void recordLineCountsNewlinesInsideQuotes() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("h\n\"x\ny\nz\"\nlast\n"))) {
+            reader.next();
+            assertEquals(1, reader.getRecordLine());
+            assertEquals(Arrays.asList("x\ny\nz"), reader.next());
+            assertEquals(2, reader.getRecordLine());
+            assertEquals(Arrays.asList("last"), reader.next());
+            assertEquals(5, reader.getRecordLine());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void unclosedQuoteIsRejectedWithItsLine() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("ok\n\"jamais fermé,\nsuite\n"))) {
+            reader.next();
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+            assertEquals("Guillemet non fermé (ligne 2)", e.getMessage());
+        }
+    }
+
+    @Test
+    void emptyInputHasNoRecord() throws IOException {
+        assertEquals(0, readAll("").size());
+    }
+}
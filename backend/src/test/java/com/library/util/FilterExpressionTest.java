@@ -0,0 +1,128 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterExpressionTest {
+
+    /**
+     * Huit livres : 0 à 3 tagués roman, langues fr (pairs) et en (impairs),
+     * 0 et 1 parus en 2001, 0 à 5 disponibles
+     */
+    private static final class Catalog implements FilterExpression.Resolver {
+        private static final int SIZE = 8;
+        private final Map<String, long[]> index = new HashMap<>();
+
+        Catalog() {
+            put("tag:roman", 0, 1, 2, 3);
+            put("language:fr", 0, 2, 4, 6);
+            put("language:en", 1, 3, 5, 7);
+            put("year:2001", 0, 1);
+            put("category:5", 4, 5);
+            put("available:true", 0, 1, 2, 3, 4, 5);
+            put("available:false", 6, 7);
+        }
+
+        private void put(String key, int... rows) {
+            long[] words = Bitmaps.empty(SIZE);
+            for (int row : rows) {
+                Bitmaps.add(words, row);
+            }
+            index.put(key, words);
+        }
+
+        @Override
+        public long[] all() {
+            return Bitmaps.full(SIZE);
+        }
+
+        @Override
+        public long[] rows(String field, String value) {
+            return index.getOrDefault(field + ":" + value, Bitmaps.empty(SIZE));
+        }
+    }
+
+    private static int[] rows(String filter) {
+        return Bitmaps.rows(FilterExpression.parse(filter).evaluate(new Catalog()));
+    }
+
+    @Test
+    void andBindsTighterThanOr() {
+        assertArrayEquals(new int[] {0, 1, 2, 3}, rows("tag:roman OR language:fr AND year:2001"));
+        assertArrayEquals(new int[] {0, 1}, rows("(tag:roman OR language:fr) AND year:2001"));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 6}, rows("language:fr AND NOT category:5 OR tag:roman"));
+    }
+
+    @Test
+    void notBindsTighterThanAnd() {
+        assertArrayEquals(new int[] {5, 7}, rows("NOT tag:roman AND language:en"));
+        assertArrayEquals(new int[] {3}, rows("tag:roman AND NOT (language:fr OR year:2001)"));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, rows("NOT NOT tag:roman"));
+    }
+
+    @Test
+    void juxtaposedTermsAreAndedAndOperatorsIgnoreCase() {
+        assertArrayEquals(rows("tag:roman AND language:en"), rows("tag:roman language:en"));
+        assertArrayEquals(new int[] {1, 3}, rows("tag:roman and language:en"));
+        assertArrayEquals(new int[] {0, 1, 4, 5}, rows("year:2001 or category:5"));
+    }
+
+    @Test
+    void unknownValueMatchesNothing() {
+        assertArrayEquals(new int[0], rows("tag:inconnu"));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7}, rows("NOT tag:inconnu"));
+    }
+
+    @Test
+    void quotedValueKeepsSpacesAndParentheses() {
+        Catalog catalog = new Catalog();
+        catalog.put("tag:science fiction (classique)", 6);
+        assertArrayEquals(new int[] {6},
+            Bitmaps.rows(FilterExpression.parse("tag:\"science fiction (classique)\"").evaluate(catalog)));
+    }
+
+    @Test
+    void blankInputHasNoExpression() {
+        assertNull(FilterExpression.parse(null));
+        assertNull(FilterExpression.parse("   "));
+    }
+
+    @Test
+    void mentionsLooksThroughEveryNode() {
+        assertTrue(FilterExpression.parse("tag:roman AND NOT (year:2001 OR available:false)").mentions(FilterExpression.AVAILABLE));
+        assertFalse(FilterExpression.parse("tag:roman OR NOT year:2001").mentions(FilterExpression.AVAILABLE));
+        assertTrue(FilterExpression.of(5L, "roman,essai").mentions(FilterExpression.TAG));
+    }
+
+    @Test
+    void errorsReportTheColumn() {
+        assertError("Jeton inattendu dans le filtre: ) (colonne 11)", "tag:roman )");
+        assertError("Fin inattendue du filtre (colonne 14)", "tag:roman AND");
+        assertError("Parenthèse ouverte en colonne 11 non fermée dans le filtre (colonne 34)",
+            "tag:roman (year:2001 OR tag:essai");
+        assertError("Terme de filtre invalide: roman (colonne 15)", "year:2001 AND roman");
+        assertError("Champ de filtre inconnu: auteur (colonne 1)", "auteur:hugo");
+        assertError("Valeur invalide pour category: abc (colonne 5)", "NOT category:abc");
+        assertError("Valeur invalide pour available: oui (colonne 1)", "available:oui");
+        assertError("Guillemet non fermé dans le filtre (colonne 11)", "tag:roman tag:\"science");
+    }
+
+    @Test
+    void rejectsOverlongInput() {
+        assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("tag:" + "x".repeat(1000)));
+    }
+
+    private static void assertError(String message, String filter) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse(filter));
+        assertEquals(message, e.getMessage());
+    }
+}
@@ -0,0 +1,82 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTest {
+
+    private static List<String> tags(int from, int to) {
+        List<String> tags = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            tags.add("tag-" + i);
+        }
+        return tags;
+    }
+
+    // Part des fonctions de hachage où les deux signatures coïncident
+    private static double estimate(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < MinHash.SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / MinHash.SIZE;
+    }
+
+    private static int sharedBands(long[] a, long[] b) {
+        Set<String> keys = new HashSet<>(Arrays.asList(MinHash.bandKeys(a)));
+        return (int) Arrays.stream(MinHash.bandKeys(b)).filter(keys::contains).count();
+    }
+
+    @Test
+    void emptySetHasNoSignatureNorBand() {
+        assertNull(MinHash.signature(null));
+        assertNull(MinHash.signature(Collections.emptySet()));
+        assertEquals(0, MinHash.bandKeys(null).length);
+    }
+
+    @Test
+    void signatureDependsOnlyOnTheSet() {
+        List<String> tags = tags(0, 5);
+        List<String> shuffled = new ArrayList<>(tags);
+        Collections.reverse(shuffled);
+        shuffled.add("tag-0");
+
+        long[] signature = MinHash.signature(tags);
+        assertEquals(MinHash.SIZE, signature.length);
+        assertArrayEquals(signature, MinHash.signature(shuffled));
+        assertArrayEquals(MinHash.bandKeys(signature), MinHash.bandKeys(MinHash.signature(shuffled)));
+        assertEquals(MinHash.BANDS, MinHash.bandKeys(signature).length);
+    }
+
+    @Test
+    void agreementEstimatesJaccardSimilarity() {
+        // 100 tags communs sur 200 distincts : J = 0,5
+        long[] a = MinHash.signature(tags(0, 150));
+        long[] b = MinHash.signature(tags(50, 200));
+        assertEquals(0.5, estimate(a, b), 0.2);
+
+        long[] disjoint = MinHash.signature(tags(1000, 1150));
+        assertTrue(estimate(a, disjoint) < 0.1);
+    }
+
+    @Test
+    void similarSetsShareBandsAndDisjointSetsDoNot() {
+        long[] a = MinHash.signature(tags(0, 150));
+        assertTrue(sharedBands(a, MinHash.signature(tags(50, 200))) > 0);
+        assertEquals(MinHash.BANDS, sharedBands(a, a));
+        assertEquals(0, sharedBands(a, MinHash.signature(tags(1000, 1150))));
+    }
+}
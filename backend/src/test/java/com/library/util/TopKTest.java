@@ -0,0 +1,68 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    // Référence : tri complet par score décroissant, indice croissant à score égal
+    private static int[] fullSort(double[] scores, int k) {
+        return IntStream.range(0, scores.length).boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed()
+                .thenComparing(Comparator.naturalOrder()))
+            .limit(Math.max(k, 0))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private static double[] scores(int n, int distinct, long seed) {
+        Random random = new Random(seed);
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = random.nextInt(distinct);
+        }
+        return scores;
+    }
+
+    @Test
+    void matchesFullSortWithManyTies() {
+        // Au-delà de 1024 éléments, la sélection est découpée en tâches parallèles
+        for (int n : new int[] {1, 7, 1024, 1025, 5000, 20000}) {
+            double[] scores = scores(n, 10, n);
+            for (int k : new int[] {1, 3, 10, 100}) {
+                assertArrayEquals(fullSort(scores, k), TopK.select(n, k, i -> scores[i]), "n=" + n + ", k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void matchesFullSortWithDistinctScores() {
+        Random random = new Random(42);
+        double[] scores = random.doubles(10000).toArray();
+        assertArrayEquals(fullSort(scores, 50), TopK.select(scores.length, 50, i -> scores[i]));
+    }
+
+    @Test
+    void equalScoresKeepTheLowestIndices() {
+        assertArrayEquals(new int[] {0, 1, 2}, TopK.select(3000, 3, i -> 1.0));
+    }
+
+    @Test
+    void returnsEverythingWhenFewerThanK() {
+        double[] scores = {0.5, 2.0, -1.0, 2.0};
+        assertArrayEquals(new int[] {1, 3, 0, 2}, TopK.select(scores.length, 10, i -> scores[i]));
+    }
+
+    @Test
+    void emptySelections() {
+        assertEquals(0, TopK.select(0, 5, i -> i).length);
+        assertEquals(0, TopK.select(5, 0, i -> i).length);
+        assertEquals(0, TopK.select(-1, 5, i -> i).length);
+    }
+}
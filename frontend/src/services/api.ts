@@ -211,7 +211,7 @@ class ApiService {
       query: params.query,
       page: params.page || 0,
       size: params.size || 12,
-      sortBy: params.sortBy || 'createdAt',
+      sortBy: params.sortBy || 'relevance',
       sortDir: params.sortDir || 'desc',
       categoryId: params.categoryId,
       tags: params.tags?.join(','),
@@ -65,7 +65,7 @@ export interface Recommendation {
   book: Book;
   score: number;
   reason: string;
-  recommendationType: 'personalized' | 'category' | 'similar' | 'trending';
+  recommendationType: 'personalized' | 'category' | 'similar' | 'also-read' | 'trending';
 }
 
 export interface DownloadHistory {
@@ -219,7 +219,7 @@ export interface SearchParams {
   publicationYear?: number;
   minYear?: number;
   maxYear?: number;
-  sortBy?: 'title' | 'author' | 'createdAt' | 'downloadCount' | 'favoriteCount' | 'publicationYear';
+  sortBy?: 'relevance' | 'title' | 'author' | 'createdAt' | 'downloadCount' | 'favoriteCount' | 'publicationYear';
   sortDir?: 'asc' | 'desc';
   page?: number;
   size?: number;